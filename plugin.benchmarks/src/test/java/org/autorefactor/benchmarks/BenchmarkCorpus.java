@@ -0,0 +1,163 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.readAll;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.autorefactor.jdt.internal.ui.fix.JavaCoreHelper;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+
+/** Provides the Java files refactored by the benchmarks. */
+final class BenchmarkCorpus {
+	static final String PACKAGE_NAME= "org.autorefactor.jdt.internal.ui.fix.samples_in"; //$NON-NLS-1$
+	private static final String SAMPLES_IN_DIR= "../samples/src/test/java/org/autorefactor/jdt/internal/ui/fix/samples_in"; //$NON-NLS-1$
+
+	private BenchmarkCorpus() {
+	}
+
+	/**
+	 * Returns the sources of the samples of the cleanup rules, by file name.
+	 *
+	 * @return the sources of the samples of the cleanup rules, by file name
+	 * @throws IOException if a sample cannot be read
+	 */
+	static Map<String, String> readSamples() throws IOException {
+		File[] files= new File(SAMPLES_IN_DIR).listFiles();
+		if (files == null) {
+			throw new IOException("Cannot find the samples in " + new File(SAMPLES_IN_DIR).getAbsolutePath()); //$NON-NLS-1$
+		}
+		Arrays.sort(files);
+
+		Map<String, String> sources= new LinkedHashMap<>();
+		for (File file : files) {
+			if (file.getName().endsWith(".java")) { //$NON-NLS-1$
+				sources.put(file.getName(), readAll(file));
+			}
+		}
+
+		return sources;
+	}
+
+	/**
+	 * Generates synthetic sources, full of code that the cleanup rules refactor.
+	 *
+	 * @param nbFiles          the number of files to generate
+	 * @param nbMethodsPerFile the number of methods in each file
+	 * @return the synthetic sources, by file name
+	 */
+	static Map<String, String> generate(final int nbFiles, final int nbMethodsPerFile) {
+		Map<String, String> sources= new LinkedHashMap<>();
+		for (int i= 0; i < nbFiles; i++) {
+			String className= "SyntheticSample" + i; //$NON-NLS-1$
+			sources.put(className + ".java", generateClass(className, nbMethodsPerFile)); //$NON-NLS-1$
+		}
+
+		return sources;
+	}
+
+	private static String generateClass(final String className, final int nbMethods) {
+		StringBuilder sb= new StringBuilder();
+		sb.append("package ").append(PACKAGE_NAME).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		sb.append("import java.util.ArrayList;\n"); //$NON-NLS-1$
+		sb.append("import java.util.List;\n"); //$NON-NLS-1$
+		sb.append("import java.util.Map;\n\n"); //$NON-NLS-1$
+		sb.append("public class ").append(className).append(" {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		sb.append("    private Map<String, Integer> counts;\n"); //$NON-NLS-1$
+
+		for (int i= 0; i < nbMethods; i++) {
+			sb.append('\n');
+			sb.append("    public int method").append(i).append("(List<String> list, boolean flag) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append("        int total = ").append(i).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append("        for (int i = 0; i < list.size(); i++) {\n"); //$NON-NLS-1$
+			sb.append("            String s = list.get(i);\n"); //$NON-NLS-1$
+			sb.append("            if (flag == true) {\n"); //$NON-NLS-1$
+			sb.append("                total += s.length();\n"); //$NON-NLS-1$
+			sb.append("            } else if (s.equals(\"\")) {\n"); //$NON-NLS-1$
+			sb.append("                total = total + 1;\n"); //$NON-NLS-1$
+			sb.append("            }\n"); //$NON-NLS-1$
+			sb.append("        }\n"); //$NON-NLS-1$
+			sb.append("        Integer boxed = new Integer(total);\n"); //$NON-NLS-1$
+			sb.append("        if (list.size() == 0) {\n"); //$NON-NLS-1$
+			sb.append("            return boxed.intValue();\n"); //$NON-NLS-1$
+			sb.append("        }\n"); //$NON-NLS-1$
+			sb.append("        String text = \"value: \" + String.valueOf(total);\n"); //$NON-NLS-1$
+			sb.append("        List<String> copy = new ArrayList<String>();\n"); //$NON-NLS-1$
+			sb.append("        for (String s : list) {\n"); //$NON-NLS-1$
+			sb.append("            copy.add(s);\n"); //$NON-NLS-1$
+			sb.append("        }\n"); //$NON-NLS-1$
+			sb.append("        if (!(total > 10)) {\n"); //$NON-NLS-1$
+			sb.append("            return copy.size();\n"); //$NON-NLS-1$
+			sb.append("        }\n"); //$NON-NLS-1$
+			sb.append("        return text.length();\n"); //$NON-NLS-1$
+			sb.append("    }\n"); //$NON-NLS-1$
+		}
+
+		sb.append("}\n"); //$NON-NLS-1$
+		return sb.toString();
+	}
+
+	/**
+	 * Creates the compilation units in the benchmark Java project.
+	 *
+	 * @param sources the sources by file name
+	 * @return the compilation units, in the same order as the sources
+	 * @throws Exception if the compilation units cannot be created
+	 */
+	static ICompilationUnit[] createCompilationUnits(final Map<String, String> sources) throws Exception {
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		ICompilationUnit[] compilationUnits= new ICompilationUnit[sources.size()];
+		int i= 0;
+		for (Map.Entry<String, String> source : sources.entrySet()) {
+			compilationUnits[i++]= packageFragment.createCompilationUnit(source.getKey(), source.getValue(), true, null);
+		}
+
+		return compilationUnits;
+	}
+
+	/**
+	 * Returns the number of lines of the provided source.
+	 *
+	 * @param source the source
+	 * @return the number of lines of the provided source
+	 */
+	static int countLines(final String source) {
+		int nbLines= 1;
+		for (int i= 0; i < source.length(); i++) {
+			if (source.charAt(i) == '\n') {
+				nbLines++;
+			}
+		}
+
+		return nbLines;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the whole pipeline applying all the cleanup rules, as the
+ * CleanUpTest does, on the samples of the cleanup rules and on large
+ * synthetic files. The throughput is reported in files per second and lines
+ * per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 3)
+@Measurement(iterations= 5)
+public class CleanUpsBenchmark {
+	/** The refactored files: the samples of the cleanup rules or large synthetic files. */
+	@Param({ "samples", "synthetic" })
+	public String corpus;
+
+	private String[] sources;
+	private int[] nbLines;
+	private ICompilationUnit[] compilationUnits;
+	private JavaProjectOptions options;
+
+	/** Counts the refactored files and lines, reported as rates by JMH. */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Throughput {
+		/** The number of refactored files. */
+		public long files;
+		/** The number of refactored lines. */
+		public long lines;
+
+		/** Resets the counters before each iteration. */
+		@Setup(Level.Iteration)
+		public void reset() {
+			files= 0;
+			lines= 0;
+		}
+	}
+
+	/**
+	 * Creates the compilation units.
+	 *
+	 * @throws Exception if the compilation units cannot be created
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Map<String, String> corpusSources= "samples".equals(corpus) ? BenchmarkCorpus.readSamples() //$NON-NLS-1$
+				: BenchmarkCorpus.generate(10, 500);
+		sources= new ArrayList<>(corpusSources.values()).toArray(new String[0]);
+		nbLines= new int[sources.length];
+		for (int i= 0; i < sources.length; i++) {
+			nbLines[i]= BenchmarkCorpus.countLines(sources[i]);
+		}
+		compilationUnits= BenchmarkCorpus.createCompilationUnits(corpusSources);
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+	}
+
+	/**
+	 * Applies all the cleanup rules until the fix point, then restores the
+	 * original sources.
+	 *
+	 * @param throughput the counters of refactored files and lines
+	 * @throws Exception if a refactoring fails
+	 */
+	@Benchmark
+	public void applyAllCleanUps(final Throughput throughput) throws Exception {
+		for (int i= 0; i < compilationUnits.length; i++) {
+			ICompilationUnit compilationUnit= compilationUnits[i];
+			compilationUnit.getBuffer().setContents(sources[i]);
+			compilationUnit.save(null, true);
+
+			IDocument document= new Document(sources[i]);
+			new ApplyRefactoringsJob(null, null, TEST_ENVIRONMENT).applyRefactoring(document, compilationUnit,
+					new AggregateASTVisitor(AllCleanUpRules.getAllCleanUpRules()), options,
+					SubMonitor.convert(new NullProgressMonitor()), true);
+			throughput.files++;
+			throughput.lines+= nbLines[i];
+		}
+	}
+
+	/**
+	 * Parses the files with their bindings, as each iteration of the fix point
+	 * loop does.
+	 *
+	 * @param throughput the counters of parsed files and lines
+	 * @return the parsed ASTs, so they are not optimized away
+	 */
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public ASTNode[] parse(final Throughput throughput) {
+		ASTNode[] astRoots= new ASTNode[compilationUnits.length];
+		for (int i= 0; i < compilationUnits.length; i++) {
+			ASTParser parser= ASTParser.newParser(AST.JLS8);
+			parser.setSource(compilationUnits[i]);
+			parser.setResolveBindings(true);
+			parser.setCompilerOptions(options.getCompilerOptions());
+			astRoots[i]= parser.createAST(null);
+			throughput.files++;
+			throughput.lines+= nbLines[i];
+		}
+
+		return astRoots;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.cfg.CFGBasicBlock;
+import org.autorefactor.cfg.CFGBuilder;
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.ASTSemanticMatcher;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.corext.dom.TypeHierarchyCache;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Micro-benchmarks of the helpers called by most of the cleanup rules, run on
+ * the nodes of a large synthetic file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations= 3)
+@Measurement(iterations= 5)
+public class HelpersBenchmark {
+	private String source;
+	private JavaProjectOptions options;
+	private final List<MethodInvocation> methodInvocations= new ArrayList<>();
+	private final List<InfixExpression> infixExpressions= new ArrayList<>();
+	private final List<MethodDeclaration> methodDeclarations= new ArrayList<>();
+
+	/**
+	 * Parses the synthetic file and collects the nodes given to the helpers.
+	 *
+	 * @throws Exception if the file cannot be parsed
+	 */
+	@Setup(Level.Trial)
+	@SuppressWarnings("deprecation")
+	public void setUp() throws Exception {
+		Map<String, String> sources= BenchmarkCorpus.generate(1, 200);
+		source= sources.values().iterator().next();
+		ICompilationUnit compilationUnit= BenchmarkCorpus.createCompilationUnits(sources)[0];
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(compilationUnit);
+		parser.setResolveBindings(true);
+		parser.setCompilerOptions(options.getCompilerOptions());
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+		astRoot.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final MethodInvocation node) {
+				methodInvocations.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visit(final InfixExpression node) {
+				infixExpressions.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visit(final MethodDeclaration node) {
+				methodDeclarations.add(node);
+				return true;
+			}
+		});
+	}
+
+	/**
+	 * Checks the signature of all the method invocations, walking the type
+	 * hierarchy for each check.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void usesGivenSignature(final Blackhole blackhole) {
+		checkSignatures(blackhole);
+	}
+
+	/**
+	 * Checks the signature of all the method invocations like the cleanups do
+	 * while visiting a compilation unit, with a type hierarchy cache.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void usesGivenSignatureWithTypeHierarchyCache(final Blackhole blackhole) {
+		TypeHierarchyCache previousTypeHierarchyCache= TypeHierarchyCache.open();
+
+		try {
+			checkSignatures(blackhole);
+		} finally {
+			TypeHierarchyCache.close(previousTypeHierarchyCache);
+		}
+	}
+
+	private void checkSignatures(final Blackhole blackhole) {
+		for (MethodInvocation methodInvocation : methodInvocations) {
+			blackhole.consume(ASTNodes.usesGivenSignature(methodInvocation, List.class.getCanonicalName(), "size")); //$NON-NLS-1$
+			blackhole.consume(ASTNodes.usesGivenSignature(methodInvocation, Collection.class.getCanonicalName(), "add", //$NON-NLS-1$
+					Object.class.getCanonicalName()));
+			blackhole.consume(ASTNodes.usesGivenSignature(methodInvocation, Collection.class.getCanonicalName(), "isEmpty")); //$NON-NLS-1$
+			blackhole.consume(ASTNodes.usesGivenSignature(methodInvocation, Map.class.getCanonicalName(), "get", //$NON-NLS-1$
+					Object.class.getCanonicalName()));
+			blackhole.consume(ASTNodes.usesGivenSignature(methodInvocation, Object.class.getCanonicalName(), "equals", //$NON-NLS-1$
+					Object.class.getCanonicalName()));
+		}
+	}
+
+	/**
+	 * Matches each infix expression with the next one.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void match(final Blackhole blackhole) {
+		for (int i= 1; i < infixExpressions.size(); i++) {
+			blackhole.consume(ASTNodes.match(ASTSemanticMatcher.INSTANCE, infixExpressions.get(i - 1), infixExpressions.get(i)));
+		}
+	}
+
+	/**
+	 * Builds the control flow graph of all the methods.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void buildCFG(final Blackhole blackhole) {
+		for (MethodDeclaration methodDeclaration : methodDeclarations) {
+			CFGBasicBlock block= new CFGBuilder(source, options).buildCFG(methodDeclaration);
+			blackhole.consume(block);
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Micro-benchmarks of {@link ASTNodes#isPassive(org.eclipse.jdt.core.dom.ASTNode)}
+ * and
+ * {@link ASTNodes#isPassiveWithoutFallingThrough(org.eclipse.jdt.core.dom.ASTNode)}
+ * asked about each level of deeply nested boolean expressions, from the
+ * outermost to the innermost one, like the cleanup rules do.
+ * <p>
+ * The file is parsed again before each call so that the first question about a
+ * compilation unit is always measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations= 3)
+@Measurement(iterations= 5)
+public class PassiveExpressionsBenchmark {
+	private static final int NB_METHODS= 50;
+	private static final int DEPTH= 40;
+
+	private ICompilationUnit compilationUnit;
+	private JavaProjectOptions options;
+	private final List<Expression> expressions= new ArrayList<>();
+
+	/**
+	 * Creates the synthetic file.
+	 *
+	 * @throws Exception if the file cannot be created
+	 */
+	@Setup(Level.Trial)
+	public void setUpTrial() throws Exception {
+		String className= "NestedBooleanSample"; //$NON-NLS-1$
+		Map<String, String> sources= Collections.singletonMap(className + ".java", generateClass(className)); //$NON-NLS-1$
+		compilationUnit= BenchmarkCorpus.createCompilationUnits(sources)[0];
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+	}
+
+	/**
+	 * Parses the synthetic file and collects the nested expressions, outermost
+	 * first.
+	 */
+	@Setup(Level.Invocation)
+	@SuppressWarnings("deprecation")
+	public void setUpInvocation() {
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(compilationUnit);
+		parser.setResolveBindings(true);
+		parser.setCompilerOptions(options.getCompilerOptions());
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+
+		expressions.clear();
+		astRoot.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final InfixExpression node) {
+				expressions.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visit(final ParenthesizedExpression node) {
+				expressions.add(node);
+				return true;
+			}
+		});
+	}
+
+	private static String generateClass(final String className) {
+		StringBuilder sb= new StringBuilder();
+		sb.append("package ").append(BenchmarkCorpus.PACKAGE_NAME).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		sb.append("public class ").append(className).append(" {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		for (int i= 0; i < NB_METHODS; i++) {
+			sb.append('\n');
+			sb.append("    public boolean method").append(i).append("(int x, int y, String s) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append("        return ").append(generateExpression(DEPTH)).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append("    }\n"); //$NON-NLS-1$
+		}
+
+		sb.append("}\n"); //$NON-NLS-1$
+		return sb.toString();
+	}
+
+	private static String generateExpression(final int depth) {
+		// The innermost operand calls a method so every level must be analyzed
+		StringBuilder sb= new StringBuilder("s.isEmpty()"); //$NON-NLS-1$
+
+		for (int i= 1; i <= depth; i++) {
+			sb.insert(0, "(x > " + i + " && "); //$NON-NLS-1$ //$NON-NLS-2$
+			sb.append(" || y < ").append(i).append(')'); //$NON-NLS-1$
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Asks whether each nested expression is passive.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void isPassive(final Blackhole blackhole) {
+		for (Expression expression : expressions) {
+			blackhole.consume(ASTNodes.isPassive(expression));
+		}
+	}
+
+	/**
+	 * Asks whether each nested expression is passive and throws no exceptions.
+	 *
+	 * @param blackhole consumes the results
+	 */
+	@Benchmark
+	public void isPassiveWithoutFallingThrough(final Blackhole blackhole) {
+		for (Expression expression : expressions) {
+			blackhole.consume(ASTNodes.isPassiveWithoutFallingThrough(expression));
+		}
+	}
+}
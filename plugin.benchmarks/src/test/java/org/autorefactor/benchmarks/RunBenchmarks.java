@@ -0,0 +1,55 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all the JMH benchmarks of this bundle from the Eclipse test runtime.
+ * <p>
+ * The benchmarks are not forked: they need the running OSGi framework and
+ * workspace. The GC profiler reports the allocation rate of each benchmark. The
+ * "jmh.include" system property restricts the benchmarks to run, the results
+ * are written in the file given by the "jmh.result" system property.
+ */
+public class RunBenchmarks {
+	@Test
+	public void runBenchmarks() throws Exception {
+		Options options= new OptionsBuilder()
+				.include(System.getProperty("jmh.include", RunBenchmarks.class.getPackage().getName() + ".*")) //$NON-NLS-1$ //$NON-NLS-2$
+				.forks(0)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(System.getProperty("jmh.result", "jmh-result.json")) //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		new Runner(options).run();
+	}
+}
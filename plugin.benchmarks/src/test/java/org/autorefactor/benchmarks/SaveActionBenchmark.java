@@ -0,0 +1,127 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.text.edits.TextEdit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency added by the AutoRefactor save action on a synthetic
+ * file of about 3,000 lines, once the clean up framework has parsed it. The
+ * save action runs one pass of all the cleanup rules without saving.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations= 3)
+@Measurement(iterations= 5)
+public class SaveActionBenchmark {
+	/** About 25 lines per synthetic method. */
+	private static final int NB_METHODS= 120;
+
+	private ICompilationUnit compilationUnit;
+	private JavaProjectOptions options;
+	private CompilationUnit providedAstRoot;
+
+	/**
+	 * Creates the compilation unit.
+	 *
+	 * @throws Exception if the compilation unit cannot be created
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Map<String, String> sources= BenchmarkCorpus.generate(1, NB_METHODS);
+		compilationUnit= BenchmarkCorpus.createCompilationUnits(sources)[0];
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+	}
+
+	/** Parses the compilation unit with its bindings, as the clean up framework does before the save action. */
+	@Setup(Level.Invocation)
+	@SuppressWarnings("deprecation")
+	public void parseAsCleanUpFramework() {
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(compilationUnit);
+		parser.setResolveBindings(true);
+		parser.setCompilerOptions(options.getCompilerOptions());
+		providedAstRoot= (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Runs the save action parsing the compilation unit again.
+	 *
+	 * @return the text edits, so they are not optimized away
+	 * @throws Exception if a refactoring fails
+	 */
+	@Benchmark
+	public List<TextEdit> reparse() throws Exception {
+		return applySaveAction(null);
+	}
+
+	/**
+	 * Runs the save action directly on the AST provided by the clean up
+	 * framework.
+	 *
+	 * @return the text edits, so they are not optimized away
+	 * @throws Exception if a refactoring fails
+	 */
+	@Benchmark
+	public List<TextEdit> reuseProvidedAst() throws Exception {
+		return applySaveAction(providedAstRoot);
+	}
+
+	private List<TextEdit> applySaveAction(final CompilationUnit firstAstRoot) throws Exception {
+		return new ApplyRefactoringsJob(null, null, TEST_ENVIRONMENT).applyRefactoring(compilationUnit, firstAstRoot,
+				new AggregateASTVisitor(AllCleanUpRules.getAllCleanUpRules()), options,
+				SubMonitor.convert(new NullProgressMonitor()), false);
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.benchmarks;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.EventLoop;
+import org.autorefactor.environment.StandardErrorLogger;
+import org.autorefactor.environment.UntrackedJobManager;
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringUnit;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringUnitScheduler;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.autorefactor.util.UnhandledException;
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.LocationKind;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time taken by several {@link ApplyRefactoringsJob} workers to
+ * refactor a large number of files, like a refactoring of a whole project does.
+ * <p>
+ * When an editor holds the documents, the workers apply their edits through the
+ * user interface thread, simulated here by a single thread. Otherwise, each
+ * worker applies its edits on its own thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations= 1)
+@Measurement(iterations= 3)
+public class WorkersBenchmark {
+	/** The number of workers. */
+	@Param({ "1", "8" })
+	public int nbWorkers;
+
+	/** The number of refactored files. */
+	@Param({ "5000" })
+	public int nbFiles;
+
+	/** Whether an editor holds the documents of the refactored files. */
+	@Param({ "false", "true" })
+	public boolean openedInEditor;
+
+	private final UserInterfaceThread userInterfaceThread= new UserInterfaceThread();
+	private final Environment environment= new Environment(userInterfaceThread, new UntrackedJobManager(),
+			new StandardErrorLogger(), null);
+	private String[] sources;
+	private ICompilationUnit[] compilationUnits;
+	private JavaProjectOptions options;
+
+	/**
+	 * Creates the compilation units.
+	 *
+	 * @throws Exception if the compilation units cannot be created
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		Map<String, String> corpusSources= BenchmarkCorpus.generate(nbFiles, 5);
+		sources= new ArrayList<>(corpusSources.values()).toArray(new String[0]);
+		compilationUnits= BenchmarkCorpus.createCompilationUnits(corpusSources);
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+
+		if (openedInEditor) {
+			// Like an editor, keep a connection to the document so that it is shared
+			for (ICompilationUnit compilationUnit : compilationUnits) {
+				FileBuffers.getTextFileBufferManager().connect(compilationUnit.getPath(), LocationKind.NORMALIZE, null);
+			}
+		}
+	}
+
+	/**
+	 * Closes the documents and stops the user interface thread.
+	 *
+	 * @throws Exception if a document cannot be closed
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		if (openedInEditor) {
+			for (ICompilationUnit compilationUnit : compilationUnits) {
+				FileBuffers.getTextFileBufferManager().disconnect(compilationUnit.getPath(), LocationKind.NORMALIZE,
+						null);
+			}
+		}
+
+		userInterfaceThread.shutdown();
+	}
+
+	/**
+	 * Restores the original sources refactored by the previous invocation.
+	 *
+	 * @throws Exception if a compilation unit cannot be saved
+	 */
+	@Setup(Level.Invocation)
+	public void restoreSources() throws Exception {
+		for (int i= 0; i < compilationUnits.length; i++) {
+			compilationUnits[i].getBuffer().setContents(sources[i]);
+			compilationUnits[i].save(null, true);
+		}
+	}
+
+	/**
+	 * Refactors all the files with the workers and waits for them.
+	 *
+	 * @throws Exception if the workers cannot be joined
+	 */
+	@Benchmark
+	public void refactorAllFiles() throws Exception {
+		List<RefactoringUnit> refactoringUnits= new ArrayList<>(compilationUnits.length);
+		for (ICompilationUnit compilationUnit : compilationUnits) {
+			refactoringUnits.add(new RefactoringUnit(compilationUnit, options));
+		}
+
+		RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(refactoringUnits, nbWorkers, environment.getLogger());
+		JobGroup jobGroup= new JobGroup("Benchmark", nbWorkers, nbWorkers); //$NON-NLS-1$
+		for (int i= 0; i < nbWorkers; i++) {
+			Job job= new ApplyRefactoringsJob(scheduler.getWorkerQueue(i), AllCleanUpRules.getAllCleanUpRules(), environment);
+			job.setJobGroup(jobGroup);
+			job.schedule();
+		}
+
+		jobGroup.join(0, null);
+	}
+
+	/** Runs the code on a single thread, like the display thread does. */
+	private static final class UserInterfaceThread implements EventLoop {
+		private final ExecutorService executor= Executors.newSingleThreadExecutor();
+
+		@Override
+		public <E extends Exception> void syncExec(final Callable<E> callable) throws E {
+			E ex;
+			try {
+				ex= executor.submit(callable).get();
+			} catch (InterruptedException e) {
+				throw new UnhandledException(null, e);
+			} catch (ExecutionException e) {
+				throw new UnhandledException(null, e.getCause());
+			}
+
+			if (ex != null) {
+				throw ex;
+			}
+		}
+
+		private void shutdown() {
+			executor.shutdown();
+		}
+	}
+}
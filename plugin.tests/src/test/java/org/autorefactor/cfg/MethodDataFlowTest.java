@@ -0,0 +1,155 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.ui.fix.JavaCoreHelper;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.Test;
+
+public class MethodDataFlowTest {
+	private String source;
+
+	@Test
+	public void testDeadWrite() throws Exception {
+		MethodDeclaration method= parse("int m() { int i= 0; i= 1; return i; }"); //$NON-NLS-1$
+		MethodDataFlow dataFlow= newDataFlow(method);
+		List<SimpleName> i= names(method, "i"); //$NON-NLS-1$
+
+		assertTrue(dataFlow.isDeadWrite(i.get(0)));
+		assertFalse(dataFlow.isDeadWrite(i.get(1)));
+		assertEquals(Arrays.<Name>asList(i.get(1)), dataFlow.getReachingDefinitions(i.get(2)));
+		assertEquals(Arrays.<Name>asList(i.get(2)), dataFlow.getReads(i.get(1)));
+	}
+
+	@Test
+	public void testLoop() throws Exception {
+		MethodDeclaration method= parse("int m(int n) { int sum= 0; for (int i= 0; i < n; i++) { sum+= i; } return sum; }"); //$NON-NLS-1$
+		MethodDataFlow dataFlow= newDataFlow(method);
+		List<SimpleName> sum= names(method, "sum"); //$NON-NLS-1$
+		List<SimpleName> i= names(method, "i"); //$NON-NLS-1$
+
+		assertFalse(dataFlow.isDeadWrite(sum.get(0)));
+		assertFalse(dataFlow.isDeadWrite(i.get(2)));
+		assertEquals(Arrays.<Name>asList(sum.get(0), sum.get(1)), dataFlow.getReachingDefinitions(sum.get(2)));
+	}
+
+	@Test
+	public void testLambdaCapture() throws Exception {
+		MethodDeclaration method= parse("void m() { int x= 1; Runnable r= () -> System.out.println(x); r.run(); }"); //$NON-NLS-1$
+		MethodDataFlow dataFlow= newDataFlow(method);
+		List<SimpleName> x= names(method, "x"); //$NON-NLS-1$
+
+		assertFalse(dataFlow.isDeadWrite(x.get(0)));
+		assertEquals(Arrays.<Name>asList(x.get(0)), dataFlow.getReachingDefinitions(x.get(1)));
+	}
+
+	@Test
+	public void testAnonymousClassCapture() throws Exception {
+		MethodDeclaration method= parse(
+				"Object m() { final int x= 1; return new Object() { public int hashCode() { return x; } }; }"); //$NON-NLS-1$
+		MethodDataFlow dataFlow= newDataFlow(method);
+
+		assertFalse(dataFlow.isDeadWrite(names(method, "x").get(0))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testTryStatementIsNotAnalyzed() throws Exception {
+		MethodDeclaration method= parse("void m() { int i= 0; try { i= 1; } finally { i= 2; } }"); //$NON-NLS-1$
+
+		assertEquals(null, MethodDataFlow.analyze(new CFGBuilder(source, newJavaProjectOptions()), method));
+	}
+
+	private MethodDataFlow newDataFlow(final MethodDeclaration method) throws Exception {
+		MethodDataFlow dataFlow= MethodDataFlow.analyze(new CFGBuilder(source, newJavaProjectOptions()), method);
+		assertNotNull(dataFlow);
+		return dataFlow;
+	}
+
+	private MethodDeclaration parse(final String method) throws Exception {
+		source= "package org.autorefactor.cfg;\npublic class DataFlowSample {\n" + method + "\n}\n"; //$NON-NLS-1$ //$NON-NLS-2$
+
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment("org.autorefactor.cfg"); //$NON-NLS-1$
+		ICompilationUnit cu= packageFragment.createCompilationUnit("DataFlowSample.java", source, true, null); //$NON-NLS-1$
+		cu.getBuffer().setContents(source);
+		cu.save(null, true);
+
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		Method resetParser= ApplyRefactoringsJob.class.getDeclaredMethod("resetParser", ICompilationUnit.class, //$NON-NLS-1$
+				ASTParser.class, JavaProjectOptions.class);
+		resetParser.setAccessible(true);
+		resetParser.invoke(null, cu, parser, newJavaProjectOptions());
+
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+		return ((TypeDeclaration) astRoot.types().get(0)).getMethods()[0];
+	}
+
+	private JavaProjectOptions newJavaProjectOptions() {
+		JavaProjectOptionsImpl options= new JavaProjectOptionsImpl();
+		options.setJavaSERelease(Release.javaSE("1.8")); //$NON-NLS-1$
+		options.setTabSize(4);
+		return options;
+	}
+
+	private List<SimpleName> names(final MethodDeclaration method, final String identifier) {
+		final List<SimpleName> names= new ArrayList<>();
+		method.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final SimpleName node) {
+				if (identifier.equals(node.getIdentifier())) {
+					names.add(node);
+				}
+
+				return true;
+			}
+		});
+
+		return names;
+	}
+}
@@ -0,0 +1,298 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.autorefactor.test.TestHelper.newTestEnvironment;
+import static org.autorefactor.test.TestHelper.normalizeJavaSourceCode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.Logger;
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringUnit;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.test.TestPreferences;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.EmptyStatement;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.text.edits.TextEdit;
+import org.junit.Test;
+
+/**
+ * Tests the job applying the cleanups to the files of its queue.
+ */
+public class ApplyRefactoringsJobTest {
+	private static final String PACKAGE_NAME= "org.autorefactor.jdt.internal.ui.fix.samples_in"; //$NON-NLS-1$
+
+	/** Records the messages instead of throwing on errors. */
+	private static final class RecordingLogger implements Logger {
+		private final List<String> errors= new ArrayList<>();
+		private final List<String> infos= new ArrayList<>();
+
+		@Override
+		public void error(final String message) {
+			errors.add(message);
+		}
+
+		@Override
+		public void error(final String message, final Exception e) {
+			errors.add(message);
+		}
+
+		@Override
+		public void warn(final String message) {
+		}
+
+		@Override
+		public void info(final String message) {
+			infos.add(message);
+		}
+	}
+
+	private static String sampleIn(final String className) {
+		return "package " + PACKAGE_NAME + ";\n" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "\n" //$NON-NLS-1$
+				+ "public class " + className + " {\n" //$NON-NLS-1$ //$NON-NLS-2$
+				+ "    public void method() {\n" //$NON-NLS-1$
+				+ "        ;\n" //$NON-NLS-1$
+				+ "    }\n" //$NON-NLS-1$
+				+ "}\n"; //$NON-NLS-1$
+	}
+
+	private static String sampleOut(final String className) {
+		return sampleIn(className).replace("        ;\n", ""); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/** Needs two passes: the empty statement, then the empty if. */
+	private static String twoPassSampleIn(final String className) {
+		return sampleIn(className).replace("method() {\n        ;\n", //$NON-NLS-1$
+				"method(boolean b) {\n        if (b) {\n            ;\n        }\n"); //$NON-NLS-1$
+	}
+
+	private static String twoPassSampleOut(final String className) {
+		return sampleOut(className).replace("method()", "method(boolean b)"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static ICompilationUnit createCompilationUnit(final String className) throws Exception {
+		return createCompilationUnit(className, sampleIn(className));
+	}
+
+	private static ICompilationUnit createCompilationUnit(final String className, final String source) throws Exception {
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		ICompilationUnit cu= packageFragment.createCompilationUnit(className + ".java", source, true, null); //$NON-NLS-1$
+		cu.getBuffer().setContents(source);
+		cu.save(null, true);
+		return cu;
+	}
+
+	private static Queue<RefactoringUnit> newQueue(final ICompilationUnit... compilationUnits) {
+		Queue<RefactoringUnit> refactoringUnits= new ConcurrentLinkedQueue<>();
+
+		for (ICompilationUnit compilationUnit : compilationUnits) {
+			refactoringUnits.add(new RefactoringUnit(compilationUnit, newJavaProjectOptions(Release.javaSE("1.8.0"), 4))); //$NON-NLS-1$
+		}
+
+		return refactoringUnits;
+	}
+
+	private static void run(final Queue<RefactoringUnit> refactoringUnits, final Environment environment) throws Exception {
+		run(refactoringUnits, new RemoveEmptyStatementCleanUp(), environment);
+	}
+
+	private static void run(final Queue<RefactoringUnit> refactoringUnits, final RefactoringRule rule,
+			final Environment environment) throws Exception {
+		ApplyRefactoringsJob job= new ApplyRefactoringsJob(refactoringUnits, Arrays.asList(rule), environment);
+		job.schedule();
+		job.join();
+
+		assertTrue(job.getResult().toString(), job.getResult().isOK());
+	}
+
+	/**
+	 * The job built without a rule plan builds it from its cleanups when it runs.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void buildsTheRulePlanWhenRun() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("RulePlanSample"); //$NON-NLS-1$
+
+		run(newQueue(cu), newTestEnvironment(new TestPreferences()));
+
+		assertEquals(normalizeJavaSourceCode(sampleOut("RulePlanSample")), normalizeJavaSourceCode(cu.getSource())); //$NON-NLS-1$
+	}
+
+	/**
+	 * A rule that fails on a file is disabled for that file only.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void enablesTheFaultyRuleForTheNextFile() throws Exception {
+		ICompilationUnit faultyCu= createCompilationUnit("FaultySample"); //$NON-NLS-1$
+		ICompilationUnit cu= createCompilationUnit("NextSample"); //$NON-NLS-1$
+		RecordingLogger logger= new RecordingLogger();
+		RefactoringRule faultyOnceRule= new RemoveEmptyStatementCleanUp() {
+			private boolean hasFailed;
+
+			@Override
+			public boolean visit(final EmptyStatement node) {
+				if (!hasFailed) {
+					hasFailed= true;
+					throw new IllegalStateException("Faulty rule"); //$NON-NLS-1$
+				}
+
+				return super.visit(node);
+			}
+		};
+
+		run(newQueue(faultyCu, cu), faultyOnceRule,
+				newTestEnvironment(new TestPreferences(), logger));
+
+		assertEquals(1, logger.errors.size());
+		assertEquals(normalizeJavaSourceCode(sampleIn("FaultySample")), normalizeJavaSourceCode(faultyCu.getSource())); //$NON-NLS-1$
+		assertEquals(normalizeJavaSourceCode(sampleOut("NextSample")), normalizeJavaSourceCode(cu.getSource())); //$NON-NLS-1$
+	}
+
+	/**
+	 * In working copy mode, the file is written once after the last pass.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void commitsTheWorkingCopyOnce() throws Exception {
+		final ICompilationUnit cu= createCompilationUnit("WorkingCopySample", twoPassSampleIn("WorkingCopySample")); //$NON-NLS-1$ //$NON-NLS-2$
+		final AtomicInteger nbWrites= new AtomicInteger();
+		IResourceChangeListener listener= new IResourceChangeListener() {
+			@Override
+			public void resourceChanged(final IResourceChangeEvent event) {
+				IResourceDelta delta= event.getDelta().findMember(cu.getResource().getFullPath());
+
+				if (delta != null && (delta.getFlags() & IResourceDelta.CONTENT) != 0) {
+					nbWrites.incrementAndGet();
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+
+		try {
+			run(newQueue(cu), newTestEnvironment(new TestPreferences().setWorkingCopyOn(true)));
+		} finally {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+		}
+
+		assertEquals(normalizeJavaSourceCode(twoPassSampleOut("WorkingCopySample")), normalizeJavaSourceCode(cu.getSource())); //$NON-NLS-1$
+		assertEquals(1, nbWrites.get());
+	}
+
+	/**
+	 * The files parsed together for their first pass are refactored like the files
+	 * parsed one by one.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void refactorsAChunkLikeEachFile() throws Exception {
+		String[] classNames= { "BatchSample", "BatchTwoPassSample", "BatchOtherSample" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String[] inputs= { sampleIn(classNames[0]), twoPassSampleIn(classNames[1]), sampleIn(classNames[2]) };
+		ICompilationUnit[] cus= new ICompilationUnit[classNames.length];
+		for (int i= 0; i < classNames.length; i++) {
+			cus[i]= createCompilationUnit(classNames[i], inputs[i]);
+		}
+		run(newQueue(cus), newTestEnvironment(new TestPreferences()));
+		String[] expectedOutputs= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			expectedOutputs[i]= cus[i].getSource();
+			cus[i]= createCompilationUnit(classNames[i], inputs[i]);
+		}
+
+		run(newQueue(cus), newTestEnvironment(new TestPreferences().setBatchParsingOn(true)));
+
+		for (int i= 0; i < cus.length; i++) {
+			assertEquals(expectedOutputs[i], cus[i].getSource());
+		}
+		assertEquals(normalizeJavaSourceCode(twoPassSampleOut(classNames[1])), normalizeJavaSourceCode(expectedOutputs[1]));
+	}
+
+	/**
+	 * Once the deadline of the save action is passed, the cleanups found so far
+	 * are kept and the pending cleanups are logged.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void keepsTheCleanupsFoundBeforeTheDeadline() throws Exception {
+		String source= sampleIn("DeadlineSample").replace("    }\n}\n", //$NON-NLS-1$ //$NON-NLS-2$
+				"    }\n\n    public void otherMethod() {\n        ;\n    }\n}\n"); //$NON-NLS-1$
+		ICompilationUnit cu= createCompilationUnit("DeadlineSample", source); //$NON-NLS-1$
+		RecordingLogger logger= new RecordingLogger();
+		final AggregateASTVisitor[] visitor= new AggregateASTVisitor[1];
+		RefactoringRule budgetSpendingRule= new RemoveEmptyStatementCleanUp() {
+			@Override
+			public boolean visit(final EmptyStatement node) {
+				boolean visitSubtree= super.visit(node);
+				// The budget is spent by the first cleanup
+				visitor[0].setDeadline(System.nanoTime());
+				return visitSubtree;
+			}
+		};
+		List<RefactoringRule> rules= Arrays.asList(budgetSpendingRule);
+		visitor[0]= new AggregateASTVisitor(new RulePlan(rules), rules, null);
+		visitor[0].setDeadline(System.nanoTime() + TimeUnit.HOURS.toNanos(1));
+		ApplyRefactoringsJob job= new ApplyRefactoringsJob(newQueue(), rules,
+				newTestEnvironment(new TestPreferences(), logger));
+
+		List<TextEdit> textEdits= job.applyRefactoring(cu, null, visitor[0], newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+				SubMonitor.convert(null), false);
+
+		assertTrue(visitor[0].isInterrupted());
+		assertEquals(1, textEdits.size());
+		IDocument document= new Document(source);
+		textEdits.get(0).apply(document);
+		assertEquals(normalizeJavaSourceCode(source.replaceFirst("        ;\n", "")), //$NON-NLS-1$ //$NON-NLS-2$
+				normalizeJavaSourceCode(document.get()));
+		assertEquals(1, logger.infos.size());
+		assertTrue(logger.infos.get(0), logger.infos.get(0).contains(budgetSpendingRule.getClass().getName()));
+	}
+}
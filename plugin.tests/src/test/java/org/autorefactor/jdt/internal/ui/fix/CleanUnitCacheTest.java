@@ -0,0 +1,168 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.autorefactor.jdt.internal.corext.dom.CleanUnitCache;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests when the files found clean by a previous run are skipped.
+ */
+public class CleanUnitCacheTest {
+	private static final String PACKAGE_NAME= "org.autorefactor.jdt.internal.ui.fix.samples_in"; //$NON-NLS-1$
+	private static final String RULES_FINGERPRINT= CleanUnitCache
+			.getRulesFingerprint(Collections.<RefactoringRule>singletonList(new RemoveEmptyStatementCleanUp()));
+
+	private IPackageFragment packageFragment;
+	private JavaProjectOptions options;
+	private CleanUnitCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		options= newJavaProjectOptions(Release.javaSE("1.8.0"), 4); //$NON-NLS-1$
+		cache= CleanUnitCache.getInstance(TEST_ENVIRONMENT.getLogger());
+	}
+
+	@Test
+	public void testHit() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("CacheHitSample", "public class CacheHitSample {\n}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		markClean(cu);
+
+		assertTrue(cache.isClean(cu, computeKey(cu)));
+	}
+
+	@Test
+	public void testContentChange() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("CacheContentSample", "public class CacheContentSample {\n}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		markClean(cu);
+		setSource(cu, "public class CacheContentSample {\n    int i;\n}\n"); //$NON-NLS-1$
+
+		assertFalse(cache.isClean(cu, computeKey(cu)));
+	}
+
+	@Test
+	public void testDependencyChange() throws Exception {
+		ICompilationUnit dependency= createCompilationUnit("CacheDependencySample", //$NON-NLS-1$
+				"public class CacheDependencySample {\n}\n"); //$NON-NLS-1$
+		ICompilationUnit cu= createCompilationUnit("CacheDependentSample", //$NON-NLS-1$
+				"public class CacheDependentSample extends CacheDependencySample {\n}\n"); //$NON-NLS-1$
+		markClean(cu);
+		String key= computeKey(cu);
+		setSource(dependency, "public class CacheDependencySample {\n    int i;\n}\n"); //$NON-NLS-1$
+
+		assertEquals(key, computeKey(cu));
+		assertFalse(cache.isClean(cu, key));
+	}
+
+	@Test
+	public void testClasspathChange() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("CacheClasspathSample", "public class CacheClasspathSample {\n}\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		IJavaProject javaProject= cu.getJavaProject();
+		IFile library= javaProject.getProject().getFile("cache-library.jar"); //$NON-NLS-1$
+		if (library.exists()) {
+			library.delete(true, null);
+		}
+		library.create(new ByteArrayInputStream(newJar("one")), true, null); //$NON-NLS-1$
+		List<IClasspathEntry> classpath= Arrays.asList(javaProject.getRawClasspath());
+		IClasspathEntry[] newClasspath= classpath.toArray(new IClasspathEntry[classpath.size() + 1]);
+		newClasspath[classpath.size()]= JavaCore.newLibraryEntry(library.getFullPath(), null, null);
+		javaProject.setRawClasspath(newClasspath, null);
+		markClean(cu);
+		String key= computeKey(cu);
+
+		// The library is inside the workspace: its path is relative to the workspace root
+		library.setContents(new ByteArrayInputStream(newJar("one, two")), true, false, null); //$NON-NLS-1$
+
+		assertNotEquals(key, computeKey(cu));
+		assertFalse(cache.isClean(cu, computeKey(cu)));
+	}
+
+	private ICompilationUnit createCompilationUnit(final String className, final String typeDeclaration) throws Exception {
+		String source= "package " + PACKAGE_NAME + ";\n\n" + typeDeclaration; //$NON-NLS-1$ //$NON-NLS-2$
+		ICompilationUnit cu= packageFragment.createCompilationUnit(className + ".java", source, true, null); //$NON-NLS-1$
+		setSource(cu, typeDeclaration);
+		return cu;
+	}
+
+	private void setSource(final ICompilationUnit cu, final String typeDeclaration) throws Exception {
+		cu.getBuffer().setContents("package " + PACKAGE_NAME + ";\n\n" + typeDeclaration); //$NON-NLS-1$ //$NON-NLS-2$
+		cu.save(null, true);
+	}
+
+	private String computeKey(final ICompilationUnit cu) throws Exception {
+		return cache.computeKey(cu, options, RULES_FINGERPRINT);
+	}
+
+	private void markClean(final ICompilationUnit cu) throws Exception {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(cu);
+		parser.setResolveBindings(true);
+
+		cache.markClean(cu, computeKey(cu), (CompilationUnit) parser.createAST(null), TEST_ENVIRONMENT.getLogger());
+	}
+
+	private static byte[] newJar(final String content) throws Exception {
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		try (JarOutputStream jar= new JarOutputStream(bytes)) {
+			jar.putNextEntry(new ZipEntry("content.txt")); //$NON-NLS-1$
+			jar.write(content.getBytes(StandardCharsets.UTF_8));
+			jar.closeEntry();
+		}
+
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.autorefactor.test.TestHelper.newTestEnvironment;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.test.TestPreferences;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+
+/**
+ * Tests the disjoint edits in the passes that only visit the members modified
+ * by the previous pass.
+ */
+public class DisjointEditsTest {
+	private static final String PACKAGE_NAME= "org.autorefactor.jdt.internal.ui.fix.samples_in"; //$NON-NLS-1$
+
+	private static final String SAMPLE_IN= "package " + PACKAGE_NAME + ";\n" //$NON-NLS-1$ //$NON-NLS-2$
+			+ "\n" //$NON-NLS-1$
+			+ "public class DisjointEditsSample {\n" //$NON-NLS-1$
+			+ "    public void first() {\n" //$NON-NLS-1$
+			+ "    }\n" //$NON-NLS-1$
+			+ "\n" //$NON-NLS-1$
+			+ "    public void unchanged() {\n" //$NON-NLS-1$
+			+ "    }\n" //$NON-NLS-1$
+			+ "}\n"; //$NON-NLS-1$
+
+	/** Renames the method first into second, then second into third. */
+	private static final class RenameMethodRule extends AbstractCleanUpRule {
+		@Override
+		public String getName() {
+			return "Rename method"; //$NON-NLS-1$
+		}
+
+		@Override
+		public String getDescription() {
+			return "Renames first into second, then second into third."; //$NON-NLS-1$
+		}
+
+		@Override
+		public String getReason() {
+			return "It refactors the dirty member in each pass."; //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean visit(final MethodDeclaration node) {
+			String identifier= node.getName().getIdentifier();
+
+			if ("first".equals(identifier) || "second".equals(identifier)) { //$NON-NLS-1$ //$NON-NLS-2$
+				String newIdentifier= "first".equals(identifier) ? "second" : "third"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				cuRewrite.getASTRewrite().replace(node.getName(), node.getAST().newSimpleName(newIdentifier), null);
+				return false;
+			}
+
+			return true;
+		}
+	}
+
+	/** Records the methods visited by the rules restricted to the dirty members. */
+	private static final class RecordMethodsRule extends AbstractCleanUpRule {
+		private final List<String> visitedMethods= new ArrayList<>();
+
+		@Override
+		public String getName() {
+			return "Record methods"; //$NON-NLS-1$
+		}
+
+		@Override
+		public String getDescription() {
+			return "Records the visited methods."; //$NON-NLS-1$
+		}
+
+		@Override
+		public String getReason() {
+			return "It shows which members the rules visit."; //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean visit(final MethodDeclaration node) {
+			visitedMethods.add(node.getName().getIdentifier());
+			return true;
+		}
+	}
+
+	/**
+	 * A dirty member refactored by a rule pushes two dispatch frames. Both of
+	 * them must be popped, or the following clean members are visited by all the
+	 * rules.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void refactoredDirtyMemberRestoresTheDispatch() throws Exception {
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		ICompilationUnit cu= packageFragment.createCompilationUnit("DisjointEditsSample.java", SAMPLE_IN, true, null); //$NON-NLS-1$
+		cu.getBuffer().setContents(SAMPLE_IN);
+		cu.save(null, true);
+
+		RecordMethodsRule recordMethodsRule= new RecordMethodsRule();
+		IDocument doc= new Document(SAMPLE_IN);
+		new ApplyRefactoringsJob(null, null,
+				newTestEnvironment(new TestPreferences().setDirtyRegionsOn(true).setDisjointEditsOn(true)))
+						.applyRefactoring(doc, cu,
+								new AggregateASTVisitor(
+										Arrays.<RefactoringRule>asList(recordMethodsRule, new RenameMethodRule())),
+								newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+								SubMonitor.convert(new NullProgressMonitor()), true);
+
+		assertEquals(SAMPLE_IN.replace("first", "third"), doc.get()); //$NON-NLS-1$ //$NON-NLS-2$
+		// The clean member is only visited by the complete passes
+		assertEquals(Arrays.asList("first", "unchanged", "second", "third", "third", "unchanged"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				recordMethodsRule.visitedMethods);
+	}
+}
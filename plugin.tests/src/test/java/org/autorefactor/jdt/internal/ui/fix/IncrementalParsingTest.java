@@ -0,0 +1,101 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.autorefactor.test.TestHelper.newTestEnvironment;
+import static org.autorefactor.test.TestHelper.normalizeJavaSourceCode;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.test.TestPreferences;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+
+/**
+ * Tests the passes that only parse the body modified by the previous pass.
+ */
+public class IncrementalParsingTest {
+	private static final String PACKAGE_NAME= "org.autorefactor.jdt.internal.ui.fix.samples_in"; //$NON-NLS-1$
+
+	private static final String SAMPLE_IN= "package " + PACKAGE_NAME + ";\n" //$NON-NLS-1$ //$NON-NLS-2$
+			+ "\n" //$NON-NLS-1$
+			+ "import android.app.Activity;\n" //$NON-NLS-1$
+			+ "import android.os.PowerManager;\n" //$NON-NLS-1$
+			+ "import android.os.PowerManager.WakeLock;\n" //$NON-NLS-1$
+			+ "\n" //$NON-NLS-1$
+			+ "public class IncrementalParsingSample extends Activity {\n" //$NON-NLS-1$
+			+ "    private WakeLock wl;\n" //$NON-NLS-1$
+			+ "\n" //$NON-NLS-1$
+			+ "    public void acquireWakeLock(PowerManager pm) {\n" //$NON-NLS-1$
+			+ "        wl = pm.newWakeLock(PowerManager.SCREEN_DIM_WAKE_LOCK, \"IncrementalParsingSample\");\n" //$NON-NLS-1$
+			+ "        wl.acquire();\n" //$NON-NLS-1$
+			+ "        ;\n" //$NON-NLS-1$
+			+ "    }\n" //$NON-NLS-1$
+			+ "\n" //$NON-NLS-1$
+			+ "    @Override\n" //$NON-NLS-1$
+			+ "    protected void onPause() {\n" //$NON-NLS-1$
+			+ "        wl.release();\n" //$NON-NLS-1$
+			+ "        super.onPause();\n" //$NON-NLS-1$
+			+ "    }\n" //$NON-NLS-1$
+			+ "}\n"; //$NON-NLS-1$
+
+	private static final String SAMPLE_OUT= SAMPLE_IN.replace("        ;\n", ""); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * The wake lock cleanup looks for a release in the other members, which are
+	 * empty in the pass focused on the body modified by the empty statement
+	 * cleanup. It must wait for the complete pass.
+	 *
+	 * @throws Exception if the cleanups cannot be applied
+	 */
+	@Test
+	public void crossMemberRuleSkipsTheFocusedPass() throws Exception {
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		ICompilationUnit cu= packageFragment.createCompilationUnit("IncrementalParsingSample.java", SAMPLE_IN, true, null); //$NON-NLS-1$
+		cu.getBuffer().setContents(SAMPLE_IN);
+		cu.save(null, true);
+
+		IDocument doc= new Document(SAMPLE_IN);
+		new ApplyRefactoringsJob(null, null, newTestEnvironment(new TestPreferences().setIncrementalParsingOn(true)))
+				.applyRefactoring(doc, cu,
+						new AggregateASTVisitor(Arrays.<RefactoringRule>asList(new AndroidWakeLockCleanUp(),
+								new RemoveEmptyStatementCleanUp())),
+						newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+						SubMonitor.convert(new NullProgressMonitor()), true);
+
+		assertEquals(normalizeJavaSourceCode(SAMPLE_OUT), normalizeJavaSourceCode(doc.get()));
+	}
+}
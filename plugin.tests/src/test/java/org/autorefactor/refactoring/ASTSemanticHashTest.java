@@ -0,0 +1,121 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.ASTSemanticHash;
+import org.autorefactor.jdt.internal.corext.dom.ASTSemanticMatcher;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.Test;
+
+public class ASTSemanticHashTest {
+	private static List<Statement> parseStatements(final String body) {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(("class A {\n" //$NON-NLS-1$
+				+ "\tint f, g;\n" //$NON-NLS-1$
+				+ "\tvoid m(int i, int j, boolean b) {\n" //$NON-NLS-1$
+				+ body
+				+ "\t}\n" //$NON-NLS-1$
+				+ "\tvoid n() {\n" //$NON-NLS-1$
+				+ "\t}\n" //$NON-NLS-1$
+				+ "}\n").toCharArray()); //$NON-NLS-1$
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+		return ASTNodes.statements(((TypeDeclaration) astRoot.types().get(0)).getMethods()[0].getBody());
+	}
+
+	// @DataProvider
+	public Object[][] getMayMatch() {
+		return new Object[][] {
+				// @formatter:off
+				// Equivalences of the matcher
+				{ "i++;", "i += 1;", true }, { "--i;", "i -= 1;", true }, { "(i)++;", "i++;", true }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				{ "this.f++;", "f++;", true }, { "if (b) { i++; }", "if (b) i++;", true }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				{ "b = i < j;", "b = !(i >= j);", true }, { "if (b) n(); else i++;", "if (!b) i++; else n();", true }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				// Lost on purpose: the operand order and the read variables
+				{ "m(i, j, b);", "m(j, i, b);", true }, { "j = -i;", "j = -j;", true }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				// Different assigned variables, invoked methods or statement kinds
+				{ "i++;", "j++;", false }, { "this.f++;", "this.g++;", false }, { "i = j;", "j = i;", false }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				{ "m(i, j, b);", "n();", false }, { "super.toString();", "super.hashCode();", false }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				{ "while (b) i++;", "if (b) i++;", false } //$NON-NLS-1$ //$NON-NLS-2$
+				// @formatter:on
+		};
+	}
+
+	@Test
+	public void mayMatch() {
+		for (Object[] args : getMayMatch()) {
+			mayMatch((String) args[0], (String) args[1], (Boolean) args[2]);
+		}
+	}
+
+	public void mayMatch(String statement1, String statement2, boolean expected) {
+		List<Statement> statements= parseStatements(statement1 + "\n" + statement2 + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(statement1 + " / " + statement2, expected, ASTSemanticHash.mayMatch(statements.get(0), statements.get(1))); //$NON-NLS-1$
+
+		if (!expected) {
+			assertFalse(ASTSemanticMatcher.INSTANCE.safeSubtreeMatch(statements.get(0), statements.get(1)));
+		}
+	}
+
+	@Test
+	public void matchingStatementsHaveTheSameHash() {
+		StringBuilder body= new StringBuilder();
+
+		for (Object[] args : getMayMatch()) {
+			body.append(args[0]).append('\n').append(args[1]).append('\n');
+		}
+
+		List<Statement> statements= parseStatements(body.toString());
+
+		for (Statement statement1 : statements) {
+			for (Statement statement2 : statements) {
+				// Without the pre-filter of ASTNodes.match()
+				if (ASTSemanticMatcher.INSTANCE.safeSubtreeMatch(statement1, statement2)) {
+					assertEquals(statement1 + " / " + statement2, ASTSemanticHash.of(statement1), ASTSemanticHash.of(statement2)); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	@Test
+	public void detachedNodesAreNotFiltered() {
+		AST ast= parseStatements("\t\ti++;\n").get(0).getAST(); //$NON-NLS-1$
+
+		assertTrue(ASTSemanticHash.mayMatch(ast.newSimpleName("i"), ast.newSimpleName("j"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(ASTSemanticHash.mayMatch(null, ast.newSimpleName("j"))); //$NON-NLS-1$
+	}
+}
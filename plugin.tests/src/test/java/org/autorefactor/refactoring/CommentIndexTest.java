@@ -0,0 +1,122 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.CommentIndex;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Comment;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.Test;
+
+public class CommentIndexTest {
+	private static final String BLOCK_COMMENT= "/* a */"; //$NON-NLS-1$
+	private static final String LINE_COMMENT= "// b"; //$NON-NLS-1$
+	private static final String SOURCE= BLOCK_COMMENT + "class A {\n" //$NON-NLS-1$
+			+ "\t" + LINE_COMMENT + "\n" //$NON-NLS-1$ //$NON-NLS-2$
+			+ "\tint i;\n" //$NON-NLS-1$
+			+ "}\n"; //$NON-NLS-1$
+
+	private static CompilationUnit parse(final String source) {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(source.toCharArray());
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	@Test
+	public void commentBounds() {
+		CommentIndex index= CommentIndex.of(parse(SOURCE));
+
+		assertTrue(index.isInComment(0));
+		assertTrue(index.isInComment(BLOCK_COMMENT.length()));
+		assertFalse(index.isInComment(BLOCK_COMMENT.length() + 1));
+
+		int lineCommentStart= SOURCE.indexOf(LINE_COMMENT);
+		int lineCommentEnd= lineCommentStart + LINE_COMMENT.length();
+		assertFalse(index.isInComment(lineCommentStart - 1));
+		assertTrue(index.isInComment(lineCommentStart));
+		assertTrue(index.isInComment(lineCommentEnd));
+		assertFalse(index.isInComment(lineCommentEnd + 1));
+	}
+
+	@Test
+	public void commentsInRange() {
+		CommentIndex index= CommentIndex.of(parse(SOURCE));
+		int lineCommentStart= SOURCE.indexOf(LINE_COMMENT);
+		int lineCommentEnd= lineCommentStart + LINE_COMMENT.length();
+
+		List<Comment> comments= index.commentsInRange(lineCommentStart, lineCommentEnd);
+		assertEquals(1, comments.size());
+		assertEquals(lineCommentStart, comments.get(0).getStartPosition());
+
+		assertTrue(index.commentsInRange(lineCommentStart + 1, lineCommentEnd).isEmpty());
+		assertTrue(index.commentsInRange(lineCommentStart, lineCommentEnd - 1).isEmpty());
+		assertEquals(2, index.commentsInRange(0, SOURCE.length()).size());
+	}
+
+	@Test
+	public void commentsBetweenNodes() {
+		CompilationUnit astRoot= parse(SOURCE);
+		CommentIndex index= CommentIndex.of(astRoot);
+		Comment blockComment= (Comment) astRoot.getCommentList().get(0);
+		FieldDeclaration field= ((TypeDeclaration) astRoot.types().get(0)).getFields()[0];
+
+		List<Comment> comments= index.commentsBetween(blockComment, field);
+		assertEquals(1, comments.size());
+		assertEquals(SOURCE.indexOf(LINE_COMMENT), comments.get(0).getStartPosition());
+
+		assertTrue(index.commentsBetween(field, blockComment).isEmpty());
+	}
+
+	@Test
+	public void noComments() {
+		String source= "class A {}\n"; //$NON-NLS-1$
+		CommentIndex index= CommentIndex.of(parse(source));
+
+		assertFalse(index.isInComment(0));
+		assertFalse(index.isInComment(source.length()));
+		assertTrue(index.commentsInRange(0, source.length()).isEmpty());
+	}
+
+	@Test
+	public void sharedByTheNodesOfTheCompilationUnit() {
+		CompilationUnit astRoot= parse(SOURCE);
+		TypeDeclaration type= (TypeDeclaration) astRoot.types().get(0);
+
+		assertTrue(CommentIndex.of(astRoot) == CommentIndex.of(type));
+		assertNull(CommentIndex.of(astRoot.getAST().newBlock()));
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.autorefactor.test.TestHelper.TEST_ENVIRONMENT;
+import static org.autorefactor.test.TestHelper.newJavaProjectOptions;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
+import org.autorefactor.jdt.internal.ui.fix.JavaCoreHelper;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+public class CompilationUnitRewriteTest {
+	private static final String PACKAGE_NAME= "org.autorefactor.refactoring"; //$NON-NLS-1$
+
+	private static ICompilationUnit createCompilationUnit(final String className, final String source) throws Exception {
+		IPackageFragment packageFragment= JavaCoreHelper.getPackageFragment(PACKAGE_NAME);
+		ICompilationUnit cu= packageFragment.createCompilationUnit(className + ".java", source, true, null); //$NON-NLS-1$
+		cu.getBuffer().setContents(source);
+		cu.save(null, true);
+		return cu;
+	}
+
+	private static CompilationUnit parse(final ICompilationUnit cu) {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(cu);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private static CompilationUnitRewrite newRewrite(final ICompilationUnit cu, final CompilationUnit astRoot) {
+		return new CompilationUnitRewrite(cu, astRoot, newJavaProjectOptions(Release.javaSE("1.8.0"), 4), //$NON-NLS-1$
+				SubMonitor.convert(null), TEST_ENVIRONMENT);
+	}
+
+	@Test
+	public void lombokIsScannedOncePerParse() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("LombokSample", "package " + PACKAGE_NAME + ";\n" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ "@lombok.Getter\n" //$NON-NLS-1$
+				+ "public class LombokSample {\n" //$NON-NLS-1$
+				+ "    private int i;\n" //$NON-NLS-1$
+				+ "}\n"); //$NON-NLS-1$
+		CompilationUnit astRoot= parse(cu);
+		long nbScans= CompilationUnitRewrite.getNbLombokScans();
+
+		assertTrue(newRewrite(cu, astRoot).isUseLombok());
+		// The next passes on the same AST reuse the scan
+		assertTrue(newRewrite(cu, astRoot).isUseLombok());
+		assertEquals(nbScans + 1, CompilationUnitRewrite.getNbLombokScans());
+
+		assertTrue(newRewrite(cu, parse(cu)).isUseLombok());
+		assertEquals(nbScans + 2, CompilationUnitRewrite.getNbLombokScans());
+	}
+
+	@Test
+	public void noLombok() throws Exception {
+		ICompilationUnit cu= createCompilationUnit("NoLombokSample", "package " + PACKAGE_NAME + ";\n" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ "public class NoLombokSample {\n" //$NON-NLS-1$
+				+ "    private java.util.List<String> list;\n" //$NON-NLS-1$
+				+ "}\n"); //$NON-NLS-1$
+
+		assertFalse(newRewrite(cu, parse(cu)).isUseLombok());
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.NodeTypeIndex;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.Test;
+
+public class NodeTypeIndexTest {
+	private static final String SOURCE= "class A {\n" //$NON-NLS-1$
+			+ "\tvoid m() {\n" //$NON-NLS-1$
+			+ "\t\t{ int i= java.lang.Integer.MAX_VALUE; }\n" //$NON-NLS-1$
+			+ "\t}\n" //$NON-NLS-1$
+			+ "\tvoid n() {\n" //$NON-NLS-1$
+			+ "\t\tn();n();\n" //$NON-NLS-1$
+			+ "\t}\n" //$NON-NLS-1$
+			+ "}\n"; //$NON-NLS-1$
+
+	private static CompilationUnit parse() {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(SOURCE.toCharArray());
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private static MethodDeclaration getMethod(final CompilationUnit astRoot, final int index) {
+		return ((TypeDeclaration) astRoot.types().get(0)).getMethods()[index];
+	}
+
+	@Test
+	public void nestedNodesOfTheSameClass() {
+		CompilationUnit astRoot= parse();
+		NodeTypeIndex index= NodeTypeIndex.of(astRoot);
+		MethodDeclaration m= getMethod(astRoot, 0);
+
+		List<Block> blocks= index.getNodes(m, Block.class);
+		assertEquals(2, blocks.size());
+		assertTrue(blocks.get(0) == m.getBody());
+		assertTrue(blocks.get(1) == m.getBody().statements().get(0));
+		assertEquals(1, index.getNodes(blocks.get(1), Block.class).size());
+	}
+
+	@Test
+	public void ancestorsStartingAtTheSamePosition() {
+		CompilationUnit astRoot= parse();
+		NodeTypeIndex index= NodeTypeIndex.of(astRoot);
+		List<QualifiedName> names= index.getNodes(astRoot, QualifiedName.class);
+
+		assertEquals(3, names.size());
+		assertEquals("java.lang.Integer.MAX_VALUE", names.get(0).getFullyQualifiedName()); //$NON-NLS-1$
+		assertEquals("java.lang.Integer", names.get(1).getFullyQualifiedName()); //$NON-NLS-1$
+		assertEquals("java.lang", names.get(2).getFullyQualifiedName()); //$NON-NLS-1$
+
+		// java.lang starts where its ancestors start, but ends before them
+		List<QualifiedName> namesInsideJavaLang= index.getNodes(names.get(2), QualifiedName.class);
+		assertEquals(1, namesInsideJavaLang.size());
+		assertTrue(namesInsideJavaLang.get(0) == names.get(2));
+	}
+
+	@Test
+	public void siblingStartingAtTheEndPosition() {
+		CompilationUnit astRoot= parse();
+		NodeTypeIndex index= NodeTypeIndex.of(astRoot);
+		List<Statement> statements= getMethod(astRoot, 1).getBody().statements();
+		ExpressionStatement first= (ExpressionStatement) statements.get(0);
+
+		// The second statement starts right where the first one ends
+		assertEquals(first.getStartPosition() + first.getLength(), statements.get(1).getStartPosition());
+		List<MethodInvocation> invocations= index.getNodes(first, MethodInvocation.class);
+		assertEquals(1, invocations.size());
+		assertTrue(invocations.get(0) == first.getExpression());
+		assertEquals(2, index.getNodes(getMethod(astRoot, 1), MethodInvocation.class).size());
+	}
+
+	@Test
+	public void onlyConcreteClassesAreIndexed() {
+		CompilationUnit astRoot= parse();
+		NodeTypeIndex index= NodeTypeIndex.of(astRoot);
+
+		assertTrue(index.getNodes(astRoot, Statement.class).isEmpty());
+		assertTrue(index.getNodes(astRoot, Name.class).isEmpty());
+		assertEquals(10, index.getNodes(astRoot, SimpleName.class).size());
+	}
+
+	@Test
+	public void indexIsKeptWithTheAST() {
+		CompilationUnit astRoot= parse();
+
+		assertTrue(NodeTypeIndex.of(astRoot) == NodeTypeIndex.of(getMethod(astRoot, 0)));
+		assertNull(NodeTypeIndex.of(astRoot.getAST().newBlock()));
+	}
+}
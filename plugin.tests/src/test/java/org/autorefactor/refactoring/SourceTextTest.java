@@ -0,0 +1,125 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.jdt.internal.corext.dom.SourceText;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+public class SourceTextTest {
+	private static final String MIXED_NEWLINES= "class A {\r\n\tint i;\n  int j;\r\r\n\t \n}\n"; //$NON-NLS-1$
+
+	// @DataProvider
+	public Object[][] getLineStarts() {
+		return new Object[][] {
+				// @formatter:off
+				{ "a\r\nb", new int[] { 0, 3 } }, { "a\rb", new int[] { 0, 2 } }, { "a\nb", new int[] { 0, 2 } }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				// \n then \r are two separators, \r then \r\n too
+				{ "a\n\rb", new int[] { 0, 2, 3 } }, { "a\r\r\nb", new int[] { 0, 2, 4 } }, //$NON-NLS-1$ //$NON-NLS-2$
+				// A text ending with a separator ends with an empty line
+				{ "a\n", new int[] { 0, 2 } }, { "\n", new int[] { 0, 1 } }, { "", new int[] { 0 } } //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				// @formatter:on
+		};
+	}
+
+	@Test
+	public void lineStarts() {
+		for (Object[] args : getLineStarts()) {
+			lineStarts((String) args[0], (int[]) args[1]);
+		}
+	}
+
+	public void lineStarts(String text, int[] expectedLineStarts) {
+		SourceText sourceText= new SourceText(text);
+		assertEquals(text, expectedLineStarts.length, sourceText.getNbLines());
+
+		for (int i= 0; i < expectedLineStarts.length; i++) {
+			assertEquals(text, expectedLineStarts[i], sourceText.getLineStart(expectedLineStarts[i]));
+
+			if (i > 0) {
+				// The separator belongs to the line it ends
+				assertEquals(text, expectedLineStarts[i - 1], sourceText.getLineStart(expectedLineStarts[i] - 1));
+				assertEquals(text, expectedLineStarts[i], sourceText.getNextLineStart(expectedLineStarts[i] - 1));
+			}
+		}
+	}
+
+	@Test
+	public void sameLinesAsTheCompilationUnit() {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(MIXED_NEWLINES.toCharArray());
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+		SourceText sourceText= new SourceText(MIXED_NEWLINES);
+
+		for (int position= 0; position < MIXED_NEWLINES.length(); position++) {
+			assertEquals(astRoot.getLineNumber(position), sourceText.getLineNumber(position));
+			assertEquals(astRoot.getColumnNumber(position), sourceText.getColumn(position));
+		}
+	}
+
+	@Test
+	public void positionsOutsideTheText() {
+		SourceText sourceText= new SourceText(MIXED_NEWLINES);
+
+		assertEquals(1, sourceText.getLineNumber(-1));
+		assertEquals(0, sourceText.getLineStart(-1));
+		assertEquals(sourceText.getNbLines(), sourceText.getLineNumber(MIXED_NEWLINES.length()));
+		assertEquals(-1, sourceText.getNextLineStart(MIXED_NEWLINES.length()));
+	}
+
+	@Test
+	public void indentation() {
+		SourceText sourceText= new SourceText(MIXED_NEWLINES);
+		int lineJ= MIXED_NEWLINES.indexOf("  int j;"); //$NON-NLS-1$
+		int blankLine= MIXED_NEWLINES.indexOf("\t \n"); //$NON-NLS-1$
+
+		assertEquals(SourceLocation.fromPositions(0, 0), sourceText.getIndentation(3));
+		assertEquals(SourceLocation.fromPositions(lineJ, lineJ + 2), sourceText.getIndentation(lineJ + 5));
+		// A blank line is all indentation
+		assertEquals(SourceLocation.fromPositions(blankLine, blankLine + 2), sourceText.getIndentation(blankLine));
+		// The empty last line
+		assertEquals(SourceLocation.fromPositions(MIXED_NEWLINES.length(), MIXED_NEWLINES.length()),
+				sourceText.getIndentation(MIXED_NEWLINES.length()));
+	}
+
+	@Test
+	public void noSourceWithoutTypeRoot() {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setSource(MIXED_NEWLINES.toCharArray());
+		CompilationUnit astRoot= (CompilationUnit) parser.createAST(null);
+
+		assertNull(SourceText.of(astRoot));
+		assertNull(SourceText.of(astRoot.getAST().newBlock()));
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.autorefactor.jdt.internal.corext.dom.VarDefinitionsUsesVisitor;
+import org.autorefactor.jdt.internal.corext.dom.VariableUseIndex;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.junit.Test;
+
+public class VariableUseIndexTest {
+	private static final String SOURCE= "class A {\n" //$NON-NLS-1$
+			+ "\tint f;\n" //$NON-NLS-1$
+			+ "\tint m(int p) {\n" //$NON-NLS-1$
+			+ "\t\tint i= p;\n" //$NON-NLS-1$
+			+ "\t\ti++;\n" //$NON-NLS-1$
+			+ "\t\t--i;\n" //$NON-NLS-1$
+			+ "\t\ti+= p;\n" //$NON-NLS-1$
+			+ "\t\ti= i * f;\n" //$NON-NLS-1$
+			+ "\t\t{\n" //$NON-NLS-1$
+			+ "\t\t\tint j= i;\n" //$NON-NLS-1$
+			+ "\t\t\ti= j;\n" //$NON-NLS-1$
+			+ "\t\t}\n" //$NON-NLS-1$
+			+ "\t\treturn i;\n" //$NON-NLS-1$
+			+ "\t}\n" //$NON-NLS-1$
+			+ "}\n"; //$NON-NLS-1$
+
+	private static CompilationUnit parse() {
+		@SuppressWarnings("deprecation")
+		ASTParser parser= ASTParser.newParser(AST.JLS8);
+		parser.setUnitName("A.java"); //$NON-NLS-1$
+		parser.setEnvironment(new String[0], new String[0], null, true);
+		parser.setResolveBindings(true);
+		parser.setSource(SOURCE.toCharArray());
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private static MethodDeclaration getMethod(final CompilationUnit astRoot) {
+		return ((TypeDeclaration) astRoot.types().get(0)).getMethods()[0];
+	}
+
+	private static IVariableBinding getVariableI(final MethodDeclaration method) {
+		VariableDeclarationStatement declaration= (VariableDeclarationStatement) method.getBody().statements().get(0);
+		return ((VariableDeclarationFragment) declaration.fragments().get(0)).resolveBinding();
+	}
+
+	private static Block getInnerBlock(final MethodDeclaration method) {
+		return (Block) method.getBody().statements().get(5);
+	}
+
+	/** Returns the kinds of the parents of the provided names, to tell the occurrences apart. */
+	private static List<String> parentKinds(final List<SimpleName> names) {
+		List<String> parentKinds= new ArrayList<>(names.size());
+
+		for (SimpleName name : names) {
+			parentKinds.add(name.getParent().getClass().getSimpleName());
+		}
+
+		return parentKinds;
+	}
+
+	private static List<String> identifiers(final List<SimpleName> names) {
+		List<String> identifiers= new ArrayList<>(names.size());
+
+		for (SimpleName name : names) {
+			identifiers.add(name.getIdentifier());
+		}
+
+		return identifiers;
+	}
+
+	@Test
+	public void incrementsAreReadsAndCompoundAssignmentsAreWrites() {
+		CompilationUnit astRoot= parse();
+		MethodDeclaration method= getMethod(astRoot);
+		IVariableBinding i= getVariableI(method);
+		VariableUseIndex index= VariableUseIndex.of(astRoot);
+
+		assertEquals(Arrays.asList("VariableDeclarationFragment", "Assignment", "Assignment", "Assignment"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				parentKinds(index.getWrites(i, method.getBody(), true)));
+		assertEquals(Arrays.asList("PostfixExpression", "PrefixExpression", "InfixExpression", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"VariableDeclarationFragment", "ReturnStatement"), //$NON-NLS-1$ //$NON-NLS-2$
+				parentKinds(index.getReads(i, method.getBody(), true)));
+	}
+
+	@Test
+	public void innerScopes() {
+		CompilationUnit astRoot= parse();
+		MethodDeclaration method= getMethod(astRoot);
+		IVariableBinding i= getVariableI(method);
+		Block innerBlock= getInnerBlock(method);
+		VariableUseIndex index= VariableUseIndex.of(astRoot);
+
+		assertEquals(3, index.getWrites(i, method.getBody(), false).size());
+		assertEquals(4, index.getReads(i, method.getBody(), false).size());
+		// The occurrences directly in the scope are kept, even if the scope is a nested block
+		assertEquals(Arrays.asList("Assignment"), parentKinds(index.getWrites(i, innerBlock, false))); //$NON-NLS-1$
+		assertEquals(Arrays.asList("VariableDeclarationFragment"), parentKinds(index.getReads(i, innerBlock, false))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void sameOccurrencesAsTheVisitorWalk() {
+		CompilationUnit astRoot= parse();
+		MethodDeclaration method= getMethod(astRoot);
+		SingleVariableDeclaration parameter= (SingleVariableDeclaration) method.parameters().get(0);
+		VariableUseIndex index= VariableUseIndex.of(astRoot);
+
+		for (IVariableBinding variable : Arrays.asList(getVariableI(method), parameter.resolveBinding())) {
+			for (Block scope : Arrays.asList(method.getBody(), getInnerBlock(method))) {
+				for (boolean includeInnerScopes : new boolean[] { true, false }) {
+					VarDefinitionsUsesVisitor visitor= new VarDefinitionsUsesVisitor(variable, scope, includeInnerScopes);
+					scope.accept(visitor);
+
+					assertEquals(visitor.getWrites(), index.getWrites(variable, scope, includeInnerScopes));
+					assertEquals(visitor.getReads(), index.getReads(variable, scope, includeInnerScopes));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void fieldsAreNotIndexed() {
+		CompilationUnit astRoot= parse();
+		IVariableBinding f= ((VariableDeclarationFragment) ((TypeDeclaration) astRoot.types().get(0)).getFields()[0]
+				.fragments().get(0)).resolveBinding();
+
+		assertTrue(VariableUseIndex.of(astRoot).getReads(f, astRoot, true).isEmpty());
+	}
+
+	@Test
+	public void names() {
+		CompilationUnit astRoot= parse();
+		MethodDeclaration method= getMethod(astRoot);
+		VariableUseIndex index= VariableUseIndex.of(astRoot);
+
+		assertEquals(Arrays.asList("i", "j"), identifiers(index.getDeclarationNames(method.getBody(), true))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(Arrays.asList("i"), identifiers(index.getDeclarationNames(method.getBody(), false))); //$NON-NLS-1$
+		assertTrue(index.hasName("j", method.getBody(), true)); //$NON-NLS-1$
+		assertFalse(index.hasName("j", method.getBody(), false)); //$NON-NLS-1$
+		// The parameter is declared before the body
+		assertFalse(index.hasName("p", getInnerBlock(method), true)); //$NON-NLS-1$
+		assertTrue(index.hasName("p", method, false)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void indexIsKeptWithTheAST() {
+		CompilationUnit astRoot= parse();
+
+		assertTrue(VariableUseIndex.of(astRoot) == VariableUseIndex.of(getMethod(astRoot)));
+		assertTrue(VariableUseIndex.of(astRoot.getAST().newSimpleName("i")) == null); //$NON-NLS-1$
+	}
+}
@@ -45,10 +45,13 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 
 import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.Logger;
+import org.autorefactor.environment.UntrackedJobManager;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
 import org.autorefactor.jdt.internal.corext.dom.Release;
 import org.autorefactor.jdt.internal.ui.fix.EndsWithFileFilter;
+import org.autorefactor.preferences.Preferences;
 import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jface.text.BadLocationException;
@@ -65,6 +68,29 @@ public final class TestHelper {
 	private TestHelper() {
 	}
 
+	/**
+	 * Returns an environment for unit tests with the provided preferences.
+	 *
+	 * @param preferences the preferences
+	 * @return an environment for unit tests with the provided preferences
+	 */
+	public static Environment newTestEnvironment(final Preferences preferences) {
+		return newTestEnvironment(preferences, new ThrowingLogger());
+	}
+
+	/**
+	 * Returns an environment for unit tests with the provided preferences and
+	 * logger.
+	 *
+	 * @param preferences the preferences
+	 * @param logger      the logger
+	 * @return an environment for unit tests with the provided preferences and
+	 *         logger
+	 */
+	public static Environment newTestEnvironment(final Preferences preferences, final Logger logger) {
+		return new Environment(new CurrentThreadEventLoop(), new UntrackedJobManager(), logger, preferences);
+	}
+
 	public static void runTest(Callable<Void> test) throws Exception {
 		try {
 			test.call();
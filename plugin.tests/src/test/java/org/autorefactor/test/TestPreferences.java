@@ -0,0 +1,159 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.test;
+
+import org.autorefactor.jdt.internal.ui.fix.AbstractCleanUpRule;
+import org.autorefactor.preferences.Preferences;
+
+/** Preferences for unit tests: all the options are off unless switched on. */
+public final class TestPreferences implements Preferences {
+	private boolean incrementalParsingOn;
+	private boolean dirtyRegionsOn;
+	private boolean disjointEditsOn;
+	private boolean workingCopyOn;
+	private boolean batchParsingOn;
+	private int saveActionBudget;
+
+	/**
+	 * Switches the incremental parsing on or off.
+	 *
+	 * @param incrementalParsingOn true to switch the incremental parsing on
+	 * @return these preferences
+	 */
+	public TestPreferences setIncrementalParsingOn(final boolean incrementalParsingOn) {
+		this.incrementalParsingOn= incrementalParsingOn;
+		return this;
+	}
+
+	/**
+	 * Switches the dirty regions on or off.
+	 *
+	 * @param dirtyRegionsOn true to only revisit the members modified by the
+	 *                       previous pass
+	 * @return these preferences
+	 */
+	public TestPreferences setDirtyRegionsOn(final boolean dirtyRegionsOn) {
+		this.dirtyRegionsOn= dirtyRegionsOn;
+		return this;
+	}
+
+	/**
+	 * Switches the disjoint edits on or off.
+	 *
+	 * @param disjointEditsOn true to let the cleanups edit disjoint parts of a
+	 *                        node in the same pass
+	 * @return these preferences
+	 */
+	public TestPreferences setDisjointEditsOn(final boolean disjointEditsOn) {
+		this.disjointEditsOn= disjointEditsOn;
+		return this;
+	}
+
+	/**
+	 * Switches the working copy mode on or off.
+	 *
+	 * @param workingCopyOn true to refactor the files in memory and save them
+	 *                      once
+	 * @return these preferences
+	 */
+	public TestPreferences setWorkingCopyOn(final boolean workingCopyOn) {
+		this.workingCopyOn= workingCopyOn;
+		return this;
+	}
+
+	/**
+	 * Switches the batch parsing on or off.
+	 *
+	 * @param batchParsingOn true to parse the files of a Java project together
+	 *                       for their first pass
+	 * @return these preferences
+	 */
+	public TestPreferences setBatchParsingOn(final boolean batchParsingOn) {
+		this.batchParsingOn= batchParsingOn;
+		return this;
+	}
+
+	/**
+	 * Sets the time budget of the save action.
+	 *
+	 * @param saveActionBudget the time budget in milliseconds, 0 for no budget
+	 * @return these preferences
+	 */
+	public TestPreferences setSaveActionBudget(final int saveActionBudget) {
+		this.saveActionBudget= saveActionBudget;
+		return this;
+	}
+
+	@Override
+	public boolean debugModeOn() {
+		return false;
+	}
+
+	@Override
+	public boolean incrementalParsingOn() {
+		return incrementalParsingOn;
+	}
+
+	@Override
+	public boolean dirtyRegionsOn() {
+		return dirtyRegionsOn;
+	}
+
+	@Override
+	public boolean disjointEditsOn() {
+		return disjointEditsOn;
+	}
+
+	@Override
+	public int saveActionBudget() {
+		return saveActionBudget;
+	}
+
+	@Override
+	public boolean batchParsingOn() {
+		return batchParsingOn;
+	}
+
+	@Override
+	public boolean workingCopyOn() {
+		return workingCopyOn;
+	}
+
+	@Override
+	public boolean profilingOn() {
+		return false;
+	}
+
+	@Override
+	public boolean cleanUnitCacheOn() {
+		return false;
+	}
+
+	@Override
+	public boolean isEnabled(final Class<? extends AbstractCleanUpRule> clazz) {
+		return true;
+	}
+}
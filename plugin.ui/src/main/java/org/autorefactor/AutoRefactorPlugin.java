@@ -90,6 +90,17 @@ public class AutoRefactorPlugin extends AbstractUIPlugin {
 			log(IStatus.WARNING, message, null);
 		}
 
+		/**
+		 * Log an informational message. It is never turned into an exception, even in debug mode.
+		 *
+		 * @param message the message
+		 */
+		@Override
+		public void info(String message) {
+			final ILog log= getDefault().getLog();
+			log.log(new Status(IStatus.INFO, PLUGIN_ID, message));
+		}
+
 		/**
 		 * Log a error message.
 		 *
@@ -29,6 +29,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.autorefactor.AutoRefactorPlugin;
 import org.autorefactor.environment.Environment;
@@ -40,11 +41,20 @@ import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.RefactoringUnit;
 import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
 import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.autorefactor.jdt.internal.ui.fix.RulePlan;
+import org.autorefactor.preferences.Preferences;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring.CleanUpChange;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
@@ -82,12 +92,23 @@ public class AutoRefactorFix implements ICleanUpFix {
 			final Queue<RefactoringUnit> refactoringUnits= new ConcurrentLinkedQueue<>();
 			refactoringUnits.add(new RefactoringUnit(iCompilationUnit, options));
 
-			final ApplyRefactoringsJob applyRefactoringsJob= new ApplyRefactoringsJob(refactoringUnits,
-					refactoringRules, environment);
-			final AggregateASTVisitor visitor= new AggregateASTVisitor(refactoringRules);
+			final RulePlan rulePlan= new RulePlan(refactoringRules);
+			final ApplyRefactoringsJob applyRefactoringsJob= new ApplyRefactoringsJob(refactoringUnits, rulePlan,
+					refactoringRules, environment, null);
+			final AggregateASTVisitor visitor= new AggregateASTVisitor(rulePlan, refactoringRules, null);
+			final int budget= getSaveActionBudget(environment);
+			if (budget > 0) {
+				visitor.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget));
+			}
 			try {
-				List<TextEdit> textEdits= applyRefactoringsJob.applyRefactoring(iCompilationUnit, visitor, options,
-						loopMonitor, false);
+				CompilationUnit firstAstRoot= isReusable(compilationUnit) ? compilationUnit : null;
+				List<TextEdit> textEdits= applyRefactoringsJob.applyRefactoring(iCompilationUnit, firstAstRoot, visitor,
+						options, loopMonitor, false);
+
+				if (visitor.isInterrupted()) {
+					// Finish the cleanups in the background once the file has been saved
+					scheduleAfterSave(applyRefactoringsJob, iCompilationUnit.getResource());
+				}
 
 				for (TextEdit textEdit : textEdits) {
 					if (hasChanges) {
@@ -114,6 +135,54 @@ public class AutoRefactorFix implements ICleanUpFix {
 		return autoRefactorFix;
 	}
 
+	/**
+	 * Schedules the provided job once the provided file has been written.
+	 * <p>
+	 * The save participants are not guaranteed to hold the scheduling rule of the
+	 * file, so the rule alone does not keep the job from reading the file before
+	 * the edits of the save action are written.
+	 *
+	 * @param job  the job finishing the cleanups
+	 * @param file the file being saved
+	 */
+	private static void scheduleAfterSave(final Job job, final IResource file) {
+		job.setRule(file);
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(new IResourceChangeListener() {
+			@Override
+			public void resourceChanged(final IResourceChangeEvent event) {
+				IResourceDelta delta= event.getDelta() != null ? event.getDelta().findMember(file.getFullPath()) : null;
+
+				if (delta != null && delta.getKind() == IResourceDelta.REMOVED) {
+					ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+				} else if (delta != null && (delta.getFlags() & IResourceDelta.CONTENT) != 0) {
+					ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+					job.schedule();
+				}
+			}
+		}, IResourceChangeEvent.POST_CHANGE);
+	}
+
+	private static int getSaveActionBudget(final Environment environment) {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null ? preferences.saveActionBudget() : 0;
+	}
+
+	/**
+	 * Returns whether the cleanup rules can directly visit the AST provided by
+	 * the clean up framework, instead of parsing the compilation unit again.
+	 * <p>
+	 * The cleanup rules need the resolved bindings and use the JLS8 API.
+	 *
+	 * @param compilationUnit the AST provided by the clean up framework
+	 * @return true if the cleanup rules can directly visit the provided AST,
+	 *         false otherwise
+	 */
+	@SuppressWarnings("deprecation")
+	private static boolean isReusable(final CompilationUnit compilationUnit) {
+		AST ast= compilationUnit.getAST();
+		return ast.hasResolvedBindings() && ast.apiLevel() == AST.JLS8;
+	}
+
 	/**
 	 * Returns the cleanup rules which have been enabled from the Eclipse
 	 * preferences.
@@ -47,6 +47,10 @@ public class EclipsePreferences implements Preferences {
 		return preferenceStore.getBoolean(pref.getName());
 	}
 
+	private int getInt(PreferenceConstants pref) {
+		return preferenceStore.getInt(pref.getName());
+	}
+
 	/**
 	 * True if debug mode is on.
 	 *
@@ -57,6 +61,86 @@ public class EclipsePreferences implements Preferences {
 		return getBoolean(PreferenceConstants.DEBUG_MODE_ON);
 	}
 
+	/**
+	 * True if incremental parsing is on.
+	 *
+	 * @return True if incremental parsing is on.
+	 */
+	@Override
+	public boolean incrementalParsingOn() {
+		return getBoolean(PreferenceConstants.INCREMENTAL_PARSING_ON);
+	}
+
+	/**
+	 * True if the passes after the first one only visit the members modified by the previous pass.
+	 *
+	 * @return True if the passes after the first one only visit the members modified by the previous pass.
+	 */
+	@Override
+	public boolean dirtyRegionsOn() {
+		return getBoolean(PreferenceConstants.DIRTY_REGIONS_ON);
+	}
+
+	/**
+	 * True if the cleanups can edit disjoint parts of a node in the same pass.
+	 *
+	 * @return True if the cleanups can edit disjoint parts of a node in the same pass.
+	 */
+	@Override
+	public boolean disjointEditsOn() {
+		return getBoolean(PreferenceConstants.DISJOINT_EDITS_ON);
+	}
+
+	/**
+	 * The time budget of the save action in milliseconds.
+	 *
+	 * @return The time budget of the save action in milliseconds.
+	 */
+	@Override
+	public int saveActionBudget() {
+		return getInt(PreferenceConstants.SAVE_ACTION_BUDGET);
+	}
+
+	/**
+	 * True if the files are parsed in batches sharing one lookup environment.
+	 *
+	 * @return True if the files are parsed in batches sharing one lookup environment.
+	 */
+	@Override
+	public boolean batchParsingOn() {
+		return getBoolean(PreferenceConstants.BATCH_PARSING_ON);
+	}
+
+	/**
+	 * True if the files not opened in an editor are refactored in a working copy and saved once.
+	 *
+	 * @return True if the files not opened in an editor are refactored in a working copy and saved once.
+	 */
+	@Override
+	public boolean workingCopyOn() {
+		return getBoolean(PreferenceConstants.WORKING_COPY_ON);
+	}
+
+	/**
+	 * True if profiling is on.
+	 *
+	 * @return True if profiling is on.
+	 */
+	@Override
+	public boolean profilingOn() {
+		return getBoolean(PreferenceConstants.PROFILING_ON);
+	}
+
+	/**
+	 * True if the clean unit cache is on.
+	 *
+	 * @return True if the clean unit cache is on.
+	 */
+	@Override
+	public boolean cleanUnitCacheOn() {
+		return getBoolean(PreferenceConstants.CLEAN_UNIT_CACHE_ON);
+	}
+
 	/**
 	 * True if it is enabled.
 	 *
@@ -37,6 +37,7 @@ import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
 import org.autorefactor.preferences.PreferenceConstants;
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditor;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.PreferencePage;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionAdapter;
@@ -165,9 +166,17 @@ public class WorkspacePreferencePage extends PreferencePage implements IWorkbenc
 	 * @param allRefactoringRules allCleanupRules
 	 */
 	protected void initFields(final List<RefactoringRule> allRefactoringRules) {
-		fields= new ArrayList<>(1 + allRefactoringRules.size());
-
-		fields.add(new BooleanFieldEditor(PreferenceConstants.DEBUG_MODE_ON.getName(), PreferenceConstants.DEBUG_MODE_ON.getDescription(), fieldEditorParent));
+		fields= new ArrayList<>(PreferenceConstants.values().length + allRefactoringRules.size());
+
+		for (PreferenceConstants preference : PreferenceConstants.values()) {
+			if (preference.getDefaultValue() instanceof Boolean) {
+				fields.add(new BooleanFieldEditor(preference.getName(), preference.getDescription(), fieldEditorParent));
+			} else if (preference.getDefaultValue() instanceof Integer) {
+				// The label and the text take two columns in their own composite
+				Composite integerFieldParent= new Composite(fieldEditorParent, SWT.NONE);
+				fields.add(new IntegerFieldEditor(preference.getName(), preference.getDescription(), integerFieldParent));
+			}
+		}
 	}
 
 	private void invalidateToggleRules(final Composite ruleGroup) {
@@ -0,0 +1,404 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.autorefactor.environment.CurrentThreadEventLoop;
+import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.Logger;
+import org.autorefactor.environment.StandardErrorLogger;
+import org.autorefactor.environment.UntrackedJobManager;
+import org.autorefactor.jdt.internal.corext.dom.ApplyRefactoringsJob;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptionsImpl;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.AllCleanUpRules;
+import org.autorefactor.jdt.internal.ui.fix.RulePlan;
+import org.autorefactor.util.IllegalArgumentException;
+import org.autorefactor.util.UnhandledException;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Headless application applying the cleanups to a source tree, for instance
+ * from a continuous integration build.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * eclipse -nosplash -data &lt;workspace&gt; -application org.autorefactor.plugin.batch
+ *     -source &lt;source root&gt; [-classpath &lt;jars&gt;] [-release &lt;java version&gt;]
+ *     [-rules all|&lt;rule&gt;,&lt;rule&gt;...] [-output diff|write] [-workers &lt;count&gt;]
+ * </pre>
+ *
+ * The source root is linked into a temporary Java project of the provided
+ * workspace. The files are streamed from the source root to the workers: each
+ * worker refactors one working copy at a time then discards it. Depending on
+ * the output, the refactored files are either written back or printed on the
+ * standard output as a unified diff.
+ */
+public class BatchApplication implements IApplication {
+	private static final String PROJECT_NAME= "autorefactor-batch"; //$NON-NLS-1$
+	private static final String SOURCE_FOLDER_NAME= "src"; //$NON-NLS-1$
+	private static final String JRE_CONTAINER= "org.eclipse.jdt.launching.JRE_CONTAINER"; //$NON-NLS-1$
+	private static final int QUEUE_CAPACITY= 1024;
+	/** How long to wait for a free place in the queue before checking that the workers are still alive. */
+	private static final long OFFER_TIMEOUT_SECONDS= 1;
+	private static final int DIFF_CONTEXT_LINES= 3;
+	/** Tells the workers that no more files will come. */
+	private static final Path END_OF_FILES= Paths.get(""); //$NON-NLS-1$
+	private static final Integer EXIT_ERROR= 1;
+
+	private Path sourceRoot;
+	private final List<String> classpath= new ArrayList<>();
+	private String release= "1.8"; //$NON-NLS-1$
+	private List<String> ruleNames;
+	private boolean writeFiles;
+	private int nbWorkers= Runtime.getRuntime().availableProcessors();
+
+	private final AtomicInteger nbFiles= new AtomicInteger();
+	private final AtomicInteger nbChangedFiles= new AtomicInteger();
+	private final AtomicInteger nbErrors= new AtomicInteger();
+
+	@Override
+	public Object start(final IApplicationContext context) throws Exception {
+		String[] args= (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		try {
+			parseArguments(args != null ? args : new String[0]);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			printUsage();
+			return EXIT_ERROR;
+		}
+
+		IWorkspace workspace= ResourcesPlugin.getWorkspace();
+		IWorkspaceDescription description= workspace.getDescription();
+		description.setAutoBuilding(false);
+		workspace.setDescription(description);
+
+		IProject project= workspace.getRoot().getProject(PROJECT_NAME);
+		try {
+			IJavaProject javaProject= createJavaProject(project);
+			run(javaProject);
+		} finally {
+			deleteProject(project);
+		}
+
+		System.err.println("AutoRefactor processed " + nbFiles + " file(s), changed " + nbChangedFiles + " file(s), " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ nbErrors + " error(s)"); //$NON-NLS-1$
+		return nbErrors.get() == 0 ? EXIT_OK : EXIT_ERROR;
+	}
+
+	@Override
+	public void stop() {
+		// Nothing to do
+	}
+
+	private void parseArguments(final String[] args) {
+		for (int i= 0; i < args.length; i++) {
+			String arg= args[i];
+			if ("-source".equals(arg)) { //$NON-NLS-1$
+				sourceRoot= Paths.get(getValue(args, ++i, arg)).toAbsolutePath().normalize();
+			} else if ("-classpath".equals(arg)) { //$NON-NLS-1$
+				classpath.addAll(Arrays.asList(getValue(args, ++i, arg).split(File.pathSeparator)));
+			} else if ("-release".equals(arg)) { //$NON-NLS-1$
+				release= getValue(args, ++i, arg);
+			} else if ("-rules".equals(arg)) { //$NON-NLS-1$
+				String value= getValue(args, ++i, arg);
+				ruleNames= "all".equals(value) ? null : Arrays.asList(value.split(",")); //$NON-NLS-1$ //$NON-NLS-2$
+			} else if ("-output".equals(arg)) { //$NON-NLS-1$
+				String value= getValue(args, ++i, arg);
+				if (!"diff".equals(value) && !"write".equals(value)) { //$NON-NLS-1$ //$NON-NLS-2$
+					throw new IllegalArgumentException(null, "Unknown output: " + value); //$NON-NLS-1$
+				}
+				writeFiles= "write".equals(value); //$NON-NLS-1$
+			} else if ("-workers".equals(arg)) { //$NON-NLS-1$
+				try {
+					nbWorkers= Math.max(1, Integer.parseInt(getValue(args, ++i, arg)));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException(null, "Invalid number of workers: " + args[i]); //$NON-NLS-1$
+				}
+			} else {
+				throw new IllegalArgumentException(null, "Unknown argument: " + arg); //$NON-NLS-1$
+			}
+		}
+
+		if (sourceRoot == null) {
+			throw new IllegalArgumentException(null, "The -source argument is mandatory"); //$NON-NLS-1$
+		}
+		if (!Files.isDirectory(sourceRoot)) {
+			throw new IllegalArgumentException(null, "The source root is not a directory: " + sourceRoot); //$NON-NLS-1$
+		}
+	}
+
+	private static String getValue(final String[] args, final int index, final String arg) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException(null, "Missing value for " + arg); //$NON-NLS-1$
+		}
+
+		return args[index];
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: -source <source root> [-classpath <jars>] [-release <java version>]" //$NON-NLS-1$
+				+ " [-rules all|<rule>,<rule>...] [-output diff|write] [-workers <count>]"); //$NON-NLS-1$
+	}
+
+	private IJavaProject createJavaProject(final IProject project) throws CoreException {
+		deleteProject(project);
+		project.create(null);
+		project.open(null);
+
+		IProjectDescription description= project.getDescription();
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		project.setDescription(description, null);
+
+		IFolder sourceFolder= project.getFolder(SOURCE_FOLDER_NAME);
+		sourceFolder.createLink(org.eclipse.core.runtime.Path.fromOSString(sourceRoot.toString()), IResource.NONE, null);
+
+		List<IClasspathEntry> entries= new ArrayList<>();
+		entries.add(JavaCore.newSourceEntry(sourceFolder.getFullPath()));
+		entries.add(JavaCore.newContainerEntry(new org.eclipse.core.runtime.Path(JRE_CONTAINER)));
+		for (String library : classpath) {
+			if (!library.isEmpty()) {
+				entries.add(JavaCore.newLibraryEntry(org.eclipse.core.runtime.Path.fromOSString(new File(library).getAbsolutePath()),
+						null, null));
+			}
+		}
+
+		IJavaProject javaProject= JavaCore.create(project);
+		javaProject.setRawClasspath(entries.toArray(new IClasspathEntry[0]), project.getFolder("bin").getFullPath(), null); //$NON-NLS-1$
+		Map<String, String> options= javaProject.getOptions(true);
+		JavaCore.setComplianceOptions(release, options);
+		javaProject.setOptions(options);
+		return javaProject;
+	}
+
+	private static void deleteProject(final IProject project) throws CoreException {
+		if (project.exists()) {
+			// Only remove the link, never the linked source files
+			IFolder sourceFolder= project.getFolder(SOURCE_FOLDER_NAME);
+			if (sourceFolder.isLinked()) {
+				sourceFolder.delete(IResource.NONE, null);
+			}
+			project.delete(true, true, null);
+		}
+	}
+
+	private void run(final IJavaProject javaProject) throws Exception {
+		final Environment environment= new Environment(new CurrentThreadEventLoop(), new UntrackedJobManager(),
+				new StandardErrorLogger(), null);
+		final JavaProjectOptions options= new JavaProjectOptionsImpl(javaProject.getOptions(true));
+		final IFolder sourceFolder= javaProject.getProject().getFolder(SOURCE_FOLDER_NAME);
+		final BlockingQueue<Path> files= new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+		final RulePlan rulePlan= new RulePlan(getRefactoringRules());
+
+		final List<Thread> workers= new ArrayList<>(nbWorkers);
+		for (int i= 0; i < nbWorkers; i++) {
+			final List<RefactoringRule> refactoringRules= rulePlan.newRules();
+			Thread worker= new Thread("AutoRefactor batch worker " + (i + 1)) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					ApplyRefactoringsJob applyRefactoringsJob= new ApplyRefactoringsJob(null, rulePlan, refactoringRules,
+							environment, null);
+					AggregateASTVisitor refactoring= new AggregateASTVisitor(rulePlan, refactoringRules, null);
+					try {
+						Path file;
+						while ((file= files.take()) != END_OF_FILES) {
+							refactor(file, sourceFolder, applyRefactoringsJob, refactoring, options,
+									environment.getLogger());
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			};
+			worker.start();
+			workers.add(worker);
+		}
+
+		try {
+			Files.walkFileTree(sourceRoot, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+					if (file.getFileName().toString().endsWith(".java")) { //$NON-NLS-1$
+						try {
+							if (!offer(files, file, workers)) {
+								System.err.println("All the workers have stopped, the remaining files are not refactored"); //$NON-NLS-1$
+								nbErrors.incrementAndGet();
+								return FileVisitResult.TERMINATE;
+							}
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return FileVisitResult.TERMINATE;
+						}
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} finally {
+			for (int i= 0; i < nbWorkers; i++) {
+				if (!offer(files, END_OF_FILES, workers)) {
+					break;
+				}
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		}
+	}
+
+	/**
+	 * Waits for a free place in the queue as long as a worker is alive to free it.
+	 *
+	 * @param files   the queue of the files to refactor
+	 * @param file    the file to add
+	 * @param workers the workers taking the files from the queue
+	 * @return true if the file has been added, false if all the workers have
+	 *         stopped
+	 * @throws InterruptedException if the current thread is interrupted
+	 */
+	private static boolean offer(final BlockingQueue<Path> files, final Path file, final List<Thread> workers)
+			throws InterruptedException {
+		while (!files.offer(file, OFFER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			boolean isAnyWorkerAlive= false;
+			for (Thread worker : workers) {
+				isAnyWorkerAlive|= worker.isAlive();
+			}
+
+			if (!isAnyWorkerAlive) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private List<RefactoringRule> getRefactoringRules() {
+		List<RefactoringRule> refactoringRules= AllCleanUpRules.getAllCleanUpRules();
+		if (ruleNames == null) {
+			return refactoringRules;
+		}
+
+		List<RefactoringRule> results= new ArrayList<>(ruleNames.size());
+		for (String ruleName : ruleNames) {
+			RefactoringRule found= null;
+			for (RefactoringRule refactoringRule : refactoringRules) {
+				if (refactoringRule.getClass().getSimpleName().equals(ruleName)
+						|| refactoringRule.getClass().getName().equals(ruleName)) {
+					found= refactoringRule;
+					break;
+				}
+			}
+
+			if (found == null) {
+				throw new IllegalArgumentException(null, "Unknown rule: " + ruleName); //$NON-NLS-1$
+			}
+			results.add(found);
+		}
+
+		return results;
+	}
+
+	private void refactor(final Path file, final IFolder sourceFolder, final ApplyRefactoringsJob applyRefactoringsJob,
+			final AggregateASTVisitor refactoring, final JavaProjectOptions options, final Logger logger) {
+		String relativePath= sourceRoot.relativize(file).toString().replace(File.separatorChar, '/');
+		nbFiles.incrementAndGet();
+		ICompilationUnit workingCopy= null;
+		try {
+			ICompilationUnit compilationUnit= JavaCore
+					.createCompilationUnitFrom(sourceFolder.getFile(new org.eclipse.core.runtime.Path(relativePath)));
+			workingCopy= compilationUnit.getWorkingCopy(null);
+			String oldSource= workingCopy.getSource();
+			IDocument document= new Document(oldSource);
+
+			// The working copy is never committed until the fix point is reached
+			applyRefactoringsJob.applyRefactoring(document, workingCopy, refactoring, options, SubMonitor.convert(null),
+					true);
+
+			String newSource= document.get();
+			if (!newSource.equals(oldSource)) {
+				nbChangedFiles.incrementAndGet();
+				if (writeFiles) {
+					workingCopy.commitWorkingCopy(true, null);
+				} else {
+					String diff= UnifiedDiff.diff("a/" + relativePath, "b/" + relativePath, oldSource, newSource, //$NON-NLS-1$ //$NON-NLS-2$
+							DIFF_CONTEXT_LINES);
+					PrintStream out= System.out;
+					synchronized (out) {
+						out.print(diff);
+						out.flush();
+					}
+				}
+			}
+		} catch (Exception e) {
+			nbErrors.incrementAndGet();
+			logger.error("Exception when applying refactorings to file \"" + relativePath + "\"", e); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			if (workingCopy != null) {
+				try {
+					workingCopy.discardWorkingCopy();
+				} catch (CoreException e) {
+					throw new UnhandledException(null, e);
+				}
+			}
+		}
+	}
+}
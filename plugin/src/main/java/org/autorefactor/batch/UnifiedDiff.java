@@ -0,0 +1,208 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Computes line based differences in the unified format, using the Myers algorithm. */
+public final class UnifiedDiff {
+	private static final char EQUAL= ' ';
+	private static final char DELETE= '-';
+	private static final char INSERT= '+';
+
+	private UnifiedDiff() {
+	}
+
+	private static final class Line {
+		private final char type;
+		private final int oldIndex;
+		private final int newIndex;
+		private final String text;
+
+		private Line(final char type, final int oldIndex, final int newIndex, final String text) {
+			this.type= type;
+			this.oldIndex= oldIndex;
+			this.newIndex= newIndex;
+			this.text= text;
+		}
+	}
+
+	/**
+	 * Returns the differences between two texts in the unified format.
+	 *
+	 * @param oldName      the name of the old text
+	 * @param newName      the name of the new text
+	 * @param oldText      the old text
+	 * @param newText      the new text
+	 * @param contextLines the number of unchanged lines surrounding each change
+	 * @return the differences in the unified format, an empty string if the texts
+	 *         are identical
+	 */
+	public static String diff(final String oldName, final String newName, final String oldText, final String newText,
+			final int contextLines) {
+		List<Line> lines= computeLines(splitLines(oldText), splitLines(newText));
+
+		StringBuilder sb= new StringBuilder();
+		int i= 0;
+		while ((i= nextChange(lines, i)) < lines.size()) {
+			int start= Math.max(0, i - contextLines);
+			int end= i;
+			int nextChange;
+			while ((nextChange= nextChange(lines, end + 1)) < lines.size() && nextChange - end <= 2 * contextLines + 1) {
+				end= nextChange;
+			}
+			end= Math.min(lines.size(), end + contextLines + 1);
+
+			if (sb.length() == 0) {
+				sb.append("--- ").append(oldName).append('\n'); //$NON-NLS-1$
+				sb.append("+++ ").append(newName).append('\n'); //$NON-NLS-1$
+			}
+			appendHunk(sb, lines.subList(start, end));
+			i= end;
+		}
+
+		return sb.toString();
+	}
+
+	private static int nextChange(final List<Line> lines, final int fromIndex) {
+		for (int i= fromIndex; i < lines.size(); i++) {
+			if (lines.get(i).type != EQUAL) {
+				return i;
+			}
+		}
+
+		return lines.size();
+	}
+
+	private static void appendHunk(final StringBuilder sb, final List<Line> hunk) {
+		int oldCount= 0;
+		int newCount= 0;
+		for (Line line : hunk) {
+			if (line.type != INSERT) {
+				oldCount++;
+			}
+			if (line.type != DELETE) {
+				newCount++;
+			}
+		}
+
+		Line first= hunk.get(0);
+		sb.append("@@ -").append(oldCount == 0 ? first.oldIndex : first.oldIndex + 1).append(',').append(oldCount) //$NON-NLS-1$
+				.append(" +").append(newCount == 0 ? first.newIndex : first.newIndex + 1).append(',').append(newCount) //$NON-NLS-1$
+				.append(" @@\n"); //$NON-NLS-1$
+
+		for (Line line : hunk) {
+			sb.append(line.type).append(line.text);
+			if (!line.text.endsWith("\n")) { //$NON-NLS-1$
+				sb.append("\n\\ No newline at end of file\n"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static List<String> splitLines(final String text) {
+		List<String> lines= new ArrayList<>();
+		int start= 0;
+		for (int i= 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines.add(text.substring(start, i + 1));
+				start= i + 1;
+			}
+		}
+		if (start < text.length()) {
+			lines.add(text.substring(start));
+		}
+
+		return lines;
+	}
+
+	private static List<Line> computeLines(final List<String> a, final List<String> b) {
+		int n= a.size();
+		int m= b.size();
+		int max= n + m;
+		int offset= max + 1;
+		int[] v= new int[2 * max + 3];
+		List<int[]> trace= new ArrayList<>();
+
+		// Forward pass: find the shortest edit script, remembering each step
+		found: for (int d= 0; d <= max; d++) {
+			trace.add(v.clone());
+			for (int k= -d; k <= d; k+= 2) {
+				int x;
+				if (k == -d || k != d && v[k - 1 + offset] < v[k + 1 + offset]) {
+					x= v[k + 1 + offset];
+				} else {
+					x= v[k - 1 + offset] + 1;
+				}
+				int y= x - k;
+				while (x < n && y < m && a.get(x).equals(b.get(y))) {
+					x++;
+					y++;
+				}
+				v[k + offset]= x;
+				if (x >= n && y >= m) {
+					break found;
+				}
+			}
+		}
+
+		// Backward pass: rebuild the edit script from the end
+		List<Line> lines= new ArrayList<>();
+		int x= n;
+		int y= m;
+		for (int d= trace.size() - 1; d >= 0; d--) {
+			int[] previousV= trace.get(d);
+			int k= x - y;
+			int previousK;
+			if (k == -d || k != d && previousV[k - 1 + offset] < previousV[k + 1 + offset]) {
+				previousK= k + 1;
+			} else {
+				previousK= k - 1;
+			}
+			int previousX= previousV[previousK + offset];
+			int previousY= previousX - previousK;
+
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				lines.add(new Line(EQUAL, x, y, a.get(x)));
+			}
+			if (d > 0) {
+				if (x == previousX) {
+					lines.add(new Line(INSERT, previousX, previousY, b.get(previousY)));
+				} else {
+					lines.add(new Line(DELETE, previousX, previousY, a.get(previousX)));
+				}
+			}
+			x= previousX;
+			y= previousY;
+		}
+
+		Collections.reverse(lines);
+		return lines;
+	}
+}
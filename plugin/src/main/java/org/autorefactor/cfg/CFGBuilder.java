@@ -37,18 +37,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
+import org.autorefactor.jdt.internal.corext.dom.SourceText;
 import org.autorefactor.jdt.internal.corext.dom.TypeNameDecider;
 import org.autorefactor.util.IllegalStateException;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.autorefactor.util.Utils;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.ArrayAccess;
@@ -72,17 +71,21 @@ import org.eclipse.jdt.core.dom.DoStatement;
 import org.eclipse.jdt.core.dom.EmptyStatement;
 import org.eclipse.jdt.core.dom.EnhancedForStatement;
 import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ExpressionMethodReference;
 import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.FieldAccess;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.Initializer;
 import org.eclipse.jdt.core.dom.InstanceofExpression;
 import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.LambdaExpression;
 import org.eclipse.jdt.core.dom.MemberRef;
 import org.eclipse.jdt.core.dom.MemberValuePair;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
@@ -213,9 +216,7 @@ public class CFGBuilder {
 		}
 	}
 
-	private static final Pattern NEWLINE= Pattern.compile("\rewrite\n|\rewrite|\n"); //$NON-NLS-1$
-
-	private final String source;
+	private final SourceText source;
 	private final int tabSize;
 	/**
 	 * Edges to be built after visiting the statement used as the key.
@@ -247,6 +248,16 @@ public class CFGBuilder {
 	 * @param options the Java project options used to compile the project
 	 */
 	public CFGBuilder(final String source, final JavaProjectOptions options) {
+		this(new SourceText(source), options);
+	}
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param source  the snapshot of the java source code to work from
+	 * @param options the Java project options used to compile the project
+	 */
+	public CFGBuilder(final SourceText source, final JavaProjectOptions options) {
 		this.source= source;
 		this.tabSize= options.getTabSize();
 	}
@@ -263,8 +274,9 @@ public class CFGBuilder {
 		switch (node.getNodeType()) {
 		case ASTNode.ARRAY_ACCESS:
 			ArrayAccess aa= (ArrayAccess) node;
-			addVariableAccess(basicBlock, aa.getArray(), flags, throwers);
-			addVariableAccess(basicBlock, aa.getIndex(), flags, throwers);
+			// Writing an array element reads the array and the index
+			addVariableAccess(basicBlock, aa.getArray(), VariableAccess.READ, throwers);
+			addVariableAccess(basicBlock, aa.getIndex(), VariableAccess.READ, throwers);
 			throwers.addThrow(aa, newException(node, ArrayIndexOutOfBoundsException.class.getCanonicalName()));
 			return true;
 
@@ -280,8 +292,10 @@ public class CFGBuilder {
 
 		case ASTNode.ASSIGNMENT:
 			Assignment a= (Assignment) node;
-			boolean aMightThrow1= addVariableAccess(basicBlock, a.getLeftHandSide(), VariableAccess.WRITE, throwers);
-			boolean aMightThrow2= addVariableAccess(basicBlock, a.getRightHandSide(), VariableAccess.READ, throwers);
+			// The right hand side is read before the left hand side is written
+			boolean aMightThrow1= addVariableAccess(basicBlock, a.getRightHandSide(), VariableAccess.READ, throwers);
+			int lhsFlags= ASTNodes.hasOperator(a, Assignment.Operator.ASSIGN) ? VariableAccess.WRITE : VariableAccess.READ | VariableAccess.WRITE;
+			boolean aMightThrow2= addVariableAccess(basicBlock, a.getLeftHandSide(), lhsFlags, throwers);
 			return aMightThrow1 || aMightThrow2;
 
 		case ASTNode.BOOLEAN_LITERAL:
@@ -301,6 +315,11 @@ public class CFGBuilder {
 			ClassInstanceCreation cic= (ClassInstanceCreation) node;
 			addVariableAccess(basicBlock, cic.getExpression(), flags, throwers);
 			addVariableAccesses(basicBlock, cic.arguments(), flags, throwers);
+
+			if (cic.getAnonymousClassDeclaration() != null) {
+				addCapturedVariableReads(basicBlock, cic.getAnonymousClassDeclaration());
+			}
+
 			IMethodBinding cicBinding= cic.resolveConstructorBinding();
 
 			if (cicBinding != null) {
@@ -320,7 +339,7 @@ public class CFGBuilder {
 
 		case ASTNode.FIELD_ACCESS:
 			FieldAccess fa= (FieldAccess) node;
-			boolean mightThrow= addVariableAccess(basicBlock, fa.getExpression(), flags, throwers);
+			boolean mightThrow= addVariableAccess(basicBlock, fa.getExpression(), VariableAccess.READ, throwers);
 			basicBlock.addVariableAccess(new VariableAccess(fa, flags));
 
 			if (is(flags, VariableAccess.READ)) {
@@ -340,6 +359,21 @@ public class CFGBuilder {
 			InstanceofExpression ioe= (InstanceofExpression) node;
 			return addVariableAccess(basicBlock, ioe.getLeftOperand(), flags, throwers);
 
+		case ASTNode.LAMBDA_EXPRESSION:
+			// The body is not run here, only the captured variables are read
+			addCapturedVariableReads(basicBlock, node);
+			return false;
+
+		case ASTNode.EXPRESSION_METHOD_REFERENCE:
+			ExpressionMethodReference emr= (ExpressionMethodReference) node;
+			return addVariableAccess(basicBlock, emr.getExpression(), VariableAccess.READ, throwers);
+
+		case ASTNode.CREATION_REFERENCE:
+		case ASTNode.SUPER_METHOD_REFERENCE:
+		case ASTNode.TYPE_METHOD_REFERENCE:
+			// Nothing to do
+			return false;
+
 		case ASTNode.METHOD_INVOCATION:
 			MethodInvocation mi= (MethodInvocation) node;
 			addVariableAccess(basicBlock, mi.getExpression(), flags, throwers);
@@ -367,6 +401,11 @@ public class CFGBuilder {
 
 		case ASTNode.QUALIFIED_NAME:
 			QualifiedName qn= (QualifiedName) node;
+
+			if (qn.getQualifier().resolveBinding() instanceof IVariableBinding) {
+				addVariableAccess(basicBlock, qn.getQualifier(), VariableAccess.READ, throwers);
+			}
+
 			basicBlock.addVariableAccess(new VariableAccess(qn, flags));
 			throwers.addThrow(qn, newException(node, NullPointerException.class.getCanonicalName()));
 			return true;
@@ -377,11 +416,14 @@ public class CFGBuilder {
 
 		case ASTNode.POSTFIX_EXPRESSION:
 			PostfixExpression poe= (PostfixExpression) node;
-			return addVariableAccess(basicBlock, poe.getOperand(), flags, throwers);
+			return addVariableAccess(basicBlock, poe.getOperand(), VariableAccess.READ | VariableAccess.WRITE, throwers);
 
 		case ASTNode.PREFIX_EXPRESSION:
 			PrefixExpression pre= (PrefixExpression) node;
-			return addVariableAccess(basicBlock, pre.getOperand(), flags, throwers);
+			int preFlags= ASTNodes.hasOperator(pre, PrefixExpression.Operator.INCREMENT, PrefixExpression.Operator.DECREMENT)
+					? VariableAccess.READ | VariableAccess.WRITE
+					: flags;
+			return addVariableAccess(basicBlock, pre.getOperand(), preFlags, throwers);
 
 		case ASTNode.SUPER_FIELD_ACCESS:
 			SuperFieldAccess sfa= (SuperFieldAccess) node;
@@ -416,6 +458,34 @@ public class CFGBuilder {
 		}
 	}
 
+	/**
+	 * Adds a read access to the local variables declared outside the provided
+	 * lambda expression or class body and used inside it, because their values
+	 * are captured where the lambda expression or the class is declared.
+	 */
+	private void addCapturedVariableReads(final CFGBasicBlock basicBlock, final ASTNode node) {
+		final int start= node.getStartPosition();
+		final int end= start + node.getLength();
+
+		node.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final SimpleName name) {
+				IBinding binding= name.resolveBinding();
+
+				if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()
+						&& name.getRoot() instanceof CompilationUnit) {
+					ASTNode declaration= ((CompilationUnit) name.getRoot()).findDeclaringNode(binding);
+
+					if (declaration != null && (declaration.getStartPosition() < start || declaration.getStartPosition() >= end)) {
+						basicBlock.addVariableAccess(new VariableAccess(name, VariableAccess.READ));
+					}
+				}
+
+				return true;
+			}
+		});
+	}
+
 	private boolean is(final int flags, final int flag) {
 		return (flags & flag) == flag;
 	}
@@ -744,8 +814,10 @@ public class CFGBuilder {
 	 *
 	 * @param node the node for which to build a CFG.
 	 */
-	public void buildCFG(final TypeDeclarationStatement node) {
-		throw new NotImplementedException(node);
+	public LivenessState buildCFG(final TypeDeclarationStatement node, final LivenessState state, final ThrowerBlocks throwers) {
+		CFGBasicBlock basicBlock= getCFGBasicBlock(node, state);
+		addCapturedVariableReads(basicBlock, node);
+		return getInBlockStmtResult(state, basicBlock);
 	}
 
 	/**
@@ -1291,8 +1363,10 @@ public class CFGBuilder {
 
 			case ASTNode.TRY_STATEMENT:
 				liveState= buildCFG((TryStatement) statement, liveState, throwers);
-				// break;case TYPE_DECLARATION_STATEMENT:
-				// buildCFG((TypeDeclarationStatement) statement, liveState, throwers);
+				break;
+
+			case ASTNode.TYPE_DECLARATION_STATEMENT:
+				liveState= buildCFG((TypeDeclarationStatement) statement, liveState, throwers);
 				break;
 
 			case ASTNode.VARIABLE_DECLARATION_STATEMENT:
@@ -1494,6 +1568,7 @@ public class CFGBuilder {
 	public LivenessState buildCFG(final EnhancedForStatement node, final LivenessState state, final ThrowerBlocks throwers) {
 		CFGBasicBlock basicBlock= getCFGBasicBlock(node, state.nextStmtWillCreateNewBlock());
 
+		addVariableAccess(basicBlock, node.getExpression(), VariableAccess.READ, throwers);
 		addDeclaration(basicBlock, node.getParameter(), VariableAccess.DECL_INIT | VariableAccess.WRITE);
 
 		LivenessState newLiveState= LivenessState.of(new CFGEdgeBuilder(basicBlock));
@@ -1598,10 +1673,13 @@ public class CFGBuilder {
 		for (Expression expression : ASTNodes.initializers(node)) {
 			if (expression instanceof VariableDeclarationExpression) {
 				addDeclarations(initBlock, (VariableDeclarationExpression) expression, throwers);
+			} else {
+				addVariableAccess(initBlock, expression, VariableAccess.READ, throwers);
 			}
 		}
 		addVariableAccess(exprBlock, node.getExpression(), VariableAccess.READ, throwers);
-		addVariableAccesses(updatersBlock, ASTNodes.updaters(node), VariableAccess.WRITE, throwers);
+		// The updaters are expression statements: they record their own writes
+		addVariableAccesses(updatersBlock, ASTNodes.updaters(node), VariableAccess.READ, throwers);
 
 		CFGEdgeBuilder liveBlock= new CFGEdgeBuilder(node.getExpression(), true, exprBlock);
 		LivenessState liveAfterBody= buildCFG(node.getBody(), LivenessState.of(liveBlock), throwers);
@@ -1718,21 +1796,11 @@ public class CFGBuilder {
 		// node names
 		// line number and column number are then used as comments for the node
 		// file starts with line 1
-		int lineNo= 1;
-		int lastMatchPosition= 0;
-		Matcher matcher= NEWLINE.matcher(source);
-		while (matcher.find()) {
-			MatchResult matchResult= matcher.toMatchResult();
-			if (matchResult.end() >= position) {
-				String startOfLine= this.source.substring(lastMatchPosition, position);
-				int nbChars= countCharacters(startOfLine, tabSize);
-				// + 1 because line starts with column 1
-				return new LineAndColumn(position, lineNo, nbChars + 1);
-			}
-			lastMatchPosition= matchResult.end();
-			++lineNo;
-		}
-		throw new IllegalStateException(null, "A line and column number should have been found"); //$NON-NLS-1$
+		int lineNo= source.getLineNumber(position);
+		String startOfLine= source.getText().substring(source.getLineStart(position), position);
+		int nbChars= countCharacters(startOfLine, tabSize);
+		// + 1 because line starts with column 1
+		return new LineAndColumn(position, lineNo, nbChars + 1);
 	}
 
 	private int countCharacters(final String s, final int tabSize) {
@@ -0,0 +1,449 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.cfg;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.TryStatement;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+
+/**
+ * Reaching definitions and liveness of the local variables of a method,
+ * computed once on the control-flow graph of the method.
+ * <p>
+ * The variable accesses are identified by their name in the AST. All the
+ * queries are then a lookup in a map. The answers are conservative: an access
+ * which has not been analyzed, for example in dead code, is considered live and
+ * reached by no known definition.
+ */
+public final class MethodDataFlow {
+	/** An access to a local variable in a basic block. */
+	private static final class Access {
+		private final Name name;
+		private final int variable;
+		private final boolean read;
+		private final boolean write;
+		private final int definition;
+
+		private Access(final Name name, final int variable, final boolean read, final boolean write, final int definition) {
+			this.name= name;
+			this.variable= variable;
+			this.read= read;
+			this.write= write;
+			this.definition= definition;
+		}
+	}
+
+	/** Looks for the statements which control flow is not built by {@link CFGBuilder}. */
+	private static final class UnsupportedStatementVisitor extends InterruptibleVisitor {
+		private boolean hasUnsupportedStatement;
+
+		@Override
+		public boolean visit(final TryStatement node) {
+			// The edges from the statements throwing an exception to the catch clauses are not built
+			hasUnsupportedStatement= true;
+			return interruptVisit();
+		}
+
+		@Override
+		public boolean visit(final LambdaExpression node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(final AnonymousClassDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(final TypeDeclarationStatement node) {
+			return false;
+		}
+	}
+
+	private final List<CFGBasicBlock> blocks= new ArrayList<>();
+	private final Map<CFGBasicBlock, Integer> blockIndexes= new IdentityHashMap<>();
+	private final List<List<Access>> accessesByBlock= new ArrayList<>();
+	private final Map<IBinding, Integer> variableIndexes= new HashMap<>();
+	private final List<BitSet> definitionsByVariable= new ArrayList<>();
+	private final List<Name> definitions= new ArrayList<>();
+
+	private final Map<Name, List<Name>> definitionsByRead= new IdentityHashMap<>();
+	private final Map<Name, List<Name>> readsByDefinition= new IdentityHashMap<>();
+	private final Set<Name> analyzedAccesses= Collections.newSetFromMap(new IdentityHashMap<Name, Boolean>());
+	private final Set<Name> analyzedDefinitions= Collections.newSetFromMap(new IdentityHashMap<Name, Boolean>());
+	private final Set<Name> liveAfterAccesses= Collections.newSetFromMap(new IdentityHashMap<Name, Boolean>());
+
+	private MethodDataFlow(final CFGBasicBlock entryBlock) {
+		collectBlocks(entryBlock);
+		computeReachingDefinitions();
+		computeLiveness();
+	}
+
+	/**
+	 * Analyzes the provided method.
+	 *
+	 * @param builder the builder of the control-flow graph. It must not be reused
+	 *                if the analysis fails
+	 * @param method  the method to analyze
+	 * @return the data flow of the method, or null if the control flow of the
+	 *         method cannot be built
+	 */
+	public static MethodDataFlow analyze(final CFGBuilder builder, final MethodDeclaration method) {
+		if (method.getBody() == null) {
+			return null;
+		}
+
+		UnsupportedStatementVisitor unsupportedStatementVisitor= new UnsupportedStatementVisitor();
+		unsupportedStatementVisitor.visitNode(method.getBody());
+
+		if (unsupportedStatementVisitor.hasUnsupportedStatement) {
+			return null;
+		}
+
+		CFGBasicBlock entryBlock;
+		try {
+			entryBlock= builder.buildCFG(method);
+		} catch (RuntimeException e) {
+			// Some constructs are not handled yet: the method is then not analyzed
+			return null;
+		}
+
+		return new MethodDataFlow(entryBlock);
+	}
+
+	private void collectBlocks(final CFGBasicBlock entryBlock) {
+		LinkedList<CFGBasicBlock> toVisit= new LinkedList<>();
+		addBlock(entryBlock, toVisit);
+
+		while (!toVisit.isEmpty()) {
+			CFGBasicBlock block= toVisit.removeFirst();
+			List<Access> accesses= new ArrayList<>();
+
+			for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
+				if (obj instanceof CFGEdge) {
+					addBlock(((CFGEdge) obj).getTargetBlock(), toVisit);
+				} else if (obj instanceof VariableAccess) {
+					Access access= newAccess((VariableAccess) obj);
+
+					if (access != null) {
+						accesses.add(access);
+					}
+				}
+			}
+
+			accessesByBlock.add(accesses);
+		}
+	}
+
+	private void addBlock(final CFGBasicBlock block, final List<CFGBasicBlock> toVisit) {
+		if (!blockIndexes.containsKey(block)) {
+			blockIndexes.put(block, blocks.size());
+			blocks.add(block);
+			toVisit.add(block);
+		}
+	}
+
+	private Access newAccess(final VariableAccess varAccess) {
+		Name name= varAccess.getName();
+
+		if (name == null) {
+			return null;
+		}
+
+		IBinding binding= name.resolveBinding();
+
+		if (!(binding instanceof IVariableBinding) || ((IVariableBinding) binding).isField()) {
+			return null;
+		}
+
+		Integer variable= variableIndexes.get(binding);
+
+		if (variable == null) {
+			variable= variableIndexes.size();
+			variableIndexes.put(binding, variable);
+			definitionsByVariable.add(new BitSet());
+		}
+
+		int accessType= varAccess.getAccessType();
+		boolean read= (accessType & VariableAccess.READ) != 0;
+		boolean write= (accessType & (VariableAccess.WRITE | VariableAccess.DECL_INIT | VariableAccess.DECL_UNINIT)) != 0;
+		int definition= -1;
+
+		if ((accessType & (VariableAccess.WRITE | VariableAccess.DECL_INIT)) != 0) {
+			definition= definitions.size();
+			definitions.add(name);
+			analyzedDefinitions.add(name);
+			definitionsByVariable.get(variable).set(definition);
+		}
+
+		analyzedAccesses.add(name);
+		return new Access(name, variable, read, write, definition);
+	}
+
+	private List<List<CFGBasicBlock>> getSuccessors() {
+		List<List<CFGBasicBlock>> successors= new ArrayList<>(blocks.size());
+
+		for (CFGBasicBlock block : blocks) {
+			List<CFGBasicBlock> blockSuccessors= new ArrayList<>();
+
+			for (Object obj : block.getOutgoingEdgesAndVariableAccesses()) {
+				if (obj instanceof CFGEdge) {
+					blockSuccessors.add(((CFGEdge) obj).getTargetBlock());
+				}
+			}
+
+			successors.add(blockSuccessors);
+		}
+
+		return successors;
+	}
+
+	private void computeReachingDefinitions() {
+		List<List<CFGBasicBlock>> successors= getSuccessors();
+		int nbBlocks= blocks.size();
+		BitSet[] in= new BitSet[nbBlocks];
+		BitSet[] out= new BitSet[nbBlocks];
+
+		for (int i= 0; i < nbBlocks; i++) {
+			in[i]= new BitSet();
+			out[i]= transfer(i, in[i], false);
+		}
+
+		// Forward propagation until the definitions leaving each block are stable
+		LinkedList<Integer> toVisit= new LinkedList<>();
+		BitSet isToVisit= new BitSet();
+		for (int i= 0; i < nbBlocks; i++) {
+			toVisit.add(i);
+			isToVisit.set(i);
+		}
+
+		while (!toVisit.isEmpty()) {
+			int i= toVisit.removeFirst();
+			isToVisit.clear(i);
+
+			for (CFGBasicBlock successor : successors.get(i)) {
+				int j= blockIndexes.get(successor);
+				BitSet newIn= (BitSet) in[j].clone();
+				newIn.or(out[i]);
+
+				if (!newIn.equals(in[j])) {
+					in[j]= newIn;
+					out[j]= transfer(j, newIn, false);
+
+					if (!isToVisit.get(j)) {
+						toVisit.add(j);
+						isToVisit.set(j);
+					}
+				}
+			}
+		}
+
+		for (int i= 0; i < nbBlocks; i++) {
+			transfer(i, in[i], true);
+		}
+	}
+
+	/**
+	 * Returns the definitions leaving a block from the definitions entering it.
+	 *
+	 * @param recordChains whether the definitions reaching each read must be
+	 *                     recorded
+	 */
+	private BitSet transfer(final int blockIndex, final BitSet in, final boolean recordChains) {
+		BitSet reaching= (BitSet) in.clone();
+
+		for (Access access : accessesByBlock.get(blockIndex)) {
+			BitSet variableDefinitions= definitionsByVariable.get(access.variable);
+
+			if (recordChains && access.read) {
+				List<Name> readDefinitions= new ArrayList<>();
+				BitSet reachingDefinitions= (BitSet) reaching.clone();
+				reachingDefinitions.and(variableDefinitions);
+
+				for (int d= reachingDefinitions.nextSetBit(0); d >= 0; d= reachingDefinitions.nextSetBit(d + 1)) {
+					Name definition= definitions.get(d);
+					readDefinitions.add(definition);
+					getOrCreate(readsByDefinition, definition).add(access.name);
+				}
+
+				definitionsByRead.put(access.name, readDefinitions);
+			}
+
+			if (access.write) {
+				reaching.andNot(variableDefinitions);
+			}
+
+			if (access.definition >= 0) {
+				reaching.set(access.definition);
+			}
+		}
+
+		return reaching;
+	}
+
+	private static List<Name> getOrCreate(final Map<Name, List<Name>> map, final Name key) {
+		List<Name> values= map.get(key);
+
+		if (values == null) {
+			values= new ArrayList<>();
+			map.put(key, values);
+		}
+
+		return values;
+	}
+
+	private void computeLiveness() {
+		List<List<CFGBasicBlock>> successors= getSuccessors();
+		int nbBlocks= blocks.size();
+		BitSet[] liveIn= new BitSet[nbBlocks];
+		BitSet[] liveOut= new BitSet[nbBlocks];
+
+		for (int i= 0; i < nbBlocks; i++) {
+			liveOut[i]= new BitSet();
+			liveIn[i]= transferBackward(i, liveOut[i], false);
+		}
+
+		// Backward propagation until the variables live at each block entry are stable
+		boolean changed= true;
+		while (changed) {
+			changed= false;
+
+			for (int i= nbBlocks - 1; i >= 0; i--) {
+				BitSet newOut= new BitSet();
+
+				for (CFGBasicBlock successor : successors.get(i)) {
+					newOut.or(liveIn[blockIndexes.get(successor)]);
+				}
+
+				if (!newOut.equals(liveOut[i])) {
+					liveOut[i]= newOut;
+					liveIn[i]= transferBackward(i, newOut, false);
+					changed= true;
+				}
+			}
+		}
+
+		for (int i= 0; i < nbBlocks; i++) {
+			transferBackward(i, liveOut[i], true);
+		}
+	}
+
+	/**
+	 * Returns the variables live at the entry of a block from the variables live
+	 * at its exit.
+	 *
+	 * @param recordLiveness whether the liveness after each access must be
+	 *                       recorded
+	 */
+	private BitSet transferBackward(final int blockIndex, final BitSet out, final boolean recordLiveness) {
+		BitSet live= (BitSet) out.clone();
+		List<Access> accesses= accessesByBlock.get(blockIndex);
+
+		for (int i= accesses.size() - 1; i >= 0; i--) {
+			Access access= accesses.get(i);
+
+			if (recordLiveness && live.get(access.variable)) {
+				liveAfterAccesses.add(access.name);
+			}
+
+			// A read and write access, like i++, reads the variable before writing it
+			if (access.write) {
+				live.clear(access.variable);
+			}
+
+			if (access.read) {
+				live.set(access.variable);
+			}
+		}
+
+		return live;
+	}
+
+	/**
+	 * Returns the definitions of a local variable which may provide the value
+	 * read by the provided access.
+	 *
+	 * @param read the name of the variable where it is read
+	 * @return the names of the variable where it is declared or written, or an
+	 *         empty list if the access has not been analyzed
+	 */
+	public List<Name> getReachingDefinitions(final Name read) {
+		List<Name> readDefinitions= definitionsByRead.get(read);
+		return readDefinitions != null ? readDefinitions : Collections.<Name>emptyList();
+	}
+
+	/**
+	 * Returns the reads of a local variable which may see the value of the
+	 * provided definition.
+	 *
+	 * @param definition the name of the variable where it is declared or written
+	 * @return the names of the variable where it is read, or an empty list if the
+	 *         value is never read
+	 */
+	public List<Name> getReads(final Name definition) {
+		List<Name> reads= readsByDefinition.get(definition);
+		return reads != null ? reads : Collections.<Name>emptyList();
+	}
+
+	/**
+	 * Returns whether the value of a local variable may be read after the
+	 * provided access.
+	 *
+	 * @param access the name of the variable where it is accessed
+	 * @return true if the value may be read after the access or if the access has
+	 *         not been analyzed, false otherwise
+	 */
+	public boolean isLiveAfter(final Name access) {
+		return !analyzedAccesses.contains(access) || liveAfterAccesses.contains(access);
+	}
+
+	/**
+	 * Returns whether the value written in a local variable is never read.
+	 *
+	 * @param definition the name of the variable where it is declared or written
+	 * @return true if the access has been analyzed and the value it writes is
+	 *         never read, false otherwise
+	 */
+	public boolean isDeadWrite(final Name definition) {
+		return analyzedDefinitions.contains(definition) && !isLiveAfter(definition);
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.environment;
+
+import java.util.concurrent.Callable;
+
+import org.autorefactor.util.UnhandledException;
+
+/**
+ * Event loop running the code directly on the current thread.
+ * <p>
+ * It can be used when no user interface is involved, for example to modify a
+ * document that is not displayed by any editor.
+ */
+public class CurrentThreadEventLoop implements EventLoop {
+	@Override
+	public <E extends Exception> void syncExec(final Callable<E> callable) throws E {
+		E ex;
+		try {
+			ex= callable.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new UnhandledException(null, e);
+		}
+
+		if (ex != null) {
+			throw ex;
+		}
+	}
+}
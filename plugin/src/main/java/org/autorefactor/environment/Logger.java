@@ -48,4 +48,11 @@ public interface Logger {
 	 * @param message the message to log
 	 */
 	void warn(String message);
+
+	/**
+	 * Logs an informational message into Eclipse workspace logs.
+	 *
+	 * @param message the message to log
+	 */
+	void info(String message);
 }
@@ -0,0 +1,60 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.environment;
+
+import java.io.PrintStream;
+
+/**
+ * Logger writing on the standard error stream.
+ * <p>
+ * It can be used outside of the workbench, for example by a headless
+ * application.
+ */
+public class StandardErrorLogger implements Logger {
+	@Override
+	public void error(final String message) {
+		System.err.println("ERROR: " + message); //$NON-NLS-1$
+	}
+
+	@Override
+	public void error(final String message, final Exception e) {
+		PrintStream err= System.err;
+		synchronized (err) {
+			err.println("ERROR: " + message); //$NON-NLS-1$
+			e.printStackTrace(err);
+		}
+	}
+
+	@Override
+	public void warn(final String message) {
+		System.err.println("WARNING: " + message); //$NON-NLS-1$
+	}
+
+	@Override
+	public void info(final String message) {
+		System.err.println(message);
+	}
+}
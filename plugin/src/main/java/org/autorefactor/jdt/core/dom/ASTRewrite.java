@@ -28,12 +28,16 @@ package org.autorefactor.jdt.core.dom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 
 import org.autorefactor.environment.EventLoop;
@@ -75,10 +79,20 @@ public class ASTRewrite {
 	private final Map<Pair<ASTNode, ChildListPropertyDescriptor>, ListRewrite> listRewriteCache= new HashMap<>();
 	private final ASTCommentRewriter commentRewriter;
 	private final SourceRewriter sourceRewriter= new SourceRewriter();
-	/** Nodes that cannot be visited. */
+	/** Nodes that cannot be visited, unless the cleanups may edit disjoint parts of a subtree. */
 	private final Set<ASTNode> refactoredNodes= new HashSet<>();
+	/**
+	 * Source ranges of the pending edits, merged and indexed by start position.
+	 * Nodes overlapping them cannot be visited when the cleanups may edit disjoint
+	 * parts of a subtree.
+	 */
+	private final NavigableMap<Integer, Integer> editedRanges= new TreeMap<>();
+	/** Nodes directly targeted by a cleanup, without their ancestors. */
+	private final Set<ASTNode> rewrittenNodes= new LinkedHashSet<>();
 
 	private boolean hasRefactorings;
+	private boolean hasSourceRefactorings;
+	private boolean disjointEditsOn;
 
 	/**
 	 * Builds an instance of this class.
@@ -116,22 +130,123 @@ public class ASTRewrite {
 		return rewrite.getAST();
 	}
 
+	/**
+	 * Lets the cleanups edit the parts of a refactored subtree that the pending
+	 * edits do not overlap.
+	 *
+	 * @param disjointEditsOn true to only consider the source ranges of the
+	 *                        pending edits, false to consider the targets of the
+	 *                        cleanups and all their ancestors
+	 */
+	public void setDisjointEditsOn(final boolean disjointEditsOn) {
+		this.disjointEditsOn= disjointEditsOn;
+	}
+
 	/**
 	 * Returns whether the provided node has been the target of a cleanup.
+	 * <p>
+	 * When the cleanups may edit disjoint parts of a subtree, returns whether the
+	 * provided node overlaps the source range of a pending cleanup: the node
+	 * itself, one of its ancestors or one of its descendants has been the target
+	 * of a cleanup. Otherwise, the ancestors of a target are considered refactored
+	 * too.
 	 *
 	 * @param node the node for which to make the determination
 	 * @return true if the provided node has been refactored, false otherwise
 	 */
 	public boolean hasBeenRefactored(final ASTNode node) {
-		return refactoredNodes.contains(node);
+		if (!disjointEditsOn) {
+			return refactoredNodes.contains(node);
+		}
+
+		return overlapsEdits(node.getStartPosition(), SourceLocation.getEndPosition(node));
+	}
+
+	private boolean overlapsEdits(final int start, final int end) {
+		if (start < 0) {
+			// New node without any source
+			return false;
+		}
+
+		Map.Entry<Integer, Integer> lastEditBeforeEnd= editedRanges.lowerEntry(Math.max(end, start + 1));
+		return lastEditBeforeEnd != null && start < lastEditBeforeEnd.getValue();
+	}
+
+	/**
+	 * Returns the nodes directly targeted by a cleanup, in the order they have
+	 * been refactored. Their ancestors are not included.
+	 *
+	 * @return the nodes directly targeted by a cleanup
+	 */
+	public Set<ASTNode> getRewrittenNodes() {
+		return Collections.unmodifiableSet(rewrittenNodes);
+	}
+
+	/**
+	 * Returns whether some cleanups have been recorded directly on the source
+	 * text (comments, source locations) instead of on AST nodes.
+	 *
+	 * @return true if some cleanups have been recorded on the source text, false
+	 *         otherwise
+	 */
+	public boolean hasSourceRefactorings() {
+		return hasSourceRefactorings;
 	}
 
 	private void addRefactoredNodes(final ASTNode node) {
+		addRefactoredNodes(node, node);
+	}
+
+	private void addRefactoredNodes(final ASTNode node, final ASTNode editedNode) {
 		hasRefactorings= true;
-		refactoredNodes.add(node);
-		if (node.getParent() != null) {
-			addRefactoredNodes(node.getParent());
+		rewrittenNodes.add(node);
+		addEditedRange(editedNode);
+
+		for (ASTNode ancestor= node; ancestor != null; ancestor= ancestor.getParent()) {
+			refactoredNodes.add(ancestor);
+		}
+	}
+
+	private void addEditedRange(final ASTNode node) {
+		addEditedRange(node.getStartPosition(), SourceLocation.getEndPosition(node));
+	}
+
+	/**
+	 * Records a source range that other cleanups must not visit. Empty ranges,
+	 * like insertion points, cover the next character.
+	 */
+	private void addEditedRange(final int start, final int end) {
+		if (start < 0) {
+			// New node without any source
+			return;
+		}
+
+		int mergedStart= start;
+		int mergedEnd= Math.max(end, start + 1);
+		Map.Entry<Integer, Integer> previous= editedRanges.floorEntry(start);
+
+		if (previous != null && previous.getValue() >= start) {
+			mergedStart= previous.getKey();
+			mergedEnd= Math.max(mergedEnd, previous.getValue());
 		}
+
+		for (Map.Entry<Integer, Integer> next= editedRanges.ceilingEntry(mergedStart); next != null
+				&& next.getKey() <= mergedEnd; next= editedRanges.ceilingEntry(mergedStart)) {
+			mergedEnd= Math.max(mergedEnd, next.getValue());
+			editedRanges.remove(next.getKey());
+		}
+
+		editedRanges.put(mergedStart, mergedEnd);
+	}
+
+	private void addSourceRefactorings(final SourceLocation location) {
+		addEditedRange(location.getStartPosition(), location.getEndPosition());
+		addSourceRefactorings();
+	}
+
+	private void addSourceRefactorings() {
+		hasRefactorings= true;
+		hasSourceRefactorings= true;
 	}
 
 	/**
@@ -150,6 +265,8 @@ public class ASTRewrite {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends ASTNode> T createCopyTarget(final T node) {
+		// The copied source must not change in the meantime
+		addEditedRange(node);
 		return (T) rewrite.createCopyTarget(node);
 	}
 
@@ -170,6 +287,8 @@ public class ASTRewrite {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends ASTNode> T createCopyTarget(final T first, final T last) {
+		// The copied source must not change in the meantime
+		addEditedRange(first.getStartPosition(), SourceLocation.getEndPosition(last));
 		return (T) getListRewrite(first).createCopyTarget(first, last);
 	}
 
@@ -209,6 +328,9 @@ public class ASTRewrite {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends ASTNode> T createMoveTarget(final T node) {
+		// The source location is removed without being refactored
+		rewrittenNodes.add(node);
+		addEditedRange(node);
 		return (T) rewrite.createMoveTarget(node);
 	}
 
@@ -254,6 +376,10 @@ public class ASTRewrite {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T extends ASTNode> T createMoveTarget(final T first, final T last) {
+		// The source location is removed without being refactored
+		rewrittenNodes.add(first);
+		rewrittenNodes.add(last);
+		addEditedRange(first.getStartPosition(), SourceLocation.getEndPosition(last));
 		return (T) getListRewrite(first).createMoveTarget(first, last);
 	}
 
@@ -315,7 +441,7 @@ public class ASTRewrite {
 	 * @param replacement the replacement text
 	 */
 	public void replace(final Comment comment, final String replacement) {
-		hasRefactorings= true;
+		addSourceRefactorings(new SourceLocation(comment));
 		commentRewriter.replace(comment, replacement);
 	}
 
@@ -327,7 +453,7 @@ public class ASTRewrite {
 	 * @param replacement the replacement string
 	 */
 	public void replace(final SourceLocation toReplace, final String replacement) {
-		hasRefactorings= true;
+		addSourceRefactorings(toReplace);
 		this.sourceRewriter.replace(toReplace, replacement);
 	}
 
@@ -340,6 +466,7 @@ public class ASTRewrite {
 	 */
 	public void remove(final ASTNode node, final TextEditGroup editGroup) {
 		if (node instanceof Comment) {
+			hasSourceRefactorings= true;
 			commentRewriter.remove((Comment) node);
 		} else {
 			rewrite.remove(node, editGroup);
@@ -368,7 +495,7 @@ public class ASTRewrite {
 		if (toRemove.getLength() == 0) {
 			throw new IllegalArgumentException("Cannot remove an empty source range: " + toRemove); //$NON-NLS-1$
 		}
-		hasRefactorings= true;
+		addSourceRefactorings(toRemove);
 		sourceRewriter.remove(toRemove);
 	}
 
@@ -432,7 +559,7 @@ public class ASTRewrite {
 	 */
 	public void insertBefore(final ASTNode nodeToInsert, final ASTNode element, final TextEditGroup editGroup) {
 		getListRewrite(element).insertBefore(nodeToInsert, element, editGroup);
-		addRefactoredNodes(element.getParent());
+		addRefactoredNodes(element.getParent(), element);
 	}
 
 	/**
@@ -446,7 +573,7 @@ public class ASTRewrite {
 	 */
 	public void insertAfter(final ASTNode nodeToInsert, final ASTNode element, final TextEditGroup editGroup) {
 		getListRewrite(element).insertAfter(nodeToInsert, element, editGroup);
-		addRefactoredNodes(element.getParent());
+		addRefactoredNodes(element.getParent(), element);
 	}
 
 	/**
@@ -497,7 +624,7 @@ public class ASTRewrite {
 	 * @param nextNode    the AST node immediately following the line comment
 	 */
 	public void toJavadoc(final LineComment lineComment, final ASTNode nextNode) {
-		hasRefactorings= true;
+		addSourceRefactorings(new SourceLocation(lineComment));
 		commentRewriter.toJavadoc(lineComment, nextNode);
 	}
 
@@ -507,7 +634,7 @@ public class ASTRewrite {
 	 * @param blockComment the block comment to convert to javadoc
 	 */
 	public void toJavadoc(final BlockComment blockComment) {
-		hasRefactorings= true;
+		addSourceRefactorings(new SourceLocation(blockComment));
 		commentRewriter.toJavadoc(blockComment);
 	}
 
@@ -535,22 +662,38 @@ public class ASTRewrite {
 	 * @throws CoreException        CoreException
 	 */
 	public void applyTo(final IDocument document, final boolean hasToSave) throws BadLocationException, CoreException {
+		applyTo(document, hasToSave, eventLoop);
+	}
+
+	/**
+	 * Applies the accumulated cleanups to the provided document.
+	 *
+	 * @param document          the document to refactor
+	 * @param hasToSave         true if the saving should be handled here
+	 * @param documentEventLoop the event loop where the document can be modified.
+	 *                          Documents displayed in an editor must be modified
+	 *                          on the UI thread.
+	 * @throws BadLocationException if trying to access a non existing position
+	 * @throws CoreException        CoreException
+	 */
+	public void applyTo(final IDocument document, final boolean hasToSave, final EventLoop documentEventLoop)
+			throws BadLocationException, CoreException {
 		edits= rewrite.rewriteAST(document, null);
 		TextEdit importEdits= importRewrite.rewriteImports(monitor);
 		commentRewriter.addEdits(document, edits);
 		sourceRewriter.addEdits(document, edits);
 
 		if (hasToSave) {
-			applyEditsToDocument(edits, importEdits, document);
+			applyEditsToDocument(edits, importEdits, document, documentEventLoop);
 		}
 	}
 
-	private void applyEditsToDocument(final TextEdit edits, final TextEdit importEdits, final IDocument document)
-			throws BadLocationException {
+	private void applyEditsToDocument(final TextEdit edits, final TextEdit importEdits, final IDocument document,
+			final EventLoop documentEventLoop) throws BadLocationException {
 		// Call this operation on the SWT Display Thread with syncExec(),
-		// because it changes or adds something to the GUI.
+		// when it changes or adds something to the GUI.
 		// Otherwise it would throw an Invalid thread access Exception.
-		eventLoop.syncExec(new Callable<BadLocationException>() {
+		documentEventLoop.syncExec(new Callable<BadLocationException>() {
 			@Override
 			public BadLocationException call() throws Exception {
 				try {
@@ -33,7 +33,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,7 +56,6 @@ import org.eclipse.text.edits.TextEditVisitor;
 
 /** This class rewrites AST comments. */
 public class ASTCommentRewriter {
-	private static final Pattern INDENT= Pattern.compile("\\s+"); //$NON-NLS-1$
 	/**
 	 * Using a Set to avoid duplicates because Javadocs are visited twice via
 	 * CompilationUnit.getCommentList() and visit(Javadoc).
@@ -66,6 +64,7 @@ public class ASTCommentRewriter {
 	private final Set<Pair<Comment, String>> replacements= new LinkedHashSet<>();
 	private final List<BlockComment> blockCommentToJavadoc= new ArrayList<>();
 	private final Map<ASTNode, List<LineComment>> lineCommentsToJavadoc= new HashMap<>();
+	private final CompilationUnit astRoot;
 	private final String lineSeparator;
 
 	/**
@@ -74,6 +73,7 @@ public class ASTCommentRewriter {
 	 * @param astRoot the compilation unit, root of the AST
 	 */
 	public ASTCommentRewriter(final CompilationUnit astRoot) {
+		this.astRoot= astRoot;
 		this.lineSeparator= getLineSeparator(astRoot);
 	}
 
@@ -234,34 +234,25 @@ public class ASTCommentRewriter {
 		if (this.lineCommentsToJavadoc.isEmpty()) {
 			return;
 		}
-		TreeSet<Integer> lineStarts= getLineStarts(source);
+		SourceText sourceText= SourceText.of(astRoot);
+		if (sourceText == null) {
+			sourceText= new SourceText(source);
+		}
 		for (Entry<ASTNode, List<LineComment>> entry : this.lineCommentsToJavadoc.entrySet()) {
 			List<LineComment> lineComments= entry.getValue();
 			// TODO Collect all words from the line comments,
 			// then get access to indent settings, line length and newline chars
 			// then spread them across several lines if needed or folded on one line only
 			if (lineComments.size() == 1) {
-				addSingleLineCommentToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, lineStarts);
+				addSingleLineCommentToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, sourceText);
 			} else {
-				addMultiLineCommentsToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, lineStarts);
+				addMultiLineCommentsToJavadocEdits(commentEdits, entry.getKey(), lineComments, source, sourceText);
 			}
 		}
 	}
 
-	private TreeSet<Integer> getLineStarts(final String source) {
-		TreeSet<Integer> lineStarts= new TreeSet<>();
-		lineStarts.add(0);
-
-		Matcher matcher= Pattern.compile("\\rewrite\\n|\\rewrite|\\n").matcher(source); //$NON-NLS-1$
-		while (matcher.find()) {
-			lineStarts.add(matcher.end());
-		}
-
-		return lineStarts;
-	}
-
 	private void addSingleLineCommentToJavadocEdits(final List<TextEdit> commentEdits, final ASTNode nextNode,
-			final List<LineComment> lineComments, final String source, final TreeSet<Integer> lineStarts) {
+			final List<LineComment> lineComments, final String source, final SourceText sourceText) {
 		int nodeStart= nextNode.getStartPosition();
 		LineComment lineComment= lineComments.get(0);
 
@@ -280,7 +271,7 @@ public class ASTCommentRewriter {
 
 			appendCommentTextReplaceEndsOfBlockComment(newJavadoc, lineComment, source);
 
-			SourceLocation indent= getIndent(nextNode, lineStarts);
+			SourceLocation indent= getIndent(nextNode, sourceText);
 			newJavadoc.append(getSpaceAtEnd(source, lineComment)).append("*/").append(lineSeparator).append(source, //$NON-NLS-1$
 					indent.getStartPosition(), indent.getEndPosition());
 			commentEdits.add(new InsertEdit(nodeStart, newJavadoc.toString()));
@@ -330,23 +321,23 @@ public class ASTCommentRewriter {
 	}
 
 	private void addMultiLineCommentsToJavadocEdits(final List<TextEdit> commentEdits, final ASTNode node,
-			final List<LineComment> lineComments, final String source, final TreeSet<Integer> lineStarts) {
+			final List<LineComment> lineComments, final String source, final SourceText sourceText) {
 		for (int i= 0; i < lineComments.size(); i++) {
 			LineComment lineComment= lineComments.get(i);
 			if (lineComment.getStartPosition() <= node.getStartPosition()) {
-				replaceLineCommentBeforeJavaElement(commentEdits, lineComment, lineComments, i, source, lineStarts);
+				replaceLineCommentBeforeJavaElement(commentEdits, lineComment, lineComments, i, source, sourceText);
 			} else {
-				replaceLineCommentAfterJavaElement(commentEdits, lineComment, lineComments, i, source, lineStarts);
+				replaceLineCommentAfterJavaElement(commentEdits, lineComment, lineComments, i, source, sourceText);
 			}
 		}
 	}
 
 	private void replaceLineCommentBeforeJavaElement(final List<TextEdit> commentEdits, final LineComment lineComment,
-			final List<LineComment> lineComments, final int i, final String source, final TreeSet<Integer> lineStarts) {
+			final List<LineComment> lineComments, final int i, final String source, final SourceText sourceText) {
 		int replaceLength= "//".length(); //$NON-NLS-1$
 		boolean isFirst= i == 0;
 		String replacementText;
-		SourceLocation indentLoc= getIndentForJavadoc(lineComment, source, lineStarts);
+		SourceLocation indentLoc= getIndentForJavadoc(lineComment, sourceText);
 		if (isFirst) {
 			// TODO JNR how to obey configured indentation?
 			replacementText= "/**" + lineSeparator + indentLoc.substring(source) + " *"; //$NON-NLS-1$ //$NON-NLS-2$
@@ -382,7 +373,7 @@ public class ASTCommentRewriter {
 	}
 
 	private void replaceLineCommentAfterJavaElement(final List<TextEdit> commentEdits, final LineComment lineComment,
-			final List<LineComment> lineComments, final int i, final String source, final TreeSet<Integer> lineStarts) {
+			final List<LineComment> lineComments, final int i, final String source, final SourceText sourceText) {
 		if (i - 1 < 0) {
 			throw new NotImplementedException(lineComment,
 					"for a line comment situated after the java elements that it documents," //$NON-NLS-1$
@@ -391,7 +382,7 @@ public class ASTCommentRewriter {
 
 		LineComment previousLineComment= lineComments.get(i - 1);
 		int position= SourceLocation.getEndPosition(previousLineComment);
-		String indent= getIndentForJavadoc(previousLineComment, source, lineStarts).substring(source);
+		String indent= getIndentForJavadoc(previousLineComment, sourceText).substring(source);
 		StringBuilder newJavadoc= new StringBuilder(lineSeparator).append(indent).append(" *"); //$NON-NLS-1$
 
 		appendCommentTextReplaceEndsOfBlockComment(newJavadoc, lineComment, source);
@@ -401,29 +392,18 @@ public class ASTCommentRewriter {
 		deleteLineCommentAfterNode(commentEdits, source, lineComment);
 	}
 
-	private SourceLocation getIndentForJavadoc(final LineComment lineComment, final String source, final TreeSet<Integer> lineStarts) {
-		SourceLocation indentLoc= getIndent(lineComment, lineStarts);
-		Matcher matcher= INDENT.matcher(source).region(indentLoc.getStartPosition(), indentLoc.getEndPosition());
-		if (matcher.matches()) {
+	private SourceLocation getIndentForJavadoc(final LineComment lineComment, final SourceText sourceText) {
+		SourceLocation indentLoc= sourceText.getIndentation(lineComment.getStartPosition());
+		if (indentLoc.getEndPosition() == lineComment.getStartPosition()) {
 			return indentLoc;
 		}
 
 		return SourceLocation.fromPositions(0, 0);
 	}
 
-	private SourceLocation getIndent(final ASTNode node, final TreeSet<Integer> lineStarts) {
-		if (lineStarts.isEmpty()) {
-			// No match, return empty range
-			return SourceLocation.fromPositions(0, 0);
-		}
-
+	private SourceLocation getIndent(final ASTNode node, final SourceText sourceText) {
 		int commentStart= node.getStartPosition();
-		int previousLineStart= findPreviousLineStart(lineStarts, commentStart);
-		return SourceLocation.fromPositions(previousLineStart, commentStart);
-	}
-
-	private int findPreviousLineStart(final TreeSet<Integer> lineStarts, final int commentStart) {
-		return lineStarts.headSet(commentStart + 1).last();
+		return SourceLocation.fromPositions(sourceText.getLineStart(commentStart), commentStart);
 	}
 
 	private int chompWhitespacesBefore(final String text, int start) {
@@ -32,6 +32,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +54,8 @@ import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CastExpression;
 import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.ChildListPropertyDescriptor;
+import org.eclipse.jdt.core.dom.ChildPropertyDescriptor;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.Comment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
@@ -96,7 +99,6 @@ import org.eclipse.jdt.core.dom.SuperMethodInvocation;
 import org.eclipse.jdt.core.dom.SwitchStatement;
 import org.eclipse.jdt.core.dom.TagElement;
 import org.eclipse.jdt.core.dom.ThisExpression;
-import org.eclipse.jdt.core.dom.ThrowStatement;
 import org.eclipse.jdt.core.dom.TryStatement;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
@@ -141,94 +143,151 @@ public final class ASTNodes {
 		}
 	}
 
-	private static final class ExprActivityVisitor extends InterruptibleVisitor {
-		private ExprActivity activityLevel= ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH;
-
-		public ExprActivity getActivityLevel() {
-			return activityLevel;
-		}
+	/**
+	 * Computes the activity of the nodes bottom-up: the activity of a node is the
+	 * highest activity among the node itself and its children.
+	 * <p>
+	 * The activities of the nodes of a compilation unit are kept with the AST, so
+	 * each subtree is analyzed only once per parse whatever the number of
+	 * questions about it and about its ancestors.
+	 */
+	private static final class ExprActivityAnalyzer {
+		private final Map<ASTNode, ExprActivity> activities= new IdentityHashMap<>();
+
+		private static ExprActivityAnalyzer of(final ASTNode node) {
+			ExprActivityAnalyzer analyzer= CompilationUnitCache.get(node, ExprActivityAnalyzer.class,
+					new CompilationUnitCache.Builder<ExprActivityAnalyzer>() {
+						@Override
+						public ExprActivityAnalyzer build(final CompilationUnit astRoot) {
+							return new ExprActivityAnalyzer();
+						}
+					});
 
-		@Override
-		public boolean visit(final CastExpression node) {
-			setActivityLevel(ExprActivity.PASSIVE);
-			return true;
-		}
+			if (analyzer == null) {
+				// The nodes being built by the cleanups may still change
+				return new ExprActivityAnalyzer();
+			}
 
-		@Override
-		public boolean visit(final ArrayAccess node) {
-			setActivityLevel(ExprActivity.PASSIVE);
-			return true;
+			return analyzer;
 		}
 
-		@Override
-		public boolean visit(final FieldAccess node) {
-			setActivityLevel(ExprActivity.PASSIVE);
-			return true;
-		}
+		private ExprActivity getActivity(final ASTNode node) {
+			ExprActivity activity= activities.get(node);
 
-		@Override
-		public boolean visit(final QualifiedName node) {
-			if (node.getQualifier() == null
-					|| node.getQualifier().resolveBinding() == null
-					|| node.getQualifier().resolveBinding().getKind() != IBinding.PACKAGE
-					&& node.getQualifier().resolveBinding().getKind() != IBinding.TYPE) {
-				setActivityLevel(ExprActivity.PASSIVE);
+			if (activity == null) {
+				activity= computeActivity(node);
+				activities.put(node, activity);
 			}
 
-			return true;
+			return activity;
 		}
 
-		@Override
-		public boolean visit(final Assignment node) {
-			setActivityLevel(ExprActivity.ACTIVE);
-			return interruptVisit();
-		}
+		private ExprActivity computeActivity(final ASTNode node) {
+			ExprActivity activity= getOwnActivity(node);
 
-		@Override
-		public boolean visit(final PrefixExpression node) {
-			if (hasOperator(node, PrefixExpression.Operator.INCREMENT, PrefixExpression.Operator.DECREMENT)) {
-				setActivityLevel(ExprActivity.ACTIVE);
-				return interruptVisit();
+			if (node.getNodeType() == ASTNode.JAVADOC) {
+				// The doc tags are not code
+				return activity;
 			}
 
-			if (hasType(node.getOperand(), Object.class.getCanonicalName())) {
-				setActivityLevel(ExprActivity.PASSIVE);
+			for (Object property : node.structuralPropertiesForType()) {
+				if (ExprActivity.ACTIVE.equals(activity)) {
+					return activity;
+				}
+
+				if (property instanceof ChildPropertyDescriptor) {
+					ASTNode child= (ASTNode) node.getStructuralProperty((ChildPropertyDescriptor) property);
+
+					if (child != null) {
+						activity= max(activity, getActivity(child));
+					}
+				} else if (property instanceof ChildListPropertyDescriptor) {
+					for (Object child : (List<?>) node.getStructuralProperty((ChildListPropertyDescriptor) property)) {
+						activity= max(activity, getActivity((ASTNode) child));
+					}
+				}
 			}
 
-			return true;
+			return activity;
 		}
 
-		@Override
-		public boolean visit(final PostfixExpression node) {
-			setActivityLevel(ExprActivity.ACTIVE);
-			return interruptVisit();
+		private static ExprActivity max(final ExprActivity activity1, final ExprActivity activity2) {
+			return activity1.asInteger < activity2.asInteger ? activity2 : activity1;
 		}
 
-		@SuppressWarnings("unchecked")
-		@Override
-		public boolean visit(final InfixExpression node) {
-			if (hasOperator(node, InfixExpression.Operator.DIVIDE)) {
-				setActivityLevel(ExprActivity.PASSIVE);
-			} else {
-				for (Expression operand : getAllOperands(node)) {
-					if (hasType(operand, Object.class.getCanonicalName())) {
-						setActivityLevel(ExprActivity.PASSIVE);
-						break;
-					}
+		private static ExprActivity getOwnActivity(final ASTNode node) {
+			switch (node.getNodeType()) {
+			case ASTNode.CAST_EXPRESSION:
+			case ASTNode.ARRAY_ACCESS:
+			case ASTNode.FIELD_ACCESS:
+				return ExprActivity.PASSIVE;
+
+			case ASTNode.QUALIFIED_NAME:
+				QualifiedName qualifiedName= (QualifiedName) node;
+
+				if (qualifiedName.getQualifier() == null
+						|| qualifiedName.getQualifier().resolveBinding() == null
+						|| qualifiedName.getQualifier().resolveBinding().getKind() != IBinding.PACKAGE
+						&& qualifiedName.getQualifier().resolveBinding().getKind() != IBinding.TYPE) {
+					return ExprActivity.PASSIVE;
 				}
+
+				return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH;
+
+			case ASTNode.ASSIGNMENT:
+			case ASTNode.POSTFIX_EXPRESSION:
+				return ExprActivity.ACTIVE;
+
+			case ASTNode.PREFIX_EXPRESSION:
+				PrefixExpression prefixExpression= (PrefixExpression) node;
+
+				if (hasOperator(prefixExpression, PrefixExpression.Operator.INCREMENT, PrefixExpression.Operator.DECREMENT)) {
+					return ExprActivity.ACTIVE;
+				}
+
+				if (hasType(prefixExpression.getOperand(), Object.class.getCanonicalName())) {
+					return ExprActivity.PASSIVE;
+				}
+
+				return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH;
+
+			case ASTNode.INFIX_EXPRESSION:
+				return getOwnActivity((InfixExpression) node);
+
+			case ASTNode.SUPER_METHOD_INVOCATION:
+			case ASTNode.METHOD_INVOCATION:
+			case ASTNode.CLASS_INSTANCE_CREATION:
+			case ASTNode.THROW_STATEMENT:
+				return ExprActivity.CAN_BE_ACTIVE;
+
+			default:
+				return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH;
 			}
+		}
 
+		@SuppressWarnings("unchecked")
+		private static ExprActivity getOwnActivity(final InfixExpression node) {
 			if (hasOperator(node, InfixExpression.Operator.PLUS) && hasType(node, String.class.getCanonicalName())
 					&& (mayCallImplicitToString(node.getLeftOperand())
 							|| mayCallImplicitToString(node.getRightOperand())
 							|| mayCallImplicitToString(node.extendedOperands()))) {
-				setActivityLevel(ExprActivity.CAN_BE_ACTIVE);
+				return ExprActivity.CAN_BE_ACTIVE;
 			}
 
-			return true;
+			if (hasOperator(node, InfixExpression.Operator.DIVIDE)) {
+				return ExprActivity.PASSIVE;
+			}
+
+			for (Expression operand : getAllOperands(node)) {
+				if (hasType(operand, Object.class.getCanonicalName())) {
+					return ExprActivity.PASSIVE;
+				}
+			}
+
+			return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH;
 		}
 
-		private boolean mayCallImplicitToString(final List<Expression> extendedOperands) {
+		private static boolean mayCallImplicitToString(final List<Expression> extendedOperands) {
 			if (extendedOperands != null) {
 				for (Expression expression : extendedOperands) {
 					if (mayCallImplicitToString(expression)) {
@@ -240,42 +299,12 @@ public final class ASTNodes {
 			return false;
 		}
 
-		private boolean mayCallImplicitToString(final Expression expression) {
+		private static boolean mayCallImplicitToString(final Expression expression) {
 			return !hasType(expression, String.class.getCanonicalName(), boolean.class.getSimpleName(), short.class.getSimpleName(), int.class.getSimpleName(), long.class.getSimpleName(), float.class.getSimpleName(), double.class.getSimpleName(),
 					Short.class.getCanonicalName(), Boolean.class.getCanonicalName(), Integer.class.getCanonicalName(), Long.class.getCanonicalName(), Float.class.getCanonicalName(),
 					Double.class.getCanonicalName()) && !(expression instanceof PrefixExpression) && !(expression instanceof InfixExpression)
 					&& !(expression instanceof PostfixExpression);
 		}
-
-		@Override
-		public boolean visit(final SuperMethodInvocation node) {
-			setActivityLevel(ExprActivity.CAN_BE_ACTIVE);
-			return true;
-		}
-
-		@Override
-		public boolean visit(final MethodInvocation node) {
-			setActivityLevel(ExprActivity.CAN_BE_ACTIVE);
-			return true;
-		}
-
-		@Override
-		public boolean visit(final ClassInstanceCreation node) {
-			setActivityLevel(ExprActivity.CAN_BE_ACTIVE);
-			return true;
-		}
-
-		@Override
-		public boolean visit(final ThrowStatement node) {
-			setActivityLevel(ExprActivity.CAN_BE_ACTIVE);
-			return true;
-		}
-
-		private void setActivityLevel(final ExprActivity newActivityLevel) {
-			if (activityLevel.asInteger < newActivityLevel.asInteger) {
-				activityLevel= newActivityLevel;
-			}
-		}
 	}
 
 	/**
@@ -2138,7 +2167,28 @@ public final class ASTNodes {
 			return false;
 		}
 
-		// OK more heavy checks now
+		TypeHierarchyCache typeHierarchyCache= TypeHierarchyCache.getCurrent();
+
+		if (typeHierarchyCache != null) {
+			return typeHierarchyCache.usesGivenSignature(actualMethodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+		}
+
+		return hasGivenSignature(actualMethodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+	}
+
+	/**
+	 * Returns whether the provided method binding has the provided method signature, once its
+	 * name and its number of parameters have been checked.
+	 *
+	 * @param actualMethodBinding          the actual method binding
+	 * @param typeQualifiedName            the expected qualified name of the type declaring the method
+	 * @param methodName                   the expected method name
+	 * @param parameterTypesQualifiedNames the expected qualified names of the parameter types
+	 * @return true if the provided method binding matches the provided method signature, false
+	 *         otherwise
+	 */
+	static boolean hasGivenSignature(final IMethodBinding actualMethodBinding, final String typeQualifiedName, final String methodName,
+			final String... parameterTypesQualifiedNames) {
 		ITypeBinding declaringClass= actualMethodBinding.getDeclaringClass();
 		ITypeBinding implementedType= findImplementedType(declaringClass, typeQualifiedName);
 
@@ -2174,6 +2224,16 @@ public final class ASTNodes {
 
 	private static IMethodBinding findOverridenMethod(final ITypeBinding typeBinding, final String typeQualifiedName,
 			final String methodName, final String[] parameterTypesQualifiedNames) {
+		TypeHierarchyCache typeHierarchyCache= TypeHierarchyCache.getCurrent();
+		Map<String, ITypeBinding> supertypes= typeHierarchyCache != null ? typeHierarchyCache.getSupertypes(typeBinding) : null;
+
+		if (supertypes != null) {
+			ITypeBinding implementedType= supertypes.get(typeQualifiedName);
+			return implementedType != null
+					? findOverridenMethod(methodName, parameterTypesQualifiedNames, implementedType.getErasure().getDeclaredMethods())
+					: null;
+		}
+
 		// Superclass
 		ITypeBinding superclassBinding= typeBinding.getSuperclass();
 
@@ -2357,6 +2417,13 @@ public final class ASTNodes {
 			return typeBinding;
 		}
 
+		TypeHierarchyCache typeHierarchyCache= TypeHierarchyCache.getCurrent();
+		Map<String, ITypeBinding> supertypes= typeHierarchyCache != null ? typeHierarchyCache.getSupertypes(typeBinding) : null;
+
+		if (supertypes != null) {
+			return supertypes.get(qualifiedTypeName);
+		}
+
 		return findImplementedType2(typeBinding, qualifiedTypeName);
 	}
 
@@ -2484,9 +2551,21 @@ public final class ASTNodes {
 	 * @return true if the two provided nodes structurally match, false otherwise
 	 */
 	public static boolean match(final ASTSemanticMatcher matcher, final ASTNode node1, final ASTNode node2) {
+		if (isHashConsistent(matcher) && !ASTSemanticHash.mayMatch(node1, node2)) {
+			return false;
+		}
+
 		return matcher.safeSubtreeMatch(node1, node2);
 	}
 
+	/**
+	 * The matchers that only match nodes matched by {@link ASTSemanticMatcher#INSTANCE}
+	 * can be pre-filtered by {@link ASTSemanticHash}.
+	 */
+	private static boolean isHashConsistent(final ASTSemanticMatcher matcher) {
+		return matcher == ASTSemanticMatcher.INSTANCE || matcher instanceof ASTMatcherSameVariablesAndMethods;
+	}
+
 	private static boolean areVariableBindingsEqual(final ASTNode node1, final ASTNode node2) {
 		return areBindingsEqual(varBinding(node1), varBinding(node2));
 	}
@@ -2792,10 +2871,7 @@ public final class ASTNodes {
 			return Collections.emptySet();
 		}
 
-		VarDeclarationIdentifierVisitor visitor= new VarDeclarationIdentifierVisitor(node,
-				includeInnerScopes);
-		node.accept(visitor);
-		return visitor.getVariableNames();
+		return new VarDeclarationIdentifierVisitor(node, includeInnerScopes).find().getVariableNames();
 	}
 
 	/**
@@ -2806,9 +2882,7 @@ public final class ASTNodes {
 	 * @return True if the node changes nothing and throws no exceptions.
 	 */
 	public static boolean isPassiveWithoutFallingThrough(final ASTNode node) {
-		ExprActivityVisitor visitor= new ExprActivityVisitor();
-		visitor.visitNode(node);
-		return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH.equals(visitor.getActivityLevel());
+		return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH.equals(ExprActivityAnalyzer.of(node).getActivity(node));
 	}
 
 	/**
@@ -2819,10 +2893,8 @@ public final class ASTNodes {
 	 * @return True if the node changes nothing.
 	 */
 	public static boolean isPassive(final ASTNode node) {
-		ExprActivityVisitor visitor= new ExprActivityVisitor();
-		visitor.visitNode(node);
-		return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH.equals(visitor.getActivityLevel())
-				|| ExprActivity.PASSIVE.equals(visitor.getActivityLevel());
+		ExprActivity activity= ExprActivityAnalyzer.of(node).getActivity(node);
+		return ExprActivity.PASSIVE_WITHOUT_FALLING_THROUGH.equals(activity) || ExprActivity.PASSIVE.equals(activity);
 	}
 
 	/**
@@ -0,0 +1,198 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.ChildListPropertyDescriptor;
+import org.eclipse.jdt.core.dom.ChildPropertyDescriptor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * Bottom-up structural hash of the nodes, invariant under the equivalences
+ * accepted by {@link ASTSemanticMatcher}: two nodes that the matcher matches
+ * always have the same hash. Nodes with different hashes can then be told
+ * apart without walking them.
+ * <p>
+ * The matcher mirrors and reorders the operands, turns {@code ++} into
+ * {@code += 1}, removes the parentheses, the blocks of one statement and the
+ * neutral operands, negates the conditions and swaps the branches. So the hash
+ * is the set, as a bit mask, of what these equivalences never remove: the kinds
+ * of the statements other than the blocks, the names of the invoked methods, the
+ * names of the declared variables and the names of the assigned, incremented or
+ * decremented variables. The operand order is lost on purpose.
+ * <p>
+ * The hashes of the nodes of a compilation unit are kept with the AST, so each
+ * subtree is hashed only once per parse.
+ */
+public final class ASTSemanticHash {
+	private final Map<ASTNode, Long> hashes= new IdentityHashMap<>();
+
+	private ASTSemanticHash() {
+	}
+
+	/**
+	 * Returns the hash of the provided node.
+	 *
+	 * @param node the node
+	 * @return the hash of the provided node
+	 */
+	public static long of(final ASTNode node) {
+		ASTSemanticHash semanticHash= CompilationUnitCache.get(node, ASTSemanticHash.class,
+				new CompilationUnitCache.Builder<ASTSemanticHash>() {
+					@Override
+					public ASTSemanticHash build(final CompilationUnit astRoot) {
+						return new ASTSemanticHash();
+					}
+				});
+
+		if (semanticHash == null) {
+			// The nodes being built by the cleanups may still change
+			semanticHash= new ASTSemanticHash();
+		}
+
+		return semanticHash.getHash(node);
+	}
+
+	/**
+	 * Returns whether {@link ASTSemanticMatcher} may match the provided nodes.
+	 * False means that the nodes surely do not match, true means that the nodes
+	 * still have to be matched. The nodes that are not attached to a compilation
+	 * unit are not hashed.
+	 *
+	 * @param node1 the first node to compare
+	 * @param node2 the second node to compare
+	 * @return false if the nodes surely do not match, true otherwise
+	 */
+	public static boolean mayMatch(final ASTNode node1, final ASTNode node2) {
+		if (node1 == null
+				|| node2 == null
+				|| !(node1.getRoot() instanceof CompilationUnit)
+				|| !(node2.getRoot() instanceof CompilationUnit)) {
+			return true;
+		}
+
+		return of(node1) == of(node2);
+	}
+
+	private long getHash(final ASTNode node) {
+		Long hash= hashes.get(node);
+
+		if (hash == null) {
+			hash= computeHash(node);
+			hashes.put(node, hash);
+		}
+
+		return hash;
+	}
+
+	private long computeHash(final ASTNode node) {
+		long hash= getOwnHash(node);
+
+		if (node.getNodeType() == ASTNode.JAVADOC) {
+			// The matcher does not compare the doc tags
+			return hash;
+		}
+
+		for (Object property : node.structuralPropertiesForType()) {
+			if (property instanceof ChildPropertyDescriptor) {
+				ASTNode child= (ASTNode) node.getStructuralProperty((ChildPropertyDescriptor) property);
+
+				if (child != null) {
+					hash|= getHash(child);
+				}
+			} else if (property instanceof ChildListPropertyDescriptor) {
+				for (Object child : (List<?>) node.getStructuralProperty((ChildListPropertyDescriptor) property)) {
+					hash|= getHash((ASTNode) child);
+				}
+			}
+		}
+
+		return hash;
+	}
+
+	private static long getOwnHash(final ASTNode node) {
+		if (node instanceof Statement && !(node instanceof Block)) {
+			return bit(~node.getNodeType());
+		}
+
+		if (node instanceof SimpleName && isKeptName((SimpleName) node)) {
+			return bit(((SimpleName) node).getIdentifier().hashCode());
+		}
+
+		return 0L;
+	}
+
+	private static boolean isKeptName(final SimpleName node) {
+		StructuralPropertyDescriptor locationInParent= node.getLocationInParent();
+
+		if (locationInParent == MethodInvocation.NAME_PROPERTY
+				|| locationInParent == SuperMethodInvocation.NAME_PROPERTY
+				|| locationInParent == VariableDeclarationFragment.NAME_PROPERTY
+				|| locationInParent == SingleVariableDeclaration.NAME_PROPERTY) {
+			return true;
+		}
+
+		ASTNode variable= node;
+
+		while (variable.getLocationInParent() == ParenthesizedExpression.EXPRESSION_PROPERTY
+				|| variable.getLocationInParent() == QualifiedName.NAME_PROPERTY
+				|| variable.getLocationInParent() == FieldAccess.NAME_PROPERTY
+				|| variable.getLocationInParent() == SuperFieldAccess.NAME_PROPERTY) {
+			variable= variable.getParent();
+		}
+
+		if (variable.getLocationInParent() == Assignment.LEFT_HAND_SIDE_PROPERTY
+				|| variable.getLocationInParent() == PostfixExpression.OPERAND_PROPERTY) {
+			return true;
+		}
+
+		return variable.getLocationInParent() == PrefixExpression.OPERAND_PROPERTY
+				&& ASTNodes.hasOperator((PrefixExpression) variable.getParent(), PrefixExpression.Operator.INCREMENT, PrefixExpression.Operator.DECREMENT);
+	}
+
+	private static long bit(final int value) {
+		return 1L << (value * 0x9E3779B9 >>> 26);
+	}
+}
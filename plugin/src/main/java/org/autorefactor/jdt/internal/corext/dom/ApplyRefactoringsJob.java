@@ -27,16 +27,25 @@ package org.autorefactor.jdt.internal.corext.dom;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
+import org.autorefactor.environment.CurrentThreadEventLoop;
 import org.autorefactor.environment.Environment;
+import org.autorefactor.environment.EventLoop;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.autorefactor.jdt.internal.ui.fix.AggregateASTVisitor;
+import org.autorefactor.jdt.internal.ui.fix.RulePlan;
+import org.autorefactor.jdt.internal.ui.fix.RuleProfiler;
+import org.autorefactor.preferences.Preferences;
 import org.autorefactor.util.IllegalStateException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.filebuffers.FileBuffers;
@@ -51,10 +60,20 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.text.edits.TextEdit;
 
@@ -65,9 +84,21 @@ import org.eclipse.text.edits.TextEdit;
  * provided by the partitioner ({@link PrepareApplyRefactoringsJob}).
  */
 public class ApplyRefactoringsJob extends Job {
+	/** Means that the whole compilation unit must be parsed. */
+	private static final int NO_FOCAL_POSITION= -1;
+	/** Modifies the documents that are not displayed, without waiting for the UI thread. */
+	private static final EventLoop WORKER_THREAD_EVENT_LOOP= new CurrentThreadEventLoop();
+	/**
+	 * Maximum number of units parsed together in batch parsing mode. It bounds
+	 * the memory retained by the shared lookup environment.
+	 */
+	private static final int CHUNK_SIZE= 32;
+
 	private final Queue<RefactoringUnit> refactoringUnits;
 	private final List<RefactoringRule> refactoringRulesToApply;
+	private final RulePlan rulePlan;
 	private final Environment environment;
+	private final RuleProfiler profiler;
 
 	/**
 	 * Builds an instance of this class.
@@ -78,11 +109,47 @@ public class ApplyRefactoringsJob extends Job {
 	 */
 	public ApplyRefactoringsJob(final Queue<RefactoringUnit> refactoringUnits, final List<RefactoringRule> refactoringRulesToApply,
 			final Environment environment) {
+		this(refactoringUnits, refactoringRulesToApply, environment, null);
+	}
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param refactoringUnits        the units to automatically refactor
+	 * @param refactoringRulesToApply the cleanups to apply
+	 * @param environment             the environment
+	 * @param profiler                the profiler recording the time spent by
+	 *                                each cleanup, null to not profile the
+	 *                                cleanups
+	 */
+	public ApplyRefactoringsJob(final Queue<RefactoringUnit> refactoringUnits, final List<RefactoringRule> refactoringRulesToApply,
+			final Environment environment, final RuleProfiler profiler) {
+		this(refactoringUnits, null, refactoringRulesToApply, environment, profiler);
+	}
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param refactoringUnits        the units to automatically refactor
+	 * @param rulePlan                the plan of the cleanups, shared by all the
+	 *                                workers, null to build it from the cleanups
+	 *                                when the job runs
+	 * @param refactoringRulesToApply the cleanups to apply, instances of the
+	 *                                rules of the plan in the same order
+	 * @param environment             the environment
+	 * @param profiler                the profiler recording the time spent by
+	 *                                each cleanup, null to not profile the
+	 *                                cleanups
+	 */
+	public ApplyRefactoringsJob(final Queue<RefactoringUnit> refactoringUnits, final RulePlan rulePlan,
+			final List<RefactoringRule> refactoringRulesToApply, final Environment environment, final RuleProfiler profiler) {
 		super("AutoRefactor"); //$NON-NLS-1$
 		setPriority(Job.LONG);
 		this.refactoringUnits= refactoringUnits;
+		this.rulePlan= rulePlan;
 		this.refactoringRulesToApply= refactoringRulesToApply;
 		this.environment= environment;
+		this.profiler= profiler;
 	}
 
 	@Override
@@ -99,6 +166,7 @@ public class ApplyRefactoringsJob extends Job {
 					+ "Please provide sample java code that triggers the error.\n\n"; //$NON-NLS-1$
 			return new Status(IStatus.ERROR, PluginConstant.PLUGIN_ID, msg, e);
 		} finally {
+			RefactoringUnitScheduler.finish(refactoringUnits);
 			environment.getJobManager().unregister(this);
 		}
 	}
@@ -109,22 +177,34 @@ public class ApplyRefactoringsJob extends Job {
 			return Status.OK_STATUS;
 		}
 
+		CleanUnitCache cleanUnitCache= null;
+		String rulesFingerprint= null;
+		if (isCleanUnitCacheOn()) {
+			cleanUnitCache= CleanUnitCache.getInstance(environment.getLogger());
+			rulesFingerprint= CleanUnitCache.getRulesFingerprint(refactoringRulesToApply);
+		}
+
+		// The visitor is reset by each file, its dispatch tables are built only once
+		AggregateASTVisitor refactoring= new AggregateASTVisitor(
+				rulePlan != null ? rulePlan : new RulePlan(refactoringRulesToApply), refactoringRulesToApply, profiler);
 		SubMonitor loopMonitor= SubMonitor.convert(monitor, refactoringUnits.size());
 		try {
-			RefactoringUnit toRefactor;
-			while ((toRefactor= refactoringUnits.poll()) != null && !loopMonitor.isCanceled()) {
-				ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
-				JavaProjectOptions options= toRefactor.getOptions();
-				try {
-					loopMonitor.subTask("Applying refactorings to " + getClassName(compilationUnit)); //$NON-NLS-1$
-					AggregateASTVisitor refactoring= new AggregateASTVisitor(refactoringRulesToApply);
-					applyRefactoring(compilationUnit, refactoring, options, loopMonitor.newChild(1), true);
-				} catch (OperationCanceledException e) {
-					throw e;
-				} catch (Exception e) {
-					String msg= "Exception when applying refactorings to file \"" + compilationUnit.getPath() //$NON-NLS-1$
-							+ "\": " + e.getMessage(); //$NON-NLS-1$
-					throw new UnhandledException(null, msg, e);
+			if (isBatchParsingOn()) {
+				List<RefactoringUnit> chunk;
+				while (!(chunk= RefactoringUnitScheduler.pollChunk(refactoringUnits, CHUNK_SIZE)).isEmpty()
+						&& !loopMonitor.isCanceled()) {
+					refactorChunk(chunk, refactoring, loopMonitor, cleanUnitCache, rulesFingerprint);
+				}
+			} else {
+				RefactoringUnit toRefactor;
+				while ((toRefactor= refactoringUnits.poll()) != null && !loopMonitor.isCanceled()) {
+					String cleanKey= computeCleanKey(toRefactor, cleanUnitCache, rulesFingerprint);
+					if (cleanKey != null && cleanUnitCache.isClean(toRefactor.getCompilationUnit(), cleanKey)) {
+						loopMonitor.worked(1);
+						continue;
+					}
+
+					refactor(toRefactor, null, cleanKey, refactoring, loopMonitor, cleanUnitCache);
 				}
 			}
 		} finally {
@@ -134,6 +214,128 @@ public class ApplyRefactoringsJob extends Job {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Returns the key of the provided unit in the clean unit cache.
+	 *
+	 * @param toRefactor       the unit to refactor
+	 * @param cleanUnitCache   the clean unit cache, null if it is off
+	 * @param rulesFingerprint the fingerprint of the cleanups to apply
+	 * @return the key of the unit, or null if the clean unit cache is off
+	 */
+	private String computeCleanKey(final RefactoringUnit toRefactor, final CleanUnitCache cleanUnitCache,
+			final String rulesFingerprint) {
+		if (cleanUnitCache == null) {
+			return null;
+		}
+
+		ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
+		try {
+			return cleanUnitCache.computeKey(compilationUnit, toRefactor.getOptions(), rulesFingerprint);
+		} catch (Exception e) {
+			throw newUnhandledException(compilationUnit, e);
+		}
+	}
+
+	/**
+	 * Parses the provided units together against one lookup environment per Java
+	 * project, then refactors each unit from its first AST.
+	 *
+	 * @param chunk            the units to refactor
+	 * @param refactoring      the cleanups to apply
+	 * @param loopMonitor      the monitor of all the units
+	 * @param cleanUnitCache   the clean unit cache, null if it is off
+	 * @param rulesFingerprint the fingerprint of the cleanups to apply
+	 */
+	private void refactorChunk(final List<RefactoringUnit> chunk, final AggregateASTVisitor refactoring,
+			final SubMonitor loopMonitor, final CleanUnitCache cleanUnitCache, final String rulesFingerprint) {
+		final Map<ICompilationUnit, RefactoringUnit> unitsBySource= new HashMap<>();
+		final Map<ICompilationUnit, String> cleanKeys= new HashMap<>();
+		Map<IJavaProject, List<ICompilationUnit>> sourcesByProject= new LinkedHashMap<>();
+		for (RefactoringUnit toRefactor : chunk) {
+			ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
+			String cleanKey= computeCleanKey(toRefactor, cleanUnitCache, rulesFingerprint);
+			if (cleanKey != null && cleanUnitCache.isClean(compilationUnit, cleanKey)) {
+				loopMonitor.worked(1);
+				continue;
+			}
+
+			unitsBySource.put(compilationUnit, toRefactor);
+			cleanKeys.put(compilationUnit, cleanKey);
+			List<ICompilationUnit> sources= sourcesByProject.get(compilationUnit.getJavaProject());
+			if (sources == null) {
+				sources= new ArrayList<>();
+				sourcesByProject.put(compilationUnit.getJavaProject(), sources);
+			}
+			sources.add(compilationUnit);
+		}
+
+		for (Map.Entry<IJavaProject, List<ICompilationUnit>> sources : sourcesByProject.entrySet()) {
+			List<ICompilationUnit> compilationUnits= sources.getValue();
+
+			@SuppressWarnings("deprecation")
+			ASTParser parser= ASTParser.newParser(AST.JLS8);
+			parser.setProject(sources.getKey());
+			parser.setResolveBindings(true);
+			parser.setCompilerOptions(unitsBySource.get(compilationUnits.get(0)).getOptions().getCompilerOptions());
+			parser.createASTs(compilationUnits.toArray(new ICompilationUnit[0]), new String[0], new ASTRequestor() {
+				@Override
+				public void acceptAST(final ICompilationUnit source, final CompilationUnit ast) {
+					if (!loopMonitor.isCanceled()) {
+						refactor(unitsBySource.get(source), ast, cleanKeys.get(source), refactoring, loopMonitor,
+								cleanUnitCache);
+					}
+				}
+			}, null);
+		}
+	}
+
+	/**
+	 * Refactors the provided unit.
+	 *
+	 * @param toRefactor     the unit to refactor
+	 * @param firstAstRoot   the AST of the unit for the first pass, null to parse
+	 *                       it
+	 * @param cleanKey       the key of the unit in the clean unit cache, null if
+	 *                       the cache is off
+	 * @param refactoring    the cleanups to apply
+	 * @param loopMonitor    the monitor of all the units
+	 * @param cleanUnitCache the clean unit cache, null if it is off
+	 */
+	private void refactor(final RefactoringUnit toRefactor, final CompilationUnit firstAstRoot, final String cleanKey,
+			final AggregateASTVisitor refactoring, final SubMonitor loopMonitor, final CleanUnitCache cleanUnitCache) {
+		ICompilationUnit compilationUnit= toRefactor.getCompilationUnit();
+		try {
+			loopMonitor.subTask("Applying refactorings to " + getClassName(compilationUnit)); //$NON-NLS-1$
+			List<TextEdit> textEdits= applyRefactoring(compilationUnit, firstAstRoot, refactoring, toRefactor.getOptions(),
+					loopMonitor.newChild(1), true);
+			if (cleanKey != null && textEdits != null && textEdits.isEmpty()) {
+				// The unchanged content is what has been hashed
+				cleanUnitCache.markClean(compilationUnit, cleanKey, refactoring.getRefactoringContext().getRoot(),
+						environment.getLogger());
+			}
+		} catch (OperationCanceledException e) {
+			throw e;
+		} catch (Exception e) {
+			throw newUnhandledException(compilationUnit, e);
+		}
+	}
+
+	private UnhandledException newUnhandledException(final ICompilationUnit compilationUnit, final Exception e) {
+		String msg= "Exception when applying refactorings to file \"" + compilationUnit.getPath() //$NON-NLS-1$
+				+ "\": " + e.getMessage(); //$NON-NLS-1$
+		return new UnhandledException(null, msg, e);
+	}
+
+	private boolean isBatchParsingOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.batchParsingOn();
+	}
+
+	private boolean isCleanUnitCacheOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.cleanUnitCacheOn();
+	}
+
 	private String getClassName(final ICompilationUnit compilationUnit) {
 		String elName= compilationUnit.getElementName();
 		String simpleName= elName.substring(0, elName.lastIndexOf('.'));
@@ -158,6 +360,32 @@ public class ApplyRefactoringsJob extends Job {
 	 */
 	public List<TextEdit> applyRefactoring(final ICompilationUnit compilationUnit, final AggregateASTVisitor refactoringToApply,
 			final JavaProjectOptions options, final SubMonitor monitor, final boolean hasToSave) throws Exception {
+		return applyRefactoring(compilationUnit, null, refactoringToApply, options, monitor, hasToSave);
+	}
+
+	/**
+	 * Applies the cleanups provided inside the {@link AggregateASTVisitor} to
+	 * the provided {@link ICompilationUnit}, starting from an already parsed AST.
+	 * <p>
+	 * Only the passes after the first one parse the compilation unit again.
+	 *
+	 * @param compilationUnit    the compilation unit to refactor
+	 * @param firstAstRoot       the AST of the compilation unit for the first
+	 *                           pass, with resolved bindings, or null to parse it
+	 * @param refactoringToApply the {@link AggregateASTVisitor} to apply to the
+	 *                           compilation unit
+	 * @param options            the Java project options used to compile the
+	 *                           project
+	 * @param monitor            the progress monitor of the current job
+	 * @param hasToSave          hasToSave
+	 *
+	 * @return TextEdit
+	 *
+	 * @throws Exception if any problem occurs
+	 */
+	public List<TextEdit> applyRefactoring(final ICompilationUnit compilationUnit, final CompilationUnit firstAstRoot,
+			final AggregateASTVisitor refactoringToApply, final JavaProjectOptions options, final SubMonitor monitor,
+			final boolean hasToSave) throws Exception {
 		ITextFileBufferManager bufferManager= FileBuffers.getTextFileBufferManager();
 		IPath path= compilationUnit.getPath();
 		LocationKind locationKind= LocationKind.NORMALIZE;
@@ -176,8 +404,12 @@ public class ApplyRefactoringsJob extends Job {
 								+ " Automated refactorings will not be applied to it."); //$NON-NLS-1$
 				return null;
 			}
+			if (hasToSave && !textFileBuffer.isShared() && isWorkingCopyOn()) {
+				return applyRefactoringInWorkingCopy(compilationUnit, firstAstRoot, refactoringToApply, options, monitor);
+			}
 			IDocument document= textFileBuffer.getDocument();
-			textEdits= applyRefactoring(document, compilationUnit, refactoringToApply, options, monitor, hasToSave);
+			textEdits= applyRefactoring(document, compilationUnit, firstAstRoot, refactoringToApply, options, monitor,
+					hasToSave, getDocumentEventLoop(textFileBuffer));
 		} finally {
 			bufferManager.disconnect(path, locationKind, null);
 		}
@@ -185,6 +417,72 @@ public class ApplyRefactoringsJob extends Job {
 		return textEdits;
 	}
 
+	private boolean isWorkingCopyOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.workingCopyOn();
+	}
+
+	/**
+	 * Applies the cleanups to an in-memory working copy of the provided
+	 * compilation unit, then commits the working copy once the fix point is
+	 * reached.
+	 * <p>
+	 * The file is written to disk once, so the resource deltas and the builders
+	 * are notified once, instead of after each pass. If a pass fails, the passes
+	 * completed before are still written, as they would have been saved without
+	 * a working copy.
+	 *
+	 * @param compilationUnit    the compilation unit to refactor, not opened in an
+	 *                           editor
+	 * @param firstAstRoot       the AST of the compilation unit for the first
+	 *                           pass, null to parse it
+	 * @param refactoringToApply the cleanups to apply
+	 * @param options            the Java project options used to compile the
+	 *                           project
+	 * @param monitor            the progress monitor of the current job
+	 * @return the text edits of each pass
+	 * @throws Exception if any problem occurs
+	 */
+	private List<TextEdit> applyRefactoringInWorkingCopy(final ICompilationUnit compilationUnit,
+			final CompilationUnit firstAstRoot, final AggregateASTVisitor refactoringToApply, final JavaProjectOptions options,
+			final SubMonitor monitor) throws Exception {
+		ICompilationUnit workingCopy= compilationUnit.getWorkingCopy(null);
+		try {
+			IDocument document= new Document(workingCopy.getSource());
+			try {
+				return applyRefactoring(document, workingCopy, firstAstRoot, refactoringToApply, options, monitor, true,
+						WORKER_THREAD_EVENT_LOOP);
+			} finally {
+				// The buffer holds the result of the last completed pass
+				if (workingCopy.hasUnsavedChanges()) {
+					workingCopy.commitWorkingCopy(false, null);
+				}
+			}
+		} finally {
+			workingCopy.discardWorkingCopy();
+		}
+	}
+
+	/**
+	 * Returns the event loop where the document of the provided buffer can be
+	 * modified.
+	 * <p>
+	 * An editor shares the buffer with this job. Documents displayed by an editor
+	 * must be modified on the UI thread. The other documents are directly modified
+	 * by this worker so that the workers do not wait for each other on the UI
+	 * thread.
+	 *
+	 * @param textFileBuffer the buffer connected by this job
+	 * @return the event loop where the document can be modified
+	 */
+	private EventLoop getDocumentEventLoop(final ITextFileBuffer textFileBuffer) {
+		if (textFileBuffer.isShared()) {
+			return environment.getEventLoop();
+		}
+
+		return WORKER_THREAD_EVENT_LOOP;
+	}
+
 	/**
 	 * Applies the cleanups provided inside the {@link AggregateASTVisitor} to
 	 * the provided {@link ICompilationUnit}.
@@ -214,6 +512,13 @@ public class ApplyRefactoringsJob extends Job {
 	public List<TextEdit> applyRefactoring(final IDocument document, final ICompilationUnit compilationUnit,
 			final AggregateASTVisitor refactoring, final JavaProjectOptions options, final SubMonitor monitor, final boolean hasToSave)
 			throws Exception {
+		return applyRefactoring(document, compilationUnit, null, refactoring, options, monitor, hasToSave,
+				environment.getEventLoop());
+	}
+
+	private List<TextEdit> applyRefactoring(final IDocument document, final ICompilationUnit compilationUnit,
+			final CompilationUnit firstAstRoot, final AggregateASTVisitor refactoring, final JavaProjectOptions options,
+			final SubMonitor monitor, final boolean hasToSave, final EventLoop documentEventLoop) throws Exception {
 		// Creation of DOM/AST from a ICompilationUnit
 		@SuppressWarnings("deprecation")
 		ASTParser parser= ASTParser.newParser(AST.JLS8);
@@ -222,21 +527,46 @@ public class ApplyRefactoringsJob extends Job {
 		int iterationCount= 0;
 		Set<ASTVisitor> lastLoopVisitors= Collections.emptySet();
 		int nbLoopsWithSameVisitors= 0;
+		Set<ASTVisitor> contributingRules= new LinkedHashSet<>();
 
 		List<TextEdit> textEdits= new ArrayList<>();
 
 		monitor.setWorkRemaining(maxIterations);
 
 		CompilationUnit astRoot;
+		CompilationUnit parsedAstRoot= firstAstRoot;
+		int focalPosition= NO_FOCAL_POSITION;
+		// The edits of the previous pass, in the current document, when only the members they modified are visited
+		TextEdit dirtyEdits= null;
+		// The visitor may have refactored another file before
+		refactoring.reset();
+		refactoring.setDisjointEditsOn(isDisjointEditsOn());
 		do {
+			if (refactoring.isOutOfTime()) {
+				// Keep the passes completed within the time budget
+				logPendingCleanups(compilationUnit, refactoring);
+				break;
+			}
+
 			// I did not find any other way to directly modify the AST
 			// while still keeping the resolved type bindings working.
 			// Using astRoot.recordModifications() did not work:
 			// type bindings were lost. Is there a way to recover them?
 			// FIXME we should find a way to apply all the changes at
 			// the AST level and refresh the bindings
-			resetParser(compilationUnit, parser, options);
-			astRoot= (CompilationUnit) parser.createAST(null);
+			if (parsedAstRoot != null) {
+				// The first pass reuses the AST parsed in batch with other compilation units
+				astRoot= parsedAstRoot;
+				parsedAstRoot= null;
+			} else {
+				resetParser(compilationUnit, parser, options);
+				if (focalPosition != NO_FOCAL_POSITION) {
+					// Only the body containing the focal position is parsed and resolved,
+					// the other bodies are left empty
+					parser.setFocalPosition(focalPosition);
+				}
+				astRoot= (CompilationUnit) parser.createAST(null);
+			}
 
 			if (iterationCount > maxIterations) {
 				// Oops! Something went wrong.
@@ -252,17 +582,56 @@ public class ApplyRefactoringsJob extends Job {
 					environment);
 			refactoring.setRefactoringContext(cuRewrite);
 
-			ASTRewrite refactorings= refactoring.getRefactorings(astRoot);
+			ASTRewrite refactorings;
+			List<BodyDeclaration> dirtyBodyDeclarations= null;
+			if (focalPosition != NO_FOCAL_POSITION) {
+				Block focusedBody= getFocusedBody(astRoot, focalPosition);
+
+				if (focusedBody == null) {
+					focalPosition= NO_FOCAL_POSITION;
+					continue;
+				}
+
+				// The other bodies are empty, so only the rules staying within a body can visit it
+				refactorings= refactoring.getRefactorings(focusedBody);
+			} else if (dirtyEdits != null
+					&& (dirtyBodyDeclarations= getDirtyBodyDeclarations(astRoot, dirtyEdits)) != null) {
+				refactorings= refactoring.getRefactorings(astRoot, dirtyBodyDeclarations);
+			} else {
+				refactorings= refactoring.getRefactorings(astRoot);
+			}
+			dirtyEdits= null;
+
 			if (!refactorings.hasRefactorings()) {
+				if (focalPosition != NO_FOCAL_POSITION) {
+					// The modified body is clean now.
+					// Run a complete pass for the cleanups looking beyond a body.
+					focalPosition= NO_FOCAL_POSITION;
+					continue;
+				}
+
+				if (dirtyBodyDeclarations != null) {
+					// The modified members are clean now.
+					// Run a complete pass on the same AST for the cleanups spanning several members.
+					parsedAstRoot= astRoot;
+					continue;
+				}
+
 				// No new cleanups have been applied,
 				// We are done with applying the cleanups.
+				if (refactoring.isInterrupted()) {
+					logPendingCleanups(compilationUnit, refactoring);
+				}
 				break;
 			}
 
 			// Apply the cleanups and save the compilation unit
-			refactorings.applyTo(document, hasToSave);
+			refactorings.applyTo(document, hasToSave, documentEventLoop);
 			textEdits.add(refactorings.getEdits());
 			if (!hasToSave) {
+				if (refactoring.isInterrupted()) {
+					logPendingCleanups(compilationUnit, refactoring);
+				}
 				return textEdits;
 			}
 			boolean hadUnsavedChanges= compilationUnit.hasUnsavedChanges();
@@ -274,7 +643,8 @@ public class ApplyRefactoringsJob extends Job {
 			// ICompilationUnit.FORCE_PROBLEM_DETECTION
 			// /** can be useful to back out a change that does not compile */
 			// , null, null);
-			if (!hadUnsavedChanges && hasToSave) {
+			if (!hadUnsavedChanges && hasToSave && compilationUnit.isPrimary()) {
+				// A working copy is committed once the fix point is reached
 				compilationUnit.save(null, true);
 			}
 			iterationCount++;
@@ -286,17 +656,200 @@ public class ApplyRefactoringsJob extends Job {
 				lastLoopVisitors= new HashSet<>(thisLoopVisitors);
 				nbLoopsWithSameVisitors= 0;
 			}
+			contributingRules.addAll(thisLoopVisitors);
+
+			focalPosition= isIncrementalParsingOn() ? getFocalPosition(refactorings) : NO_FOCAL_POSITION;
+			if (focalPosition == NO_FOCAL_POSITION && isDirtyRegionsOn()
+					&& !refactorings.getImportRewrite().hasRecordedChanges()) {
+				// The import edits are applied without updating the regions of the other edits
+				dirtyEdits= refactorings.getEdits();
+			}
 		} while (true);
 
+		if (profiler != null) {
+			profiler.recordFile(compilationUnit.getPath().toString(), iterationCount, contributingRules);
+		}
+
 		return textEdits;
 	}
 
+	private boolean isIncrementalParsingOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.incrementalParsingOn();
+	}
+
+	private boolean isDisjointEditsOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.disjointEditsOn();
+	}
+
+	private boolean isDirtyRegionsOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.dirtyRegionsOn();
+	}
+
+	/**
+	 * Returns the members of the top level types that enclose the provided
+	 * edits. The edits must have been applied with
+	 * {@link TextEdit#UPDATE_REGIONS}, so they designate the new source code.
+	 *
+	 * @param astRoot the compilation unit parsed from the new source code
+	 * @param edits   the edits of the previous pass
+	 * @return the members that enclose the edits, or null if an edit is not
+	 *         enclosed by such a member
+	 */
+	private static List<BodyDeclaration> getDirtyBodyDeclarations(final CompilationUnit astRoot, final TextEdit edits) {
+		List<BodyDeclaration> dirtyBodyDeclarations= new ArrayList<>();
+
+		if (!addDirtyBodyDeclarations(astRoot, edits, dirtyBodyDeclarations)) {
+			return null;
+		}
+
+		return dirtyBodyDeclarations;
+	}
+
+	private static boolean addDirtyBodyDeclarations(final CompilationUnit astRoot, final TextEdit edit,
+			final List<BodyDeclaration> dirtyBodyDeclarations) {
+		if (edit.hasChildren()) {
+			for (TextEdit child : edit.getChildren()) {
+				if (!addDirtyBodyDeclarations(astRoot, child, dirtyBodyDeclarations)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		BodyDeclaration bodyDeclaration= getEnclosingBodyDeclaration(astRoot, edit.getOffset(), edit.getLength());
+
+		if (bodyDeclaration == null) {
+			return false;
+		}
+
+		if (!dirtyBodyDeclarations.contains(bodyDeclaration)) {
+			dirtyBodyDeclarations.add(bodyDeclaration);
+		}
+
+		return true;
+	}
+
+	private static BodyDeclaration getEnclosingBodyDeclaration(final CompilationUnit astRoot, final int offset,
+			final int length) {
+		for (Object type : astRoot.types()) {
+			for (Object object : ((AbstractTypeDeclaration) type).bodyDeclarations()) {
+				BodyDeclaration bodyDeclaration= (BodyDeclaration) object;
+
+				if (bodyDeclaration.getStartPosition() <= offset
+						&& offset + length <= bodyDeclaration.getStartPosition() + bodyDeclaration.getLength()) {
+					return bodyDeclaration;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns a position that is stable across the last cleanups and that
+	 * designates the only member body they modified.
+	 * <p>
+	 * The whole compilation unit must be parsed again when the cleanups modified
+	 * the imports, the comments, a type signature, a member signature or several
+	 * members.
+	 *
+	 * @param refactorings the cleanups that have just been applied
+	 * @return the start position of the modified body, or
+	 *         {@link #NO_FOCAL_POSITION}
+	 */
+	private static int getFocalPosition(final ASTRewrite refactorings) {
+		if (refactorings.hasSourceRefactorings() || refactorings.getImportRewrite().hasRecordedChanges()) {
+			return NO_FOCAL_POSITION;
+		}
+
+		Block modifiedBody= null;
+		for (ASTNode rewrittenNode : refactorings.getRewrittenNodes()) {
+			Block body= getOutermostBody(rewrittenNode);
+
+			if (body == null || modifiedBody != null && modifiedBody != body) {
+				return NO_FOCAL_POSITION;
+			}
+
+			modifiedBody= body;
+		}
+
+		if (modifiedBody == null) {
+			return NO_FOCAL_POSITION;
+		}
+
+		// Edits are located after the opening brace, so its position does not move
+		return modifiedBody.getStartPosition();
+	}
+
+	/**
+	 * Returns the body of the outermost method or initializer enclosing the
+	 * provided node. This member must belong to a type declaration.
+	 *
+	 * @param node the node
+	 * @return the body of the outermost method or initializer enclosing the
+	 *         provided node, or null if the node is not located inside such a body
+	 */
+	private static Block getOutermostBody(final ASTNode node) {
+		Block body= null;
+		ASTNode child= node;
+
+		for (ASTNode parent= node.getParent(); parent != null; parent= parent.getParent()) {
+			if (parent instanceof MethodDeclaration && child.getLocationInParent() == MethodDeclaration.BODY_PROPERTY
+					|| parent instanceof Initializer && child.getLocationInParent() == Initializer.BODY_PROPERTY) {
+				body= (Block) child;
+			}
+
+			child= parent;
+		}
+
+		if (body != null && body.getParent().getParent() instanceof AbstractTypeDeclaration) {
+			return body;
+		}
+
+		return null;
+	}
+
+	private static Block getFocusedBody(final CompilationUnit astRoot, final int focalPosition) {
+		ASTNode node= NodeFinder.perform(astRoot, focalPosition, 0);
+
+		if (node == null) {
+			return null;
+		}
+
+		return getOutermostBody(node);
+	}
+
 	private static void resetParser(final ICompilationUnit cu, final ASTParser parser, final JavaProjectOptions options) {
 		parser.setSource(cu);
 		parser.setResolveBindings(true);
 		parser.setCompilerOptions(options.getCompilerOptions());
 	}
 
+	/**
+	 * Logs the cleanups whose work has been left undone because the time budget
+	 * has been spent.
+	 *
+	 * @param compilationUnit the refactored compilation unit
+	 * @param refactoring     the cleanups
+	 */
+	private void logPendingCleanups(final ICompilationUnit compilationUnit, final AggregateASTVisitor refactoring) {
+		StringBuilder sb= new StringBuilder("The time budget has been spent before the cleanups of file ") //$NON-NLS-1$
+				.append(compilationUnit.getPath()).append(" were finished."); //$NON-NLS-1$
+		Iterator<ASTVisitor> iter= refactoring.getPendingVisitors().iterator();
+		if (iter.hasNext()) {
+			sb.append(" Pending ASTVisitor classes are: ").append(iter.next().getClass().getName()); //$NON-NLS-1$
+			while (iter.hasNext()) {
+				sb.append(", ").append(iter.next().getClass().getName()); //$NON-NLS-1$
+			}
+		}
+
+		environment.getLogger().info(sb.toString());
+	}
+
 	private String getPossibleCulprits(final int nbLoopsWithSameVisitors, final Set<ASTVisitor> lastLoopVisitors) {
 		if (nbLoopsWithSameVisitors < 100 || lastLoopVisitors.isEmpty()) {
 			return ""; //$NON-NLS-1$
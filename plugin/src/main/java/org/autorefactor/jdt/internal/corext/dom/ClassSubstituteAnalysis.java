@@ -0,0 +1,177 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+
+/**
+ * Analysis of the blocks shared by the cleanups substituting a class for
+ * another one, like ArrayList for Vector or HashMap for Hashtable.
+ * <p>
+ * These cleanups look at the same instantiations and at the same variable
+ * occurrences, each one looking for its own classes. The first cleanup visiting
+ * a block collects them and the following cleanups reuse them, so a block is
+ * analyzed once for all the substitutions.
+ */
+public final class ClassSubstituteAnalysis {
+	/** The occurrences of a local variable in the statements following its declaration. */
+	public static final class VarOccurrences {
+		private final VariableDeclaration varDecl;
+		private final List<SimpleName> occurrences= new ArrayList<>();
+		private final List<AnonymousClassDeclaration> anonymousClasses= new ArrayList<>();
+		private Boolean readInAnonymousClass;
+
+		private VarOccurrences(final VariableDeclaration varDecl) {
+			this.varDecl= varDecl;
+		}
+
+		/**
+		 * Returns the occurrences of the variable, its declaration excluded.
+		 *
+		 * @return the occurrences of the variable
+		 */
+		public List<SimpleName> getOccurrences() {
+			return occurrences;
+		}
+
+		/**
+		 * Returns whether the variable is read in an anonymous class.
+		 *
+		 * @return true if the variable is read in an anonymous class, false
+		 *         otherwise
+		 */
+		public boolean isReadInAnonymousClass() {
+			if (readInAnonymousClass == null) {
+				readInAnonymousClass= Boolean.FALSE;
+
+				for (AnonymousClassDeclaration anonymousClass : anonymousClasses) {
+					VarDefinitionsUsesVisitor variableUseVisitor= new VarDefinitionsUsesVisitor(varDecl.resolveBinding(),
+							anonymousClass, true).find();
+
+					if (!variableUseVisitor.getReads().isEmpty()) {
+						readInAnonymousClass= Boolean.TRUE;
+						break;
+					}
+				}
+			}
+
+			return readInAnonymousClass;
+		}
+	}
+
+	private final NodeTypeIndex nodeTypeIndex;
+	private final Map<Block, List<ClassInstanceCreation>> instantiationsByBlock= new HashMap<>();
+	private final Map<VariableDeclaration, VarOccurrences> occurrencesByVarDecl= new HashMap<>();
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param nodeTypeIndex the index of the nodes of the analyzed AST
+	 */
+	public ClassSubstituteAnalysis(final NodeTypeIndex nodeTypeIndex) {
+		this.nodeTypeIndex= nodeTypeIndex;
+	}
+
+	/**
+	 * Returns the instantiations located in the provided block, outside its
+	 * nested blocks and anonymous classes, sorted by position.
+	 *
+	 * @param block the block
+	 * @return the instantiations located in the provided block
+	 */
+	public List<ClassInstanceCreation> getInstantiations(final Block block) {
+		List<ClassInstanceCreation> instantiations= instantiationsByBlock.get(block);
+
+		if (instantiations == null) {
+			instantiations= new ArrayList<>();
+
+			for (ClassInstanceCreation instanceCreation : nodeTypeIndex.getNodes(block, ClassInstanceCreation.class)) {
+				if (isDirectlyInBlock(instanceCreation, block)) {
+					instantiations.add(instanceCreation);
+				}
+			}
+
+			instantiationsByBlock.put(block, instantiations);
+		}
+
+		return instantiations;
+	}
+
+	private static boolean isDirectlyInBlock(final ClassInstanceCreation instanceCreation, final Block block) {
+		for (ASTNode parent= instanceCreation.getParent(); parent != block; parent= parent.getParent()) {
+			if (parent instanceof Block || parent instanceof AnonymousClassDeclaration) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the occurrences of a local variable in the statements following
+	 * the statement declaring it.
+	 *
+	 * @param varDecl the declaration of the local variable
+	 * @return the occurrences of the local variable
+	 */
+	public VarOccurrences getVarOccurrences(final VariableDeclaration varDecl) {
+		VarOccurrences varOccurrences= occurrencesByVarDecl.get(varDecl);
+
+		if (varOccurrences == null) {
+			varOccurrences= new VarOccurrences(varDecl);
+			VariableUseIndex variableUseIndex= VariableUseIndex.of(varDecl);
+			IVariableBinding variable= varDecl.resolveBinding();
+			Statement parent= ASTNodes.getAncestorOrNull(varDecl, Statement.class);
+			Statement nextSibling= ASTNodes.getNextSibling(parent);
+
+			while (nextSibling != null) {
+				List<SimpleName> siblingOccurrences= new ArrayList<>(variableUseIndex.getReads(variable, nextSibling, true));
+				siblingOccurrences.addAll(variableUseIndex.getWrites(variable, nextSibling, true));
+				Collections.sort(siblingOccurrences, new ASTNodes.NodeStartPositionComparator());
+				varOccurrences.occurrences.addAll(siblingOccurrences);
+				varOccurrences.anonymousClasses.addAll(nodeTypeIndex.getNodes(nextSibling, AnonymousClassDeclaration.class));
+				nextSibling= ASTNodes.getNextSibling(nextSibling);
+			}
+
+			occurrencesByVarDecl.put(varDecl, varOccurrences);
+		}
+
+		return varOccurrences;
+	}
+}
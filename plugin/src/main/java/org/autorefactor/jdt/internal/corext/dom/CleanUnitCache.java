@@ -0,0 +1,418 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.autorefactor.environment.Logger;
+import org.autorefactor.util.UnhandledException;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.osgi.framework.Bundle;
+
+/**
+ * Remembers the compilation units that a previous run has found clean, so they
+ * are not parsed and visited again.
+ * <p>
+ * A compilation unit is clean for a key computed from its content, the cleanups
+ * to apply with the version of this plugin, the Java project options and the
+ * resolved classpath of its project. It stays clean while the source files
+ * declaring the types it uses, and their supertypes, are not modified. The keys
+ * are persisted in the state location of this plugin, inside the workspace
+ * metadata area.
+ */
+public final class CleanUnitCache {
+	private static final String CACHE_FILE_NAME= "clean-units.txt"; //$NON-NLS-1$
+	private static final char SEPARATOR= '\t';
+	private static final int CLASSPATH_DELTA_FLAGS= IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	private static CleanUnitCache instance;
+
+	private final File cacheFile;
+	private final Map<String, Entry> entriesByPath= new ConcurrentHashMap<>();
+	private final Map<IJavaProject, String> classpathFingerprints= new ConcurrentHashMap<>();
+
+	private CleanUnitCache(final File cacheFile) {
+		this.cacheFile= cacheFile;
+	}
+
+	/**
+	 * Returns the cache of this workspace, loading it on first use.
+	 *
+	 * @param logger the logger reporting the cache file errors
+	 * @return the cache of this workspace
+	 */
+	public static synchronized CleanUnitCache getInstance(final Logger logger) {
+		if (instance == null) {
+			Bundle bundle= Platform.getBundle(PluginConstant.PLUGIN_ID);
+			File cacheFile= Platform.getStateLocation(bundle).append(CACHE_FILE_NAME).toFile();
+			instance= new CleanUnitCache(cacheFile);
+			instance.load(logger);
+			JavaCore.addElementChangedListener(new IElementChangedListener() {
+				@Override
+				public void elementChanged(final ElementChangedEvent event) {
+					if (affectsClasspath(event.getDelta())) {
+						instance.classpathFingerprints.clear();
+					}
+				}
+			}, ElementChangedEvent.POST_CHANGE);
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Returns the fingerprint of the provided cleanups.
+	 *
+	 * @param refactoringRules the cleanups to apply
+	 * @return the fingerprint of the provided cleanups
+	 */
+	public static String getRulesFingerprint(final Collection<RefactoringRule> refactoringRules) {
+		List<String> ruleNames= new ArrayList<>(refactoringRules.size());
+		for (RefactoringRule refactoringRule : refactoringRules) {
+			ruleNames.add(refactoringRule.getClass().getName());
+		}
+		Collections.sort(ruleNames);
+
+		Bundle bundle= Platform.getBundle(PluginConstant.PLUGIN_ID);
+		return (bundle != null ? bundle.getVersion().toString() : "") + ruleNames; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the key identifying the current state of the provided compilation
+	 * unit.
+	 *
+	 * @param compilationUnit  the compilation unit
+	 * @param options          the Java project options
+	 * @param rulesFingerprint the fingerprint of the cleanups to apply
+	 * @return the key identifying the current state of the compilation unit
+	 * @throws JavaModelException if the source or the classpath cannot be read
+	 */
+	public String computeKey(final ICompilationUnit compilationUnit, final JavaProjectOptions options, final String rulesFingerprint)
+			throws JavaModelException {
+		MessageDigest digest= newDigest();
+		update(digest, rulesFingerprint);
+		update(digest, getOptionsFingerprint(options));
+		update(digest, getClasspathFingerprint(compilationUnit.getJavaProject()));
+		update(digest, compilationUnit.getSource());
+		return toHexString(digest);
+	}
+
+	/**
+	 * Returns whether the compilation unit has been found clean with this key and
+	 * none of the source files it depends on has been modified since.
+	 *
+	 * @param compilationUnit the compilation unit
+	 * @param key             the key computed for the compilation unit
+	 * @return true if the compilation unit has been found clean with this key
+	 */
+	public boolean isClean(final ICompilationUnit compilationUnit, final String key) {
+		Entry entry= entriesByPath.get(compilationUnit.getPath().toString());
+		return entry != null && key.equals(entry.key)
+				&& entry.dependenciesFingerprint.equals(getDependenciesFingerprint(entry.dependencyPaths));
+	}
+
+	/**
+	 * Records that the compilation unit has been found clean with this key.
+	 *
+	 * @param compilationUnit the compilation unit
+	 * @param key             the key computed for the compilation unit
+	 * @param astRoot         the AST of the compilation unit, with resolved
+	 *                        bindings, giving the source files it depends on
+	 * @param logger          the logger reporting the cache file errors
+	 */
+	public void markClean(final ICompilationUnit compilationUnit, final String key, final CompilationUnit astRoot,
+			final Logger logger) {
+		String path= compilationUnit.getPath().toString();
+		List<String> dependencyPaths= getDependencyPaths(astRoot, path);
+		Entry entry= new Entry(key, getDependenciesFingerprint(dependencyPaths), dependencyPaths);
+		if (!entry.equals(entriesByPath.put(path, entry))) {
+			append(path, entry, logger);
+		}
+	}
+
+	private static boolean affectsClasspath(final IJavaElementDelta delta) {
+		if ((delta.getFlags() & CLASSPATH_DELTA_FLAGS) != 0
+				|| (delta.getElement().getElementType() == IJavaElement.JAVA_PROJECT
+						&& delta.getKind() != IJavaElementDelta.CHANGED)) {
+			return true;
+		}
+
+		if (delta.getElement().getElementType() < IJavaElement.PACKAGE_FRAGMENT_ROOT) {
+			for (IJavaElementDelta childDelta : delta.getAffectedChildren()) {
+				if (affectsClasspath(childDelta)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static List<String> getDependencyPaths(final CompilationUnit astRoot, final String path) {
+		final Set<String> dependencyPaths= new TreeSet<>();
+		final Set<String> visitedTypeKeys= new HashSet<>();
+		astRoot.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final SimpleName node) {
+				IBinding binding= node.resolveBinding();
+				if (binding instanceof ITypeBinding) {
+					addSourceDependencies((ITypeBinding) binding, dependencyPaths, visitedTypeKeys);
+				} else if (binding instanceof IMethodBinding) {
+					addSourceDependencies(((IMethodBinding) binding).getDeclaringClass(), dependencyPaths, visitedTypeKeys);
+				} else if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+					addSourceDependencies(((IVariableBinding) binding).getDeclaringClass(), dependencyPaths, visitedTypeKeys);
+				}
+
+				return true;
+			}
+		});
+		dependencyPaths.remove(path);
+
+		return new ArrayList<>(dependencyPaths);
+	}
+
+	private static void addSourceDependencies(final ITypeBinding typeBinding, final Set<String> dependencyPaths,
+			final Set<String> visitedTypeKeys) {
+		if (typeBinding == null) {
+			return;
+		}
+
+		ITypeBinding type= typeBinding.isArray() ? typeBinding.getElementType() : typeBinding;
+		type= type.getErasure();
+		if (type.isPrimitive() || !visitedTypeKeys.add(type.getKey())) {
+			return;
+		}
+
+		IJavaElement element= type.getJavaElement();
+		IJavaElement compilationUnit= element != null ? element.getAncestor(IJavaElement.COMPILATION_UNIT) : null;
+		if (compilationUnit == null) {
+			// The binary types only depend on binary types
+			return;
+		}
+
+		dependencyPaths.add(compilationUnit.getPath().toString());
+		addSourceDependencies(type.getSuperclass(), dependencyPaths, visitedTypeKeys);
+		for (ITypeBinding interfaceType : type.getInterfaces()) {
+			addSourceDependencies(interfaceType, dependencyPaths, visitedTypeKeys);
+		}
+	}
+
+	private static String getDependenciesFingerprint(final List<String> dependencyPaths) {
+		IWorkspaceRoot workspaceRoot= ResourcesPlugin.getWorkspace().getRoot();
+		MessageDigest digest= newDigest();
+		for (String dependencyPath : dependencyPaths) {
+			IResource resource= workspaceRoot.findMember(new Path(dependencyPath));
+			long modificationStamp= resource != null ? resource.getModificationStamp() : IResource.NULL_STAMP;
+			update(digest, dependencyPath + SEPARATOR + modificationStamp);
+		}
+
+		return toHexString(digest);
+	}
+
+	private static String toHexString(final MessageDigest digest) {
+		StringBuilder sb= new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(String.format("%02x", b)); //$NON-NLS-1$
+		}
+
+		return sb.toString();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new UnhandledException(null, e);
+		}
+	}
+
+	private static void update(final MessageDigest digest, final String value) {
+		digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static String getOptionsFingerprint(final JavaProjectOptions options) {
+		return options.getJavaSERelease() + "|" + options.getTabSize() + "|" + options.getCommentLineLength() + "|" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ new TreeMap<>(options.getCompilerOptions());
+	}
+
+	private String getClasspathFingerprint(final IJavaProject javaProject) throws JavaModelException {
+		String fingerprint= classpathFingerprints.get(javaProject);
+		if (fingerprint == null) {
+			StringBuilder sb= new StringBuilder();
+			for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+				IPath path= entry.getPath();
+				sb.append(entry.getEntryKind()).append(SEPARATOR).append(path);
+				if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+					File file= getLibraryFile(path);
+					sb.append(SEPARATOR).append(file.lastModified()).append(SEPARATOR).append(file.length());
+				}
+				sb.append('\n');
+			}
+
+			fingerprint= sb.toString();
+			classpathFingerprints.put(javaProject, fingerprint);
+		}
+
+		return fingerprint;
+	}
+
+	/**
+	 * Returns the file of a library. The path of a library inside the workspace
+	 * is relative to the workspace root, the other paths are absolute.
+	 */
+	private static File getLibraryFile(final IPath path) {
+		IResource resource= ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+		IPath location= resource != null ? resource.getLocation() : null;
+		return location != null ? location.toFile() : path.toFile();
+	}
+
+	private void load(final Logger logger) {
+		if (!cacheFile.isFile()) {
+			return;
+		}
+
+		int nbLines= 0;
+		try (BufferedReader reader= Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line= reader.readLine()) != null) {
+				// key, fingerprint of the dependencies, path, then the path of each dependency
+				String[] fields= line.split(String.valueOf(SEPARATOR));
+				if (fields.length >= 3) {
+					List<String> dependencyPaths= new ArrayList<>(Arrays.asList(fields).subList(3, fields.length));
+					entriesByPath.put(fields[2], new Entry(fields[0], fields[1], dependencyPaths));
+					nbLines++;
+				}
+			}
+		} catch (IOException e) {
+			logger.error("Cannot read the clean unit cache " + cacheFile, e); //$NON-NLS-1$
+			entriesByPath.clear();
+			return;
+		}
+
+		if (nbLines > 2 * entriesByPath.size()) {
+			compact(logger);
+		}
+	}
+
+	private synchronized void compact(final Logger logger) {
+		try (Writer writer= Files.newBufferedWriter(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Entry> entry : entriesByPath.entrySet()) {
+				write(writer, entry.getKey(), entry.getValue());
+			}
+		} catch (IOException e) {
+			logger.error("Cannot write the clean unit cache " + cacheFile, e); //$NON-NLS-1$
+		}
+	}
+
+	private synchronized void append(final String path, final Entry entry, final Logger logger) {
+		try (Writer writer= Files.newBufferedWriter(cacheFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND)) {
+			write(writer, path, entry);
+		} catch (IOException e) {
+			logger.error("Cannot write the clean unit cache " + cacheFile, e); //$NON-NLS-1$
+		}
+	}
+
+	private static void write(final Writer writer, final String path, final Entry entry) throws IOException {
+		writer.append(entry.key).append(SEPARATOR).append(entry.dependenciesFingerprint).append(SEPARATOR).append(path);
+		for (String dependencyPath : entry.dependencyPaths) {
+			writer.append(SEPARATOR).append(dependencyPath);
+		}
+		writer.append('\n');
+	}
+
+	/** The state of a compilation unit found clean. */
+	private static final class Entry {
+		private final String key;
+		private final String dependenciesFingerprint;
+		private final List<String> dependencyPaths;
+
+		private Entry(final String key, final String dependenciesFingerprint, final List<String> dependencyPaths) {
+			this.key= key;
+			this.dependenciesFingerprint= dependenciesFingerprint;
+			this.dependencyPaths= dependencyPaths;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+
+			Entry other= (Entry) obj;
+			return key.equals(other.key) && dependenciesFingerprint.equals(other.dependenciesFingerprint)
+					&& dependencyPaths.equals(other.dependencyPaths);
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode();
+		}
+	}
+}
@@ -40,6 +40,8 @@ import org.eclipse.jdt.core.dom.ASTVisitor;
 public class CollectorVisitor<R> extends ASTVisitor {
 	/** The actual boolean result. */
 	private final List<R> results= new ArrayList<>();
+	/** The only node to visit when visiting indexed nodes, null otherwise. */
+	private ASTNode indexedNode;
 
 	/**
 	 * Adds the provided result to the list of results.
@@ -70,4 +72,34 @@ public class CollectorVisitor<R> extends ASTVisitor {
 		nodeToVisit.accept(this);
 		return results;
 	}
+
+	/**
+	 * Visits the nodes of the provided class located inside the provided node, as
+	 * found in the provided index, instead of walking the whole subtree. Only the
+	 * visit and end visit methods of these nodes are called, whatever the visit
+	 * methods return.
+	 *
+	 * @param nodeToVisit the node to visit
+	 * @param nodeClass   the class of the only nodes to visit
+	 * @param index       the index of the nodes of the AST
+	 * @return the results found, may be empty
+	 */
+	public List<R> collect(final ASTNode nodeToVisit, final Class<? extends ASTNode> nodeClass, final NodeTypeIndex index) {
+		try {
+			for (ASTNode node : index.getNodes(nodeToVisit, nodeClass)) {
+				indexedNode= node;
+				node.accept(this);
+			}
+		} finally {
+			indexedNode= null;
+		}
+
+		return results;
+	}
+
+	@Override
+	public boolean preVisit2(final ASTNode node) {
+		// Do not walk below the indexed nodes
+		return indexedNode == null || indexedNode == node;
+	}
 }
@@ -0,0 +1,106 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Comment;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Immutable index of the comments of a compilation unit, sorted by position.
+ * <p>
+ * Comments never overlap, so both their start and end positions are sorted
+ * and every query is a binary search instead of a scan of the comment list.
+ */
+public final class CommentIndex {
+	private final SortedNodes<Comment> comments;
+
+	private CommentIndex(final CompilationUnit astRoot) {
+		List<Comment> commentList= ASTNodes.getCommentList(astRoot);
+		this.comments= new SortedNodes<>(commentList != null ? commentList : Collections.<Comment>emptyList());
+	}
+
+	/**
+	 * Returns the index of the compilation unit containing the provided node.
+	 *
+	 * @param node a node of the AST
+	 * @return the index of the compilation unit containing the provided node, or
+	 *         null if the node is not attached to a compilation unit
+	 */
+	public static CommentIndex of(final ASTNode node) {
+		return CompilationUnitCache.get(node, CommentIndex.class, new CompilationUnitCache.Builder<CommentIndex>() {
+			@Override
+			public CommentIndex build(final CompilationUnit astRoot) {
+				return new CommentIndex(astRoot);
+			}
+		});
+	}
+
+	/**
+	 * Returns whether the provided position is inside a comment, bounds included.
+	 *
+	 * @param position the position
+	 * @return true if the provided position is inside a comment, false otherwise
+	 */
+	public boolean isInComment(final int position) {
+		int index= comments.indexOfFirstStartAfter(position) - 1;
+		return index >= 0 && position <= comments.getEnd(index);
+	}
+
+	/**
+	 * Returns the comments entirely contained in the provided range, bounds
+	 * included, sorted by position.
+	 *
+	 * @param start the start position of the range
+	 * @param end   the end position of the range
+	 * @return the comments entirely contained in the provided range
+	 */
+	public List<Comment> commentsInRange(final int start, final int end) {
+		int fromIndex= comments.indexOfFirstStartAfter(start - 1);
+		int toIndex= comments.indexOfFirstEndAfter(end);
+
+		if (toIndex <= fromIndex) {
+			return Collections.emptyList();
+		}
+
+		return comments.getNodes().subList(fromIndex, toIndex);
+	}
+
+	/**
+	 * Returns the comments situated between the end of the first node and the
+	 * start of the second node, sorted by position.
+	 *
+	 * @param node1 the first node
+	 * @param node2 the second node
+	 * @return the comments situated between the two provided nodes
+	 */
+	public List<Comment> commentsBetween(final ASTNode node1, final ASTNode node2) {
+		return commentsInRange(SourceLocation.getEndPosition(node1), node2.getStartPosition());
+	}
+}
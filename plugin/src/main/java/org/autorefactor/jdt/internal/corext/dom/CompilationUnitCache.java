@@ -0,0 +1,88 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Keeps the analyses of a compilation unit as properties of its root node, so
+ * each analysis is built once per parse and shared by all the cleanups.
+ * <p>
+ * An analysis describes the AST as parsed: the nodes that are not attached to a
+ * compilation unit, like the nodes being built by the cleanups, may still change
+ * and are never cached.
+ */
+public final class CompilationUnitCache {
+	/**
+	 * Builds an analysis of a compilation unit.
+	 *
+	 * @param <T> the type of the analysis
+	 */
+	public interface Builder<T> {
+		/**
+		 * Builds the analysis of the provided compilation unit.
+		 *
+		 * @param astRoot the compilation unit, root of the AST
+		 * @return the analysis of the compilation unit
+		 */
+		T build(CompilationUnit astRoot);
+	}
+
+	private CompilationUnitCache() {
+	}
+
+	/**
+	 * Returns the analysis of the compilation unit containing the provided node.
+	 * The analysis is built at the first call for this compilation unit, then it
+	 * is kept with the AST.
+	 *
+	 * @param <T>           the type of the analysis
+	 * @param node          a node of the AST
+	 * @param analysisClass the class of the analysis, identifying it among the
+	 *                      properties of the compilation unit
+	 * @param builder       the builder of the analysis
+	 * @return the analysis of the compilation unit, or null if the node is not
+	 *         attached to a compilation unit
+	 */
+	public static <T> T get(final ASTNode node, final Class<T> analysisClass, final Builder<T> builder) {
+		ASTNode root= node.getRoot();
+
+		if (!(root instanceof CompilationUnit)) {
+			return null;
+		}
+
+		String property= analysisClass.getName();
+		T analysis= analysisClass.cast(root.getProperty(property));
+
+		if (analysis == null) {
+			analysis= builder.build((CompilationUnit) root);
+			root.setProperty(property, analysis);
+		}
+
+		return analysis;
+	}
+}
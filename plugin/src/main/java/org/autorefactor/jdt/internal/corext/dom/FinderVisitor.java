@@ -39,6 +39,8 @@ public class FinderVisitor<R> extends ASTVisitor {
 	private boolean resultFound;
 	/** The actual boolean result. */
 	private R result;
+	/** The only node to visit when visiting indexed nodes, null otherwise. */
+	private ASTNode indexedNode;
 
 	/**
 	 * Sets the result.
@@ -66,9 +68,42 @@ public class FinderVisitor<R> extends ASTVisitor {
 		return resultFound ? result : defaultResult;
 	}
 
+	/**
+	 * Visits the nodes of the provided class located inside the provided node, as
+	 * found in the provided index, instead of walking the whole subtree. Only the
+	 * visit and end visit methods of these nodes are called, whatever the visit
+	 * methods return.
+	 *
+	 * @param nodeToVisit   the node to visit
+	 * @param nodeClass     the class of the only nodes to visit
+	 * @param index         the index of the nodes of the AST
+	 * @param defaultResult the default result if no result could be found
+	 * @return the result found, or the default result when none exist
+	 */
+	public R findOrDefault(final ASTNode nodeToVisit, final Class<? extends ASTNode> nodeClass, final NodeTypeIndex index,
+			final R defaultResult) {
+		if (nodeToVisit != null) {
+			try {
+				for (ASTNode node : index.getNodes(nodeToVisit, nodeClass)) {
+					if (resultFound) {
+						break;
+					}
+
+					indexedNode= node;
+					node.accept(this);
+				}
+			} finally {
+				indexedNode= null;
+			}
+		}
+
+		return resultFound ? result : defaultResult;
+	}
+
 	@Override
 	public boolean preVisit2(final ASTNode node) {
 		// Exit has fast as possible when the result is found
-		return !resultFound;
+		// and do not walk below the indexed nodes
+		return !resultFound && (indexedNode == null || indexedNode == node);
 	}
 }
@@ -0,0 +1,117 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Immutable index of the nodes of an AST by node class, sorted by position.
+ * <p>
+ * The AST is walked only once. Finding the nodes of a class located inside
+ * another node is then a binary search followed by a scan of the nodes of this
+ * class only, instead of a walk of the whole subtree.
+ */
+public final class NodeTypeIndex {
+	private final Map<Class<?>, SortedNodes<ASTNode>> nodesByClass= new HashMap<>();
+
+	private NodeTypeIndex(final CompilationUnit root) {
+		final Map<Class<?>, List<ASTNode>> nodeLists= new HashMap<>();
+
+		root.accept(new ASTVisitor(true) {
+			@Override
+			public void preVisit(final ASTNode node) {
+				List<ASTNode> nodeList= nodeLists.get(node.getClass());
+
+				if (nodeList == null) {
+					nodeList= new ArrayList<>();
+					nodeLists.put(node.getClass(), nodeList);
+				}
+
+				nodeList.add(node);
+			}
+		});
+
+		for (Map.Entry<Class<?>, List<ASTNode>> entry : nodeLists.entrySet()) {
+			nodesByClass.put(entry.getKey(), new SortedNodes<>(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Returns the index of the compilation unit containing the provided node.
+	 *
+	 * @param node a node of the AST
+	 * @return the index of the compilation unit containing the provided node, or
+	 *         null if the node is not attached to a compilation unit
+	 */
+	public static NodeTypeIndex of(final ASTNode node) {
+		return CompilationUnitCache.get(node, NodeTypeIndex.class, new CompilationUnitCache.Builder<NodeTypeIndex>() {
+			@Override
+			public NodeTypeIndex build(final CompilationUnit astRoot) {
+				return new NodeTypeIndex(astRoot);
+			}
+		});
+	}
+
+	/**
+	 * Returns the nodes of the provided class located inside the provided node,
+	 * this node included, sorted by position.
+	 *
+	 * @param <N>       the type of the nodes
+	 * @param node      the node where to look for
+	 * @param nodeClass the class of the nodes, abstract classes are not indexed
+	 * @return the nodes of the provided class located inside the provided node
+	 */
+	@SuppressWarnings("unchecked")
+	public <N extends ASTNode> List<N> getNodes(final ASTNode node, final Class<N> nodeClass) {
+		SortedNodes<ASTNode> indexedNodes= nodesByClass.get(nodeClass);
+
+		if (indexedNodes == null) {
+			return Collections.emptyList();
+		}
+
+		int start= node.getStartPosition();
+		int end= SourceLocation.getEndPosition(node);
+		List<N> nodes= new ArrayList<>();
+
+		for (int i= indexedNodes.indexOfFirstStartAfter(start - 1); i < indexedNodes.getNodes().size()
+				&& indexedNodes.getStart(i) <= end; i++) {
+			// Skip the ancestors starting at the same position
+			if (indexedNodes.getEnd(i) <= end) {
+				nodes.add((N) indexedNodes.getNodes().get(i));
+			}
+		}
+
+		return nodes;
+	}
+}
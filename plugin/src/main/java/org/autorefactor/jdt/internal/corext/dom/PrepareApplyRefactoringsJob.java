@@ -25,25 +25,32 @@
  */
 package org.autorefactor.jdt.internal.corext.dom;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.autorefactor.environment.Environment;
+import org.autorefactor.jdt.internal.ui.fix.RulePlan;
+import org.autorefactor.jdt.internal.ui.fix.RuleProfiler;
+import org.autorefactor.preferences.Preferences;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -99,12 +106,21 @@ public class PrepareApplyRefactoringsJob extends Job {
 
 	private IStatus run0(final IProgressMonitor monitor) throws Exception {
 		if (!javaElements.isEmpty()) {
-			Queue<RefactoringUnit> toRefactor= collectRefactoringUnits(javaElements, monitor);
+			Set<RefactoringUnit> toRefactor= collectRefactoringUnits(javaElements, monitor);
 			int nbCores= Runtime.getRuntime().availableProcessors();
 			int nbWorkers= computeNbWorkers(toRefactor.size(), nbCores);
+			RefactoringUnitScheduler scheduler= new RefactoringUnitScheduler(toRefactor, nbWorkers, environment.getLogger());
+			RuleProfiler profiler= isProfilingOn() ? new RuleProfiler() : null;
+			IJobChangeListener reportWriter= profiler != null ? newReportWriter(profiler, nbWorkers) : null;
 			JobGroup jobGroup= new JobGroup("Job name", nbWorkers, nbWorkers); //$NON-NLS-1$
+			// The rules are analyzed once, then each worker binds its own rule instances
+			RulePlan rulePlan= new RulePlan(refactoringRulesToApply);
 			for (int i= 0; i < nbWorkers; i++) {
-				Job job= new ApplyRefactoringsJob(toRefactor, clone(refactoringRulesToApply), environment);
+				Job job= new ApplyRefactoringsJob(scheduler.getWorkerQueue(i), rulePlan, rulePlan.newRules(), environment,
+						profiler);
+				if (reportWriter != null) {
+					job.addJobChangeListener(reportWriter);
+				}
 				job.setJobGroup(jobGroup);
 				job.setUser(true);
 				job.schedule();
@@ -114,18 +130,27 @@ public class PrepareApplyRefactoringsJob extends Job {
 		return Status.OK_STATUS;
 	}
 
+	private boolean isProfilingOn() {
+		Preferences preferences= environment.getPreferences();
+		return preferences != null && preferences.profilingOn();
+	}
+
 	/**
-	 * Clones all the cleanups to apply. In fairness, this method is only useful
-	 * for stateful cleanups.
+	 * Returns a listener writing the profiling reports once all the workers are
+	 * done.
 	 */
-	@SuppressWarnings("deprecation")
-	private List<RefactoringRule> clone(final List<RefactoringRule> refactorings) throws Exception {
-		List<RefactoringRule> res= new ArrayList<>(refactorings.size());
-		for (RefactoringRule refactoring : refactorings) {
-			res.add(refactoring.getClass().newInstance());
-		}
-
-		return res;
+	private IJobChangeListener newReportWriter(final RuleProfiler profiler, final int nbWorkers) {
+		final AtomicInteger nbRunningWorkers= new AtomicInteger(nbWorkers);
+		return new JobChangeAdapter() {
+			@Override
+			public void done(final IJobChangeEvent event) {
+				if (nbRunningWorkers.decrementAndGet() == 0) {
+					File directory= Platform.getStateLocation(Platform.getBundle(PluginConstant.PLUGIN_ID))
+							.append("profiles").toFile(); //$NON-NLS-1$
+					profiler.writeReport(directory, environment.getLogger());
+				}
+			}
+		};
 	}
 
 	private int computeNbWorkers(final int nbWorkItems, final int nbCores) {
@@ -140,11 +165,11 @@ public class PrepareApplyRefactoringsJob extends Job {
 		return 1;
 	}
 
-	private Queue<RefactoringUnit> collectRefactoringUnits(final List<IJavaElement> javaElements, final IProgressMonitor monitor) {
+	private Set<RefactoringUnit> collectRefactoringUnits(final List<IJavaElement> javaElements, final IProgressMonitor monitor) {
 		try {
-			Set<RefactoringUnit> results= new ConcurrentSkipListSet<>();
+			Set<RefactoringUnit> results= new LinkedHashSet<>();
 			addAll(results, javaElements, monitor);
-			return new ConcurrentLinkedQueue<>(results);
+			return results;
 		} catch (Exception e) {
 			throw new UnhandledException(null, e);
 		}
@@ -0,0 +1,380 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.autorefactor.environment.Logger;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ICompilationUnit;
+
+/**
+ * Distributes {@link RefactoringUnit}s among several {@link ApplyRefactoringsJob}s.
+ * <p>
+ * The cost of each unit is estimated from the time it took during a previous run, or else from its file size.
+ * The units are dealt largest-first to the least loaded worker, each worker processes its own units largest-first
+ * and an idle worker steals the largest remaining unit from the most loaded worker.
+ * A per-worker utilisation summary is logged once all the workers have called {@link #finish(Queue)}.
+ */
+public class RefactoringUnitScheduler {
+	/** Durations in nanoseconds of the units processed during the previous runs, by file path. */
+	private static final Map<IPath, Long> PREVIOUS_DURATIONS= new ConcurrentHashMap<>();
+	private static final AtomicLong TOTAL_NANOS= new AtomicLong();
+	private static final AtomicLong TOTAL_BYTES= new AtomicLong();
+
+	private final List<Worker> workers;
+	private final Map<RefactoringUnit, Long> costs;
+	private final AtomicInteger nbRunningWorkers;
+	private final long startTime= System.nanoTime();
+	private final Logger logger;
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param refactoringUnits the units to process
+	 * @param nbWorkers        the number of workers
+	 * @param logger           the logger receiving the utilisation summary
+	 */
+	public RefactoringUnitScheduler(final Collection<RefactoringUnit> refactoringUnits, final int nbWorkers, final Logger logger) {
+		this.logger= logger;
+		this.nbRunningWorkers= new AtomicInteger(nbWorkers);
+		this.costs= new ConcurrentHashMap<>();
+		for (RefactoringUnit refactoringUnit : refactoringUnits) {
+			costs.put(refactoringUnit, estimateCost(refactoringUnit));
+		}
+
+		workers= new ArrayList<>(nbWorkers);
+		for (int i= 0; i < nbWorkers; i++) {
+			workers.add(new Worker(i + 1));
+		}
+
+		List<RefactoringUnit> sortedUnits= new ArrayList<>(refactoringUnits);
+		Collections.sort(sortedUnits, new Comparator<RefactoringUnit>() {
+			@Override
+			public int compare(final RefactoringUnit o1, final RefactoringUnit o2) {
+				return Long.compare(costs.get(o2), costs.get(o1));
+			}
+		});
+
+		for (RefactoringUnit refactoringUnit : sortedUnits) {
+			Worker leastLoaded= workers.get(0);
+			for (Worker worker : workers) {
+				if (worker.remainingCost.get() < leastLoaded.remainingCost.get()) {
+					leastLoaded= worker;
+				}
+			}
+
+			leastLoaded.units.addLast(refactoringUnit);
+			leastLoaded.remainingCost.addAndGet(costs.get(refactoringUnit));
+		}
+	}
+
+	/**
+	 * Returns the queue to poll for the worker with the provided index.
+	 * <p>
+	 * The returned queue must only be polled by one thread: the time between two polls is accounted as the time
+	 * spent processing the previously returned units. The worker must call {@link #finish(Queue)} once it stops
+	 * polling the queue.
+	 *
+	 * @param workerIndex the worker index, starting at zero
+	 * @return the queue to poll for the worker with the provided index
+	 */
+	public Queue<RefactoringUnit> getWorkerQueue(final int workerIndex) {
+		return workers.get(workerIndex).queue;
+	}
+
+	/**
+	 * Polls up to the provided number of units from the provided queue, so they are processed together.
+	 * <p>
+	 * For a queue returned by {@link #getWorkerQueue(int)}, the time until the next poll is shared among the returned
+	 * units in proportion to their estimated costs.
+	 *
+	 * @param queue   the queue to poll
+	 * @param maxSize the maximum number of units to return
+	 * @return the polled units, empty when the queue is exhausted
+	 */
+	static List<RefactoringUnit> pollChunk(final Queue<RefactoringUnit> queue, final int maxSize) {
+		if (queue instanceof RefactoringUnitScheduler.WorkerQueue) {
+			return ((RefactoringUnitScheduler.WorkerQueue) queue).pollChunk(maxSize);
+		}
+
+		List<RefactoringUnit> chunk= new ArrayList<>(maxSize);
+		RefactoringUnit refactoringUnit;
+		while (chunk.size() < maxSize && (refactoringUnit= queue.poll()) != null) {
+			chunk.add(refactoringUnit);
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * Records that the worker polling the provided queue stops, even when it has not exhausted the queue.
+	 * <p>
+	 * For a queue returned by {@link #getWorkerQueue(int)}, the time since the last poll is accounted to the last
+	 * returned units and the utilisation summary is logged once all the workers have stopped.
+	 *
+	 * @param queue the queue polled by the worker
+	 */
+	static void finish(final Queue<RefactoringUnit> queue) {
+		if (queue instanceof RefactoringUnitScheduler.WorkerQueue) {
+			((RefactoringUnitScheduler.WorkerQueue) queue).finish();
+		}
+	}
+
+	private long estimateCost(final RefactoringUnit refactoringUnit) {
+		IPath path= getPath(refactoringUnit);
+		Long previousDuration= path != null ? PREVIOUS_DURATIONS.get(path) : null;
+		if (previousDuration != null) {
+			return previousDuration;
+		}
+
+		long fileSize= getFileSize(path);
+		long totalBytes= TOTAL_BYTES.get();
+		if (totalBytes > 0) {
+			return fileSize * TOTAL_NANOS.get() / totalBytes;
+		}
+
+		return fileSize;
+	}
+
+	private static IPath getPath(final RefactoringUnit refactoringUnit) {
+		ICompilationUnit compilationUnit= refactoringUnit.getCompilationUnit();
+		IResource resource= compilationUnit != null ? compilationUnit.getResource() : null;
+		return resource != null ? resource.getLocation() : null;
+	}
+
+	private static long getFileSize(final IPath path) {
+		return path != null ? path.toFile().length() : 0;
+	}
+
+	private void recordDuration(final RefactoringUnit refactoringUnit, final long duration) {
+		IPath path= getPath(refactoringUnit);
+		if (path != null) {
+			PREVIOUS_DURATIONS.put(path, duration);
+			long fileSize= getFileSize(path);
+			if (fileSize > 0) {
+				TOTAL_NANOS.addAndGet(duration);
+				TOTAL_BYTES.addAndGet(fileSize);
+			}
+		}
+	}
+
+	private RefactoringUnit steal() {
+		while (true) {
+			Worker victim= null;
+			for (Worker worker : workers) {
+				if (!worker.units.isEmpty() && (victim == null || worker.remainingCost.get() > victim.remainingCost.get())) {
+					victim= worker;
+				}
+			}
+
+			if (victim == null) {
+				return null;
+			}
+
+			RefactoringUnit stolen= victim.units.pollFirst();
+			if (stolen != null) {
+				victim.remainingCost.addAndGet(-costs.get(stolen));
+				return stolen;
+			}
+		}
+	}
+
+	private int getNbRemainingUnits() {
+		int nbRemainingUnits= 0;
+		for (Worker worker : workers) {
+			nbRemainingUnits+= worker.units.size();
+		}
+
+		return nbRemainingUnits;
+	}
+
+	private void logSummary() {
+		long wallTime= System.nanoTime() - startTime;
+		int nbProcessed= 0;
+		for (Worker worker : workers) {
+			nbProcessed+= worker.nbProcessed.get();
+		}
+
+		StringBuilder sb= new StringBuilder();
+		sb.append("AutoRefactor processed ").append(nbProcessed).append(" file(s) in ") //$NON-NLS-1$ //$NON-NLS-2$
+				.append(TimeUnit.NANOSECONDS.toMillis(wallTime)).append(" ms with ").append(workers.size()).append(" worker(s):"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		for (Worker worker : workers) {
+			long busyTime= worker.busyTime.get();
+			sb.append("\n  worker ").append(worker.id).append(": ") //$NON-NLS-1$ //$NON-NLS-2$
+					.append(worker.nbProcessed.get()).append(" file(s), ") //$NON-NLS-1$
+					.append(worker.nbStolen.get()).append(" stolen, busy ") //$NON-NLS-1$
+					.append(TimeUnit.NANOSECONDS.toMillis(busyTime)).append(" ms (") //$NON-NLS-1$
+					.append(wallTime > 0 ? busyTime * 100 / wallTime : 100).append("%)"); //$NON-NLS-1$
+		}
+
+		logger.info(sb.toString());
+	}
+
+	private final class Worker {
+		private final int id;
+		private final Deque<RefactoringUnit> units= new ConcurrentLinkedDeque<>();
+		private final AtomicLong remainingCost= new AtomicLong();
+		private final AtomicLong busyTime= new AtomicLong();
+		private final AtomicInteger nbProcessed= new AtomicInteger();
+		private final AtomicInteger nbStolen= new AtomicInteger();
+		private final Queue<RefactoringUnit> queue= new WorkerQueue(this);
+
+		private Worker(final int id) {
+			this.id= id;
+		}
+	}
+
+	/** Single-consumer view of the units of one worker, falling back to stealing when it runs out of units. */
+	private final class WorkerQueue extends AbstractQueue<RefactoringUnit> {
+		private final Worker worker;
+		private List<RefactoringUnit> currentUnits= Collections.emptyList();
+		private long currentUnitsStart;
+
+		private WorkerQueue(final Worker worker) {
+			this.worker= worker;
+		}
+
+		@Override
+		public RefactoringUnit poll() {
+			List<RefactoringUnit> chunk= pollChunk(1);
+			return chunk.isEmpty() ? null : chunk.get(0);
+		}
+
+		private List<RefactoringUnit> pollChunk(final int maxSize) {
+			long now= System.nanoTime();
+			finishCurrentUnits(now - currentUnitsStart);
+
+			List<RefactoringUnit> chunk= new ArrayList<>(maxSize);
+			while (chunk.size() < maxSize) {
+				RefactoringUnit next= worker.units.pollFirst();
+				if (next != null) {
+					worker.remainingCost.addAndGet(-costs.get(next));
+				} else {
+					next= steal();
+					if (next == null) {
+						break;
+					}
+
+					worker.nbStolen.incrementAndGet();
+				}
+
+				chunk.add(next);
+			}
+
+			currentUnits= Collections.unmodifiableList(chunk);
+			currentUnitsStart= now;
+			return currentUnits;
+		}
+
+		private void finish() {
+			finishCurrentUnits(System.nanoTime() - currentUnitsStart);
+			currentUnits= Collections.emptyList();
+
+			if (nbRunningWorkers.decrementAndGet() == 0) {
+				logSummary();
+			}
+		}
+
+		private void finishCurrentUnits(final long duration) {
+			long totalCost= 0;
+			for (RefactoringUnit unit : currentUnits) {
+				totalCost+= costs.get(unit);
+			}
+
+			worker.busyTime.addAndGet(currentUnits.isEmpty() ? 0 : duration);
+			for (RefactoringUnit unit : currentUnits) {
+				long unitDuration= totalCost > 0 ? (long) ((double) duration * costs.get(unit) / totalCost)
+						: duration / currentUnits.size();
+				worker.nbProcessed.incrementAndGet();
+				recordDuration(unit, unitDuration);
+			}
+		}
+
+		@Override
+		public RefactoringUnit peek() {
+			RefactoringUnit next= worker.units.peekFirst();
+			if (next != null) {
+				return next;
+			}
+
+			for (Worker other : workers) {
+				next= other.units.peekFirst();
+				if (next != null) {
+					return next;
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Adds the provided unit after the units of this worker, so it can still be stolen by the other workers.
+		 *
+		 * @param refactoringUnit the unit to add
+		 * @return true
+		 */
+		@Override
+		public boolean offer(final RefactoringUnit refactoringUnit) {
+			long cost= estimateCost(refactoringUnit);
+			costs.put(refactoringUnit, cost);
+			worker.units.addLast(refactoringUnit);
+			worker.remainingCost.addAndGet(cost);
+			return true;
+		}
+
+		@Override
+		public int size() {
+			return getNbRemainingUnits();
+		}
+
+		@Override
+		public Iterator<RefactoringUnit> iterator() {
+			List<RefactoringUnit> remainingUnits= new ArrayList<>();
+			for (Worker other : workers) {
+				remainingUnits.addAll(other.units);
+			}
+
+			return Collections.unmodifiableList(remainingUnits).iterator();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Immutable list of nodes sorted by start position, along with their start and
+ * end positions, so the nodes located around a position are found by binary
+ * search.
+ *
+ * @param <N> the type of the nodes
+ */
+final class SortedNodes<N extends ASTNode> {
+	private final List<N> nodes;
+	private final int[] starts;
+	private final int[] ends;
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param nodeList the nodes, usually already sorted as they come from the
+	 *                 parser or from a preorder walk: the sort then only checks
+	 *                 them
+	 */
+	SortedNodes(final List<N> nodeList) {
+		List<N> sortedNodes= new ArrayList<>(nodeList);
+		Collections.sort(sortedNodes, new ASTNodes.NodeStartPositionComparator());
+		this.nodes= Collections.unmodifiableList(sortedNodes);
+		this.starts= new int[sortedNodes.size()];
+		this.ends= new int[sortedNodes.size()];
+
+		for (int i= 0; i < starts.length; i++) {
+			starts[i]= sortedNodes.get(i).getStartPosition();
+			ends[i]= SourceLocation.getEndPosition(sortedNodes.get(i));
+		}
+	}
+
+	List<N> getNodes() {
+		return nodes;
+	}
+
+	int getStart(final int index) {
+		return starts[index];
+	}
+
+	int getEnd(final int index) {
+		return ends[index];
+	}
+
+	/**
+	 * Returns the index of the first node starting after the provided position.
+	 *
+	 * @param position the position
+	 * @return the index of the first node starting after the provided position,
+	 *         or the number of nodes if there is none
+	 */
+	int indexOfFirstStartAfter(final int position) {
+		return indexOfFirstGreaterThan(starts, position);
+	}
+
+	/**
+	 * Returns the index of the first node ending after the provided position.
+	 * The end positions of the nodes must be sorted too, like for nodes that
+	 * never overlap.
+	 *
+	 * @param position the position
+	 * @return the index of the first node ending after the provided position, or
+	 *         the number of nodes if there is none
+	 */
+	int indexOfFirstEndAfter(final int position) {
+		return indexOfFirstGreaterThan(ends, position);
+	}
+
+	/**
+	 * Returns the index of the first position greater than the provided one.
+	 *
+	 * @param sortedPositions the positions, in ascending order
+	 * @param position        the position
+	 * @return the index of the first position greater than the provided one, or
+	 *         the number of positions if there is none
+	 */
+	static int indexOfFirstGreaterThan(final int[] sortedPositions, final int position) {
+		int low= 0;
+		int high= sortedPositions.length;
+
+		while (low < high) {
+			int middle= (low + high) >>> 1;
+
+			if (sortedPositions[middle] <= position) {
+				low= middle + 1;
+			} else {
+				high= middle;
+			}
+		}
+
+		return low;
+	}
+}
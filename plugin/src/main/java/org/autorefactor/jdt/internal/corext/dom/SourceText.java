@@ -0,0 +1,202 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.Arrays;
+
+import org.autorefactor.util.UnhandledException;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Immutable snapshot of the text of a compilation unit with its line starts.
+ * <p>
+ * The text is read once per parse and shared by all the cleanups, so they do
+ * not copy the buffer of the compilation unit or compute their own line index.
+ * Lines are separated by {@code \r\n}, {@code \n} or {@code \r}.
+ */
+public final class SourceText {
+	private final String text;
+	private final int[] lineStarts;
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param text the source text
+	 */
+	public SourceText(final String text) {
+		this.text= text;
+		this.lineStarts= computeLineStarts(text);
+	}
+
+	/**
+	 * Returns the source of the compilation unit containing the provided node.
+	 *
+	 * @param node a node of the AST
+	 * @return the source of the compilation unit containing the provided node, or
+	 *         null if the node is not attached to a compilation unit or if the
+	 *         compilation unit has no source
+	 */
+	public static SourceText of(final ASTNode node) {
+		return CompilationUnitCache.get(node, SourceText.class, new CompilationUnitCache.Builder<SourceText>() {
+			@Override
+			public SourceText build(final CompilationUnit astRoot) {
+				ITypeRoot typeRoot= astRoot.getTypeRoot();
+
+				if (typeRoot == null) {
+					return null;
+				}
+
+				try {
+					String source= typeRoot.getSource();
+					return source != null ? new SourceText(source) : null;
+				} catch (JavaModelException e) {
+					throw new UnhandledException(astRoot, e);
+				}
+			}
+		});
+	}
+
+	private static int[] computeLineStarts(final String text) {
+		int[] result= new int[16];
+		int nbLines= 1;
+		int length= text.length();
+
+		for (int i= 0; i < length; i++) {
+			char c= text.charAt(i);
+
+			if (c == '\r' || c == '\n') {
+				if (c == '\r' && i + 1 < length && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+
+				if (nbLines == result.length) {
+					result= Arrays.copyOf(result, nbLines * 2);
+				}
+
+				result[nbLines++]= i + 1;
+			}
+		}
+
+		return Arrays.copyOf(result, nbLines);
+	}
+
+	/**
+	 * Returns the source text.
+	 *
+	 * @return the source text
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Returns the number of lines. A text ending with a line separator ends with
+	 * an empty line.
+	 *
+	 * @return the number of lines
+	 */
+	public int getNbLines() {
+		return lineStarts.length;
+	}
+
+	/**
+	 * Returns the zero-based index of the line containing the provided position.
+	 *
+	 * @param position the position in the source text
+	 * @return the zero-based index of the line containing the provided position
+	 */
+	public int getLineIndex(final int position) {
+		int index= Arrays.binarySearch(lineStarts, Math.max(position, 0));
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Returns the one-based number of the line containing the provided position,
+	 * like {@link org.eclipse.jdt.core.dom.CompilationUnit#getLineNumber(int)}.
+	 *
+	 * @param position the position in the source text
+	 * @return the one-based number of the line containing the provided position
+	 */
+	public int getLineNumber(final int position) {
+		return getLineIndex(position) + 1;
+	}
+
+	/**
+	 * Returns the zero-based column of the provided position, tabs counting for
+	 * one character.
+	 *
+	 * @param position the position in the source text
+	 * @return the zero-based column of the provided position
+	 */
+	public int getColumn(final int position) {
+		return position - getLineStart(position);
+	}
+
+	/**
+	 * Returns the start position of the line containing the provided position.
+	 *
+	 * @param position the position in the source text
+	 * @return the start position of the line containing the provided position
+	 */
+	public int getLineStart(final int position) {
+		return lineStarts[getLineIndex(position)];
+	}
+
+	/**
+	 * Returns the start position of the line following the line containing the
+	 * provided position, that is the position just after its line separator.
+	 *
+	 * @param position the position in the source text
+	 * @return the start position of the next line, or -1 if the provided position
+	 *         is on the last line
+	 */
+	public int getNextLineStart(final int position) {
+		int nextIndex= getLineIndex(position) + 1;
+		return nextIndex < lineStarts.length ? lineStarts[nextIndex] : -1;
+	}
+
+	/**
+	 * Returns the location of the whitespaces at the start of the line containing
+	 * the provided position.
+	 *
+	 * @param position the position in the source text
+	 * @return the location of the indentation of the line containing the provided
+	 *         position
+	 */
+	public SourceLocation getIndentation(final int position) {
+		int lineStart= getLineStart(position);
+		int end= lineStart;
+
+		while (end < text.length() && (text.charAt(end) == ' ' || text.charAt(end) == '\t')) {
+			end++;
+		}
+
+		return SourceLocation.fromPositions(lineStart, end);
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Memoizes the type hierarchy queries of {@link ASTNodes} while the cleanups
+ * visit a compilation unit.
+ * <p>
+ * The supertypes of a type are resolved once and indexed by their erased
+ * qualified name, so finding an implemented type becomes a lookup. The results
+ * of {@link ASTNodes#usesGivenSignature(IMethodBinding, String, String, String...)}
+ * are remembered per method binding key and expected signature.
+ * <p>
+ * The bindings belong to the AST they have been resolved from, so a cache only
+ * lives while this AST is visited: {@link #open()} installs a new cache for the
+ * current thread and {@link #close(TypeHierarchyCache)} restores the previous
+ * one. Without any installed cache, {@link ASTNodes} walks the type hierarchy
+ * as before.
+ */
+public final class TypeHierarchyCache {
+	private static final ThreadLocal<TypeHierarchyCache> CURRENT= new ThreadLocal<>();
+
+	private final Map<String, Map<String, ITypeBinding>> supertypesByTypeKey= new HashMap<>();
+	private final Map<String, Boolean> signatureMatchesByKey= new HashMap<>();
+
+	private TypeHierarchyCache() {
+	}
+
+	/**
+	 * Installs a new cache for the current thread.
+	 *
+	 * @return the cache previously installed for the current thread, to give
+	 *         back to {@link #close(TypeHierarchyCache)}
+	 */
+	public static TypeHierarchyCache open() {
+		TypeHierarchyCache previous= CURRENT.get();
+		CURRENT.set(new TypeHierarchyCache());
+		return previous;
+	}
+
+	/**
+	 * Discards the cache of the current thread and restores the previous one.
+	 *
+	 * @param previous the cache returned by {@link #open()}
+	 */
+	public static void close(final TypeHierarchyCache previous) {
+		if (previous != null) {
+			CURRENT.set(previous);
+		} else {
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * Returns the cache installed for the current thread.
+	 *
+	 * @return the cache installed for the current thread, or {@code null} if
+	 *         there is none
+	 */
+	static TypeHierarchyCache getCurrent() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Returns all the supertypes of the provided type, indexed by their erased
+	 * qualified name. When several supertypes have the same erasure, the first
+	 * one found by a depth-first walk, superclass first, is kept.
+	 *
+	 * @param typeBinding the type binding
+	 * @return all the supertypes of the provided type, or {@code null} if the
+	 *         type cannot be cached
+	 */
+	Map<String, ITypeBinding> getSupertypes(final ITypeBinding typeBinding) {
+		String key= typeBinding.isCapture() ? null : typeBinding.getKey();
+
+		if (key == null) {
+			return null;
+		}
+
+		Map<String, ITypeBinding> supertypes= supertypesByTypeKey.get(key);
+
+		if (supertypes == null) {
+			supertypes= new HashMap<>();
+			addSupertype(supertypes, typeBinding.getSuperclass());
+
+			for (ITypeBinding itfBinding : typeBinding.getInterfaces()) {
+				addSupertype(supertypes, itfBinding);
+			}
+
+			supertypesByTypeKey.put(key, supertypes);
+		}
+
+		return supertypes;
+	}
+
+	private void addSupertype(final Map<String, ITypeBinding> supertypes, final ITypeBinding supertype) {
+		if (supertype == null) {
+			return;
+		}
+
+		supertypes.putIfAbsent(supertype.getErasure().getQualifiedName(), supertype);
+		Map<String, ITypeBinding> superSupertypes= getSupertypes(supertype);
+
+		if (superSupertypes != null) {
+			for (Map.Entry<String, ITypeBinding> superSupertype : superSupertypes.entrySet()) {
+				supertypes.putIfAbsent(superSupertype.getKey(), superSupertype.getValue());
+			}
+		} else {
+			addSupertype(supertypes, supertype.getSuperclass());
+
+			for (ITypeBinding itfBinding : supertype.getInterfaces()) {
+				addSupertype(supertypes, itfBinding);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the provided method binding has the provided method
+	 * signature, computing it only once per method binding key and signature.
+	 *
+	 * @param methodBinding                the method binding
+	 * @param typeQualifiedName            the expected qualified name of the type
+	 *                                     declaring the method
+	 * @param methodName                   the expected method name
+	 * @param parameterTypesQualifiedNames the expected qualified names of the
+	 *                                     parameter types
+	 * @return true if the provided method binding matches the provided method
+	 *         signature, false otherwise
+	 */
+	boolean usesGivenSignature(final IMethodBinding methodBinding, final String typeQualifiedName, final String methodName,
+			final String... parameterTypesQualifiedNames) {
+		String methodKey= methodBinding.getKey();
+
+		if (methodKey == null) {
+			return ASTNodes.hasGivenSignature(methodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+		}
+
+		StringBuilder sb= new StringBuilder(methodKey).append(' ').append(typeQualifiedName).append(' ').append(methodName);
+
+		for (String parameterTypeQualifiedName : parameterTypesQualifiedNames) {
+			sb.append(' ').append(parameterTypeQualifiedName);
+		}
+
+		String key= sb.toString();
+		Boolean matches= signatureMatchesByKey.get(key);
+
+		if (matches == null) {
+			matches= ASTNodes.hasGivenSignature(methodBinding, typeQualifiedName, methodName, parameterTypesQualifiedNames);
+			signatureMatchesByKey.put(key, matches);
+		}
+
+		return matches;
+	}
+}
@@ -37,6 +37,9 @@ import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 /**
  * Visitor collecting all definitions of any variable.
+ * <p>
+ * {@link #find()} looks them up in the {@link VariableUseIndex} of the AST
+ * instead of visiting the start node when it belongs to a compilation unit.
  */
 public class VarDeclarationIdentifierVisitor extends ASTVisitor {
 	private final Set<SimpleName> variableNames= new HashSet<>();
@@ -54,6 +57,23 @@ public class VarDeclarationIdentifierVisitor extends ASTVisitor {
 		this.includeInnerScopes= includeInnerScopes;
 	}
 
+	/**
+	 * Finds all the definitions of any variable.
+	 *
+	 * @return this visitor
+	 */
+	public VarDeclarationIdentifierVisitor find() {
+		VariableUseIndex index= VariableUseIndex.of(startNode);
+
+		if (index != null) {
+			variableNames.addAll(index.getDeclarationNames(startNode, includeInnerScopes));
+		} else {
+			startNode.accept(this);
+		}
+
+		return this;
+	}
+
 	/**
 	 * Get the variable names.
 	 *
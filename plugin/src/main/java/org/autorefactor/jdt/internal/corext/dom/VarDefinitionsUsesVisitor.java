@@ -39,7 +39,12 @@ import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
-/** Visitor collecting all definitions and uses of a local variable. */
+/**
+ * Visitor collecting all definitions and uses of a local variable.
+ * <p>
+ * {@link #find()} looks them up in the {@link VariableUseIndex} of the AST
+ * instead of visiting the scope when the scope belongs to a compilation unit.
+ */
 public final class VarDefinitionsUsesVisitor extends ASTVisitor {
 	private final IVariableBinding variableBinding;
 	private final ASTNode scopeNode;
@@ -100,7 +105,14 @@ public final class VarDefinitionsUsesVisitor extends ASTVisitor {
 	 */
 	public VarDefinitionsUsesVisitor find() {
 		if (variableBinding != null && scopeNode != null) {
-			scopeNode.accept(this);
+			VariableUseIndex index= VariableUseIndex.of(scopeNode);
+
+			if (index != null) {
+				writes.addAll(index.getWrites(variableBinding, scopeNode, includeInnerScopes));
+				reads.addAll(index.getReads(variableBinding, scopeNode, includeInnerScopes));
+			} else {
+				scopeNode.accept(this);
+			}
 		}
 
 		return this;
@@ -34,6 +34,10 @@ import org.eclipse.jdt.core.dom.SimpleName;
 
 /**
  * The variable occurrence visitor.
+ * <p>
+ * {@link #visitNode(ASTNode)} looks the identifiers up in the
+ * {@link VariableUseIndex} of the AST instead of visiting the node when the
+ * node belongs to a compilation unit.
  */
 public class VarOccurrenceVisitor extends InterruptibleVisitor {
 	private final Set<SimpleName> localVarIds;
@@ -64,7 +68,19 @@ public class VarOccurrenceVisitor extends InterruptibleVisitor {
 	@Override
 	public void visitNode(final ASTNode startNode) {
 		this.startNode= startNode;
-		super.visitNode(this.startNode);
+		VariableUseIndex index= VariableUseIndex.of(startNode);
+
+		if (index == null) {
+			super.visitNode(this.startNode);
+			return;
+		}
+
+		for (SimpleName localVarId : localVarIds) {
+			if (index.hasName(localVarId.getIdentifier(), startNode, includeInnerScopes)) {
+				varUsed= true;
+				return;
+			}
+		}
 	}
 
 	@Override
@@ -0,0 +1,311 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.corext.dom;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * Immutable index of the simple names of a compilation unit, built in a single
+ * walk of the AST.
+ * <p>
+ * The reads and the writes of the local variables are indexed by variable
+ * binding, the names by identifier and the declared variable names all
+ * together, each one sorted by position along with its innermost enclosing
+ * block. Finding the occurrences located in a scope is then a binary search
+ * followed by a scan of the matching occurrences only, instead of a walk of the
+ * whole scope.
+ * <p>
+ * {@link VarDefinitionsUsesVisitor}, {@link VarOccurrenceVisitor} and
+ * {@link VarDeclarationIdentifierVisitor} query it.
+ */
+public final class VariableUseIndex {
+	/** Occurrences of names sorted by position. */
+	private static final class Occurrences {
+		private final SimpleName[] names;
+		private final int[] starts;
+		/** The innermost block enclosing each name, or null. */
+		private final Block[] blocks;
+
+		private Occurrences(final List<SimpleName> nameList, final List<Block> blockList) {
+			// The AST is walked in preorder: the names are almost always sorted by position
+			Integer[] order= new Integer[nameList.size()];
+
+			for (int i= 0; i < order.length; i++) {
+				order[i]= i;
+			}
+
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(final Integer o1, final Integer o2) {
+					return Integer.compare(nameList.get(o1).getStartPosition(), nameList.get(o2).getStartPosition());
+				}
+			});
+
+			this.names= new SimpleName[order.length];
+			this.blocks= new Block[order.length];
+			this.starts= new int[order.length];
+
+			for (int i= 0; i < order.length; i++) {
+				names[i]= nameList.get(order[i]);
+				blocks[i]= blockList.get(order[i]);
+				starts[i]= names[i].getStartPosition();
+			}
+		}
+	}
+
+	/** The names and blocks of the occurrences being collected. */
+	private static final class OccurrenceLists {
+		private final List<SimpleName> names= new ArrayList<>();
+		private final List<Block> blocks= new ArrayList<>();
+
+		private void add(final SimpleName name, final Block block) {
+			names.add(name);
+			blocks.add(block);
+		}
+
+		private Occurrences toOccurrences() {
+			return new Occurrences(names, blocks);
+		}
+	}
+
+	private final Map<IBinding, Occurrences> readsByVariable= new HashMap<>();
+	private final Map<IBinding, Occurrences> writesByVariable= new HashMap<>();
+	private final Map<String, Occurrences> namesByIdentifier= new HashMap<>();
+	private final Occurrences declarationNames;
+
+	private VariableUseIndex(final CompilationUnit astRoot) {
+		final Map<IBinding, OccurrenceLists> reads= new HashMap<>();
+		final Map<IBinding, OccurrenceLists> writes= new HashMap<>();
+		final Map<String, OccurrenceLists> names= new HashMap<>();
+		final OccurrenceLists declarations= new OccurrenceLists();
+		final Deque<Block> enclosingBlocks= new ArrayDeque<>();
+
+		astRoot.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(final Block node) {
+				enclosingBlocks.push(node);
+				return true;
+			}
+
+			@Override
+			public void endVisit(final Block node) {
+				enclosingBlocks.pop();
+			}
+
+			@Override
+			public boolean visit(final SimpleName node) {
+				Block block= enclosingBlocks.peek();
+				getOrCreate(names, node.getIdentifier()).add(node, block);
+
+				if (isDeclarationName(node)) {
+					declarations.add(node, block);
+				}
+
+				IBinding binding= node.resolveBinding();
+
+				if (ASTNodes.isLocalVariable(binding)) {
+					getOrCreate(isWrite(node) ? writes : reads, binding).add(node, block);
+				}
+
+				return true;
+			}
+		});
+
+		toOccurrences(reads, readsByVariable);
+		toOccurrences(writes, writesByVariable);
+		toOccurrences(names, namesByIdentifier);
+		this.declarationNames= declarations.toOccurrences();
+	}
+
+	private static <K> OccurrenceLists getOrCreate(final Map<K, OccurrenceLists> map, final K key) {
+		OccurrenceLists occurrenceLists= map.get(key);
+
+		if (occurrenceLists == null) {
+			occurrenceLists= new OccurrenceLists();
+			map.put(key, occurrenceLists);
+		}
+
+		return occurrenceLists;
+	}
+
+	private static <K> void toOccurrences(final Map<K, OccurrenceLists> lists, final Map<K, Occurrences> occurrences) {
+		for (Map.Entry<K, OccurrenceLists> entry : lists.entrySet()) {
+			occurrences.put(entry.getKey(), entry.getValue().toOccurrences());
+		}
+	}
+
+	private static boolean isDeclarationName(final SimpleName node) {
+		return node.getLocationInParent() == SingleVariableDeclaration.NAME_PROPERTY
+				|| node.getLocationInParent() == VariableDeclarationFragment.NAME_PROPERTY;
+	}
+
+	private static boolean isWrite(final SimpleName node) {
+		return isDeclarationName(node) || node.getLocationInParent() == Assignment.LEFT_HAND_SIDE_PROPERTY;
+	}
+
+	/**
+	 * Returns the index of the compilation unit containing the provided node.
+	 *
+	 * @param node a node of the AST
+	 * @return the index of the compilation unit containing the provided node, or
+	 *         null if the node is not attached to a compilation unit
+	 */
+	public static VariableUseIndex of(final ASTNode node) {
+		return CompilationUnitCache.get(node, VariableUseIndex.class, new CompilationUnitCache.Builder<VariableUseIndex>() {
+			@Override
+			public VariableUseIndex build(final CompilationUnit astRoot) {
+				return new VariableUseIndex(astRoot);
+			}
+		});
+	}
+
+	/**
+	 * Returns the reads of a local variable located in the provided scope.
+	 *
+	 * @param variable           the binding of the local variable
+	 * @param scope              the node where to look for
+	 * @param includeInnerScopes true if the blocks nested in the scope must be
+	 *                           searched too
+	 * @return the names reading the local variable, sorted by position
+	 */
+	public List<SimpleName> getReads(final IBinding variable, final ASTNode scope, final boolean includeInnerScopes) {
+		return getNames(readsByVariable.get(variable), scope, includeInnerScopes);
+	}
+
+	/**
+	 * Returns the writes, declarations included, of a local variable located in
+	 * the provided scope.
+	 *
+	 * @param variable           the binding of the local variable
+	 * @param scope              the node where to look for
+	 * @param includeInnerScopes true if the blocks nested in the scope must be
+	 *                           searched too
+	 * @return the names declaring or assigning the local variable, sorted by
+	 *         position
+	 */
+	public List<SimpleName> getWrites(final IBinding variable, final ASTNode scope, final boolean includeInnerScopes) {
+		return getNames(writesByVariable.get(variable), scope, includeInnerScopes);
+	}
+
+	/**
+	 * Returns the names of the variables declared in the provided scope.
+	 *
+	 * @param scope              the node where to look for
+	 * @param includeInnerScopes true if the blocks nested in the scope must be
+	 *                           searched too
+	 * @return the declared names, sorted by position
+	 */
+	public List<SimpleName> getDeclarationNames(final ASTNode scope, final boolean includeInnerScopes) {
+		return getNames(declarationNames, scope, includeInnerScopes);
+	}
+
+	/**
+	 * Returns whether a simple name with the provided identifier, whatever it
+	 * names, is located in the provided scope.
+	 *
+	 * @param identifier         the identifier
+	 * @param scope              the node where to look for
+	 * @param includeInnerScopes true if the blocks nested in the scope must be
+	 *                           searched too
+	 * @return true if the identifier is used in the scope, false otherwise
+	 */
+	public boolean hasName(final String identifier, final ASTNode scope, final boolean includeInnerScopes) {
+		Occurrences occurrences= namesByIdentifier.get(identifier);
+
+		if (occurrences != null) {
+			int end= SourceLocation.getEndPosition(scope);
+
+			for (int i= SortedNodes.indexOfFirstGreaterThan(occurrences.starts, scope.getStartPosition() - 1); i < occurrences.names.length
+					&& occurrences.starts[i] < end; i++) {
+				if (isInScope(occurrences, i, scope, includeInnerScopes)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static List<SimpleName> getNames(final Occurrences occurrences, final ASTNode scope, final boolean includeInnerScopes) {
+		if (occurrences == null) {
+			return Collections.emptyList();
+		}
+
+		int end= SourceLocation.getEndPosition(scope);
+		List<SimpleName> names= new ArrayList<>();
+
+		for (int i= SortedNodes.indexOfFirstGreaterThan(occurrences.starts, scope.getStartPosition() - 1); i < occurrences.names.length
+				&& occurrences.starts[i] < end; i++) {
+			if (isInScope(occurrences, i, scope, includeInnerScopes)) {
+				names.add(occurrences.names[i]);
+			}
+		}
+
+		return names;
+	}
+
+	/**
+	 * Mimics the visitors, which do not visit the blocks nested in the scope when
+	 * the inner scopes are excluded.
+	 */
+	private static boolean isInScope(final Occurrences occurrences, final int i, final ASTNode scope,
+			final boolean includeInnerScopes) {
+		if (includeInnerScopes) {
+			return true;
+		}
+
+		Block block= occurrences.blocks[i];
+		return block == null || block == scope || !isAncestor(scope, block);
+	}
+
+	private static boolean isAncestor(final ASTNode ancestor, final ASTNode node) {
+		for (ASTNode parent= node.getParent(); parent != null; parent= parent.getParent()) {
+			if (parent == ancestor) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -25,24 +25,71 @@
  */
 package org.autorefactor.jdt.internal.corext.refactoring.structure;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.autorefactor.cfg.CFGBuilder;
+import org.autorefactor.cfg.MethodDataFlow;
 import org.autorefactor.environment.Environment;
 import org.autorefactor.environment.Logger;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.ClassSubstituteAnalysis;
+import org.autorefactor.jdt.internal.corext.dom.CommentIndex;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitCache;
+import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.autorefactor.jdt.internal.corext.dom.JavaProjectOptions;
-import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
-import org.autorefactor.util.UnhandledException;
+import org.autorefactor.jdt.internal.corext.dom.NodeTypeIndex;
+import org.autorefactor.jdt.internal.corext.dom.SourceText;
+import org.autorefactor.jdt.internal.corext.dom.VariableUseIndex;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.Comment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.QualifiedName;
 
 /** Class holding necessary data for a refactoring. */
 public class CompilationUnitRewrite {
+	private static final String LOMBOK= "lombok"; //$NON-NLS-1$
+
+	/** Number of Lombok scans done since startup, at most one per parse. */
+	private static final AtomicLong NB_LOMBOK_SCANS= new AtomicLong();
+
+	/** Whether a compilation unit uses Lombok, kept with its AST. */
+	private static final class LombokUsage {
+		private final boolean useLombok;
+
+		private LombokUsage(final boolean useLombok) {
+			this.useLombok= useLombok;
+		}
+	}
+
+	private static final class LombokVisitor extends InterruptibleVisitor {
+		private boolean useLombok;
+
+		@Override
+		public boolean visit(final QualifiedName node) {
+			if (node.getFullyQualifiedName().contains(LOMBOK)) {
+				useLombok= true;
+				return interruptVisit();
+			}
+
+			return true;
+		}
+
+		/**
+		 * @return the useLombok
+		 */
+		public boolean isUseLombok() {
+			return useLombok;
+		}
+	}
+
 	private final ICompilationUnit compilationUnit;
 	private final CompilationUnit astRoot;
 	private final ASTRewrite refactorings;
@@ -50,6 +97,9 @@ public class CompilationUnitRewrite {
 	private final JavaProjectOptions options;
 	private final SubMonitor monitor;
 	private final Environment environment;
+	private Boolean useLombok;
+	private CFGBuilder cfgBuilder;
+	private final Map<MethodDeclaration, MethodDataFlow> methodDataFlows= new HashMap<>();
 
 	/**
 	 * Builds an instance of this class.
@@ -98,6 +148,15 @@ public class CompilationUnitRewrite {
 		return compilationUnit;
 	}
 
+	/**
+	 * Returns the compilation unit, root of the AST.
+	 *
+	 * @return the compilation unit, root of the AST
+	 */
+	public CompilationUnit getRoot() {
+		return astRoot;
+	}
+
 	/**
 	 * Returns the Java project options used to compile the project.
 	 *
@@ -134,11 +193,20 @@ public class CompilationUnitRewrite {
 	 * @return The source
 	 */
 	public String getSource(final ASTNode node) {
-		try {
-			return compilationUnit.getSource();
-		} catch (JavaModelException e) {
-			throw new UnhandledException(node, e);
-		}
+		return getSourceText(node).getText();
+	}
+
+	/**
+	 * Returns the snapshot of the source with its line index, shared by all the
+	 * cleanups visiting the current AST.
+	 * <p>
+	 * The source is read only once, at the first call.
+	 *
+	 * @param node The node
+	 * @return the snapshot of the source
+	 */
+	public SourceText getSourceText(final ASTNode node) {
+		return SourceText.of(astRoot);
 	}
 
 	/**
@@ -148,20 +216,146 @@ public class CompilationUnitRewrite {
 	 * @return True if it is in comment
 	 */
 	public boolean isInComment(final int position) {
-		for (Comment comment : ASTNodes.getCommentList(astRoot)) {
-			if (comment.getStartPosition() <= position && position <= SourceLocation.getEndPosition(comment)) {
+		return getCommentIndex().isInComment(position);
+	}
+
+	/**
+	 * Returns the index of the comments of the current AST, shared by all the
+	 * cleanups visiting it.
+	 * <p>
+	 * The index is built only once, at the first call.
+	 *
+	 * @return the index of the comments of the current AST
+	 */
+	public CommentIndex getCommentIndex() {
+		return CommentIndex.of(astRoot);
+	}
+
+	/**
+	 * Returns the index of the nodes of the current AST by node class, shared by
+	 * all the cleanups visiting it.
+	 * <p>
+	 * The index is built only once, at the first call.
+	 *
+	 * @return the index of the nodes of the current AST by node class
+	 */
+	public NodeTypeIndex getNodeTypeIndex() {
+		return NodeTypeIndex.of(astRoot);
+	}
+
+	/**
+	 * Returns the index of the reads, writes and declarations of the variables of
+	 * the current AST, shared by all the cleanups visiting it.
+	 * <p>
+	 * The index is built only once, at the first call.
+	 *
+	 * @return the index of the variable occurrences of the current AST
+	 */
+	public VariableUseIndex getVariableUseIndex() {
+		return VariableUseIndex.of(astRoot);
+	}
+
+	/**
+	 * Returns the analysis of the blocks shared by the cleanups substituting a
+	 * class for another one while they visit the current AST.
+	 * <p>
+	 * The analysis is created only once, at the first call.
+	 *
+	 * @return the analysis of the blocks shared by the cleanups substituting a
+	 *         class for another one
+	 */
+	public ClassSubstituteAnalysis getClassSubstituteAnalysis() {
+		return CompilationUnitCache.get(astRoot, ClassSubstituteAnalysis.class,
+				new CompilationUnitCache.Builder<ClassSubstituteAnalysis>() {
+					@Override
+					public ClassSubstituteAnalysis build(final CompilationUnit root) {
+						return new ClassSubstituteAnalysis(NodeTypeIndex.of(root));
+					}
+				});
+	}
+
+	/**
+	 * Returns the reaching definitions and the liveness of the local variables of
+	 * the provided method, shared by all the cleanups visiting the current AST.
+	 * <p>
+	 * The data flow of a method is computed only once, at the first call for this
+	 * method. It describes the AST as parsed: the pending cleanups are ignored.
+	 *
+	 * @param method the method declaration of the current AST
+	 * @return the data flow of the method, or null if the method cannot be
+	 *         analyzed
+	 */
+	public MethodDataFlow getMethodDataFlow(final MethodDeclaration method) {
+		if (methodDataFlows.containsKey(method)) {
+			return methodDataFlows.get(method);
+		}
+
+		if (cfgBuilder == null) {
+			cfgBuilder= new CFGBuilder(getSourceText(method), options);
+		}
+
+		MethodDataFlow methodDataFlow= MethodDataFlow.analyze(cfgBuilder, method);
+
+		if (methodDataFlow == null) {
+			// The builder may have kept the state of the failed build
+			cfgBuilder= null;
+		}
+
+		methodDataFlows.put(method, methodDataFlow);
+		return methodDataFlow;
+	}
+
+	/**
+	 * Returns whether the compilation unit uses Lombok. Cleanups must not be
+	 * applied to such compilation units because Lombok changes the meaning of the
+	 * code.
+	 * <p>
+	 * The compilation unit is scanned only once per parse, even when several
+	 * passes visit the same AST.
+	 *
+	 * @return true if the compilation unit uses Lombok, false otherwise
+	 */
+	public boolean isUseLombok() {
+		if (useLombok == null) {
+			useLombok= CompilationUnitCache.get(astRoot, LombokUsage.class, new CompilationUnitCache.Builder<LombokUsage>() {
+				@Override
+				public LombokUsage build(final CompilationUnit root) {
+					NB_LOMBOK_SCANS.incrementAndGet();
+					return new LombokUsage(hasLombokImport(root) || hasLombokQualifiedName(root));
+				}
+			}).useLombok;
+		}
+
+		return useLombok;
+	}
+
+	private static boolean hasLombokImport(final CompilationUnit root) {
+		for (ImportDeclaration importDeclaration : ASTNodes.imports(root)) {
+			if (importDeclaration.getName().getFullyQualifiedName().contains(LOMBOK)) {
 				return true;
 			}
-			if (position < comment.getStartPosition()) {
-				// Since comment list is "arranged in order of increasing source position"
-				// it is impossible for this position to be surrounded by a comment
-				return false;
-			}
 		}
 
 		return false;
 	}
 
+	private static boolean hasLombokQualifiedName(final CompilationUnit root) {
+		// Fully qualified annotations and types like @lombok.Getter or lombok.val
+		LombokVisitor lombokVisitor= new LombokVisitor();
+		lombokVisitor.visitNode(root);
+		return lombokVisitor.isUseLombok();
+	}
+
+	/**
+	 * Returns the number of Lombok scans done since startup. There should be at
+	 * most one scan per parsed compilation unit.
+	 *
+	 * @return the number of Lombok scans done since startup
+	 */
+	public static long getNbLombokScans() {
+		return NB_LOMBOK_SCANS.get();
+	}
+
 	/**
 	 * Returns the logger.
 	 *
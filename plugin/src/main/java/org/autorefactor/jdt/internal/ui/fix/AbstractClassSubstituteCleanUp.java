@@ -35,12 +35,9 @@ import java.util.Set;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
-import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
+import org.autorefactor.jdt.internal.corext.dom.ClassSubstituteAnalysis.VarOccurrences;
 import org.autorefactor.jdt.internal.corext.dom.TypeNameDecider;
-import org.autorefactor.jdt.internal.corext.dom.VarDefinitionsUsesVisitor;
 import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.ASTVisitor;
-import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.Expression;
@@ -48,7 +45,6 @@ import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.ParameterizedType;
 import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.VariableDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
@@ -238,10 +234,11 @@ public abstract class AbstractClassSubstituteCleanUp extends NewClassImportClean
 	 */
 	protected boolean maybeRefactorBlock(final Block node, final Set<String> classesToUseWithImport,
 			final Set<String> importsToAdd) {
-		ObjectInstantiationVisitor classCreationVisitor= new ObjectInstantiationVisitor(node);
-		node.accept(classCreationVisitor);
+		for (ClassInstanceCreation instanceCreation : cuRewrite.getClassSubstituteAnalysis().getInstantiations(node)) {
+			if (!ASTNodes.hasType(getTypeBinding(instanceCreation), getExistingClassCanonicalName())) {
+				continue;
+			}
 
-		for (ClassInstanceCreation instanceCreation : classCreationVisitor.getObjectInstantiations()) {
 			List<VariableDeclaration> varDecls= new ArrayList<>();
 			List<MethodInvocation> methodCallsToRefactor= new ArrayList<>();
 
@@ -255,6 +252,14 @@ public abstract class AbstractClassSubstituteCleanUp extends NewClassImportClean
 		return true;
 	}
 
+	private static ITypeBinding getTypeBinding(final ClassInstanceCreation instanceCreation) {
+		if (instanceCreation.getType() != null) {
+			return instanceCreation.getType().resolveBinding();
+		}
+
+		return instanceCreation.resolveTypeBinding();
+	}
+
 	private boolean canBeRefactored(final Block node, final ASTNode itemToRefactor, final ITypeBinding itemTypeBinding,
 			final List<VariableDeclaration> varDecls, final List<MethodInvocation> methodCallsToRefactor) {
 		return canInstantiationBeRefactored(itemToRefactor, itemTypeBinding, varDecls, methodCallsToRefactor)
@@ -273,20 +278,13 @@ public abstract class AbstractClassSubstituteCleanUp extends NewClassImportClean
 	private boolean canVarOccurrenceBeRefactored0(final Block node, final List<VariableDeclaration> varDecls,
 			final List<MethodInvocation> methodCallsToRefactor, final List<VariableDeclaration> otherVarDecls) {
 		for (VariableDeclaration varDecl : varDecls) {
-			VarOccurrenceVisitor varOccurrenceVisitor= new VarOccurrenceVisitor(varDecl);
-
-			Statement parent= ASTNodes.getAncestorOrNull(varDecl, Statement.class);
-			Statement nextSibling= ASTNodes.getNextSibling(parent);
-			while (nextSibling != null) {
-				varOccurrenceVisitor.visitNode(nextSibling);
-				nextSibling= ASTNodes.getNextSibling(nextSibling);
-			}
+			VarOccurrences varOccurrences= cuRewrite.getClassSubstituteAnalysis().getVarOccurrences(varDecl);
 
-			if (varOccurrenceVisitor.isUsedInAnnonymousClass()) {
+			if (!canBeSharedInOtherThread() && varOccurrences.isReadInAnonymousClass()) {
 				return false;
 			}
 
-			for (SimpleName varOccurrence : varOccurrenceVisitor.getVarOccurrences()) {
+			for (SimpleName varOccurrence : varOccurrences.getOccurrences()) {
 				List<VariableDeclaration> subVarDecls= new ArrayList<>();
 				if (!canBeRefactored(node, varOccurrence, varOccurrence.resolveTypeBinding(), subVarDecls,
 						methodCallsToRefactor)) {
@@ -393,91 +391,4 @@ public abstract class AbstractClassSubstituteCleanUp extends NewClassImportClean
 
 		return Object.class.getCanonicalName();
 	}
-
-	private final class ObjectInstantiationVisitor extends ASTVisitor {
-		private final List<ClassInstanceCreation> objectInstantiations= new ArrayList<>();
-
-		private final Block startNode;
-
-		/**
-		 * Constructor.
-		 *
-		 * @param startNode The start node block
-		 */
-		public ObjectInstantiationVisitor(final Block startNode) {
-			this.startNode= startNode;
-		}
-
-		public List<ClassInstanceCreation> getObjectInstantiations() {
-			return objectInstantiations;
-		}
-
-		@Override
-		public boolean visit(final Block node) {
-			return startNode == node;
-		}
-
-		@Override
-		public boolean visit(final AnonymousClassDeclaration node) {
-			return false;
-		}
-
-		@Override
-		public boolean visit(final ClassInstanceCreation instanceCreation) {
-			ITypeBinding typeBinding;
-			if (instanceCreation.getType() != null) {
-				typeBinding= instanceCreation.getType().resolveBinding();
-			} else {
-				typeBinding= instanceCreation.resolveTypeBinding();
-			}
-
-			if (ASTNodes.hasType(typeBinding, getExistingClassCanonicalName())) {
-				objectInstantiations.add(instanceCreation);
-			}
-
-			return true;
-		}
-	}
-
-	private class VarOccurrenceVisitor extends InterruptibleVisitor {
-		private final VariableDeclaration varDecl;
-		private final List<SimpleName> varOccurrences= new ArrayList<>();
-		private boolean isUsedInAnnonymousClass;
-
-		public VarOccurrenceVisitor(final VariableDeclaration variable) {
-			varDecl= variable;
-		}
-
-		public List<SimpleName> getVarOccurrences() {
-			return varOccurrences;
-		}
-
-		public boolean isUsedInAnnonymousClass() {
-			return isUsedInAnnonymousClass;
-		}
-
-		@Override
-		public boolean visit(final SimpleName aVariable) {
-			SimpleName varDeclName= varDecl.getName();
-			if (ASTNodes.isSameVariable(aVariable, varDeclName) && !aVariable.equals(varDeclName)) {
-				varOccurrences.add(aVariable);
-			}
-
-			return true;
-		}
-
-		@Override
-		public boolean visit(final AnonymousClassDeclaration node) {
-			if (!canBeSharedInOtherThread()) {
-				VarDefinitionsUsesVisitor variableUseVisitor= new VarDefinitionsUsesVisitor(
-						varDecl.resolveBinding(), node, true).find();
-				if (!variableUseVisitor.getReads().isEmpty()) {
-					isUsedInAnnonymousClass= true;
-					return interruptVisit();
-				}
-			}
-
-			return true;
-		}
-	}
 }
@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Assignment;
@@ -56,6 +57,7 @@ import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public abstract class AbstractPrimitiveRatherThanWrapperCleanUp extends AbstractCleanUpRule {
 	/**
 	 * Get the wrapper fully qualified name.
@@ -26,22 +26,28 @@
 package org.autorefactor.jdt.internal.ui.fix;
 
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.jdt.internal.corext.dom.JavaRefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
 import org.autorefactor.jdt.internal.corext.dom.Release;
+import org.autorefactor.jdt.internal.corext.dom.TypeHierarchyCache;
 import org.autorefactor.jdt.internal.corext.refactoring.structure.CompilationUnitRewrite;
 import org.autorefactor.preferences.Preferences;
 import org.autorefactor.util.AutoRefactorException;
@@ -143,31 +149,139 @@ import org.eclipse.jdt.core.dom.WildcardType;
 /**
  * Aggregates running several visitors into only one visitor to increase
  * performances. When one visitor refactors a subtree of the AST, visitors
- * coming after will not be able to visit it. Visitors throwing exceptions are
- * isolated and ignored for the rest of a run for stability.
+ * coming after will not be able to visit it, or, with disjoint edits, only
+ * the parts of it that the edits do not overlap. Visitors throwing exceptions
+ * are isolated and ignored for the rest of a run for stability.
  */
 public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRule {
+	private static final ASTVisitor[] NO_VISITORS= {};
+
+	/** The dispatch tables to restore after visiting the subtree of a node. */
+	private static final class DispatchFrame {
+		private final ASTNode node;
+		private final ASTVisitor[][] visitorsByNodeType;
+		private final ASTVisitor[][] endVisitorsByNodeType;
+
+		private DispatchFrame(final ASTNode node, final ASTVisitor[][] visitorsByNodeType,
+				final ASTVisitor[][] endVisitorsByNodeType) {
+			this.node= node;
+			this.visitorsByNodeType= visitorsByNodeType;
+			this.endVisitorsByNodeType= endVisitorsByNodeType;
+		}
+	}
+
+	/** The node types indexed by node class. */
+	private static final Map<Class<?>, Integer> NODE_TYPES= getNodeTypes();
+
 	private final Map<Class<?>, List<ASTVisitor>> visitorsMap= new HashMap<>();
 	private final Map<Class<?>, List<ASTVisitor>> endVisitorsMap= new HashMap<>();
 	private final Set<ASTVisitor> preVisitors= new LinkedHashSet<>();
 	private final Set<ASTVisitor> preVisitors2= new LinkedHashSet<>();
 	private final Set<ASTVisitor> postVisitors= new LinkedHashSet<>();
+	/** The visitors of the rules marked with {@link BodyScoped}. */
+	private final Set<ASTVisitor> bodyScopedVisitors= new HashSet<>();
+	/** The visitors of the rules marked with {@link CompilationUnitScoped}. */
+	private final Set<ASTVisitor> compilationUnitScopedVisitors= new HashSet<>();
+
+	/**
+	 * Dispatch tables indexed by {@link ASTNode#getNodeType()}. They only hold the
+	 * visitors supporting the Java release of {@link #dispatchRelease}.
+	 */
+	private ASTVisitor[][] visitorsByNodeType;
+	private ASTVisitor[][] endVisitorsByNodeType;
+	private Release dispatchRelease;
+	private ASTVisitor[] preVisitorsArray;
+	private ASTVisitor[] preVisitors2Array;
+	private ASTVisitor[] postVisitorsArray;
 
 	private final List<ASTVisitor> visitors;
+	/** The profiling visitors wrapping the rules, null when profiling is off. */
+	private final Map<ASTVisitor, ASTVisitor> profilingVisitors;
 
 	private CompilationUnitRewrite cuRewrite;
 	private final Set<ASTVisitor> visitorsContributingRefactoring= new HashSet<>();
 
+	/** The {@link System#nanoTime()} after which no node is visited, if {@link #hasDeadline}. */
+	private long deadline;
+	private boolean hasDeadline;
+	private boolean outOfTime;
+	/** Whether the deadline stopped the last run before it visited all the nodes. */
+	private boolean interrupted;
+	/** Whether a faulty visitor has been removed from the dispatch tables since the last reset. */
+	private boolean hasDisabledVisitors;
+
+	private boolean disjointEditsOn;
+	/**
+	 * The dispatch tables replaced while visiting a subtree, innermost first: when
+	 * a visitor is left out of the subtree it refactored, or when only some rules
+	 * visit the compilation unit.
+	 */
+	private final Deque<DispatchFrame> dispatchFrames= new ArrayDeque<>();
+	/** The body declarations visited by all the rules, null to visit all of them. */
+	private Set<ASTNode> dirtyBodyDeclarations;
+
 	/**
 	 * Builds an instance of this class.
 	 *
 	 * @param visitors the visitors that will be executed by this
 	 *                 {@link AggregateASTVisitor}
 	 */
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public AggregateASTVisitor(final List<RefactoringRule> visitors) {
+		this(visitors, null);
+	}
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param visitors the visitors that will be executed by this
+	 *                 {@link AggregateASTVisitor}
+	 * @param profiler the profiler recording the time spent by each visitor, null
+	 *                 to not profile the visitors
+	 */
+	public AggregateASTVisitor(final List<RefactoringRule> visitors, final RuleProfiler profiler) {
+		this(new RulePlan(visitors), visitors, profiler);
+	}
+
+	/**
+	 * Builds an instance of this class from a plan built once for all the
+	 * compilation units, without analyzing the visitors again.
+	 *
+	 * @param plan     the plan of the visitors
+	 * @param visitors the visitors that will be executed by this
+	 *                 {@link AggregateASTVisitor}, instances of the rules of the
+	 *                 plan in the same order
+	 * @param profiler the profiler recording the time spent by each visitor, null
+	 *                 to not profile the visitors
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public AggregateASTVisitor(final RulePlan plan, final List<RefactoringRule> visitors, final RuleProfiler profiler) {
 		this.visitors= (List) visitors;
-		analyzeVisitors();
+		plan.checkRules(this.visitors);
+		if (profiler != null) {
+			this.profilingVisitors= new IdentityHashMap<>();
+			for (ASTVisitor v : this.visitors) {
+				profilingVisitors.put(v, new ProfilingASTVisitor(v, profiler.getStatistics(v)));
+			}
+		} else {
+			this.profilingVisitors= null;
+		}
+		bindVisitors(plan);
+		this.preVisitorsArray= toDispatchArray(preVisitors);
+		this.preVisitors2Array= toDispatchArray(preVisitors2);
+		this.postVisitorsArray= toDispatchArray(postVisitors);
+	}
+
+	private static Map<Class<?>, Integer> getNodeTypes() {
+		Map<Class<?>, Integer> nodeTypes= new HashMap<>();
+
+		// Node types are consecutive numbers starting from 1
+		for (int nodeType= 1;; nodeType++) {
+			try {
+				nodeTypes.put(ASTNode.nodeClassForType(nodeType), nodeType);
+			} catch (IllegalArgumentException e) {
+				return nodeTypes;
+			}
+		}
 	}
 
 	@Override
@@ -190,65 +304,96 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 		return true;
 	}
 
-	private void analyzeVisitors() {
-		for (ASTVisitor v : this.visitors) {
-			analyzeVisitor(v, v.getClass());
+	private void bindVisitors(final RulePlan plan) {
+		for (Entry<Class<?>, int[]> entry : plan.getVisitRules().entrySet()) {
+			visitorsMap.put(entry.getKey(), getVisitors(entry.getValue()));
+		}
+		for (Entry<Class<?>, int[]> entry : plan.getEndVisitRules().entrySet()) {
+			endVisitorsMap.put(entry.getKey(), getVisitors(entry.getValue()));
 		}
+		preVisitors.addAll(getVisitors(plan.getPreVisitRules()));
+		preVisitors2.addAll(getVisitors(plan.getPreVisit2Rules()));
+		postVisitors.addAll(getVisitors(plan.getPostVisitRules()));
+		bodyScopedVisitors.addAll(getVisitors(plan.getBodyScopedRules()));
+		compilationUnitScopedVisitors.addAll(getVisitors(plan.getCompilationUnitScopedRules()));
 	}
 
-	private void analyzeVisitor(final ASTVisitor v, final Class<?> clazz) {
-		if (ASTVisitor.class.equals(clazz)) {
-			return;
-		}
-		for (Method m : clazz.getDeclaredMethods()) {
-			if (is("preVisit", m)) { //$NON-NLS-1$
-				preVisitors.add(v);
-			} else if (is("preVisit2", m)) { //$NON-NLS-1$
-				preVisitors2.add(v);
-			} else if (is("postVisit", m)) { //$NON-NLS-1$
-				postVisitors.add(v);
-			} else if (isVisit(m)) {
-				put(visitorsMap, m.getParameterTypes()[0], v);
-			} else if (isEndVisit(m)) {
-				put(endVisitorsMap, m.getParameterTypes()[0], v);
-			}
+	private List<ASTVisitor> getVisitors(final int[] ruleIndexes) {
+		List<ASTVisitor> ruleVisitors= new ArrayList<>(ruleIndexes.length);
+
+		for (int ruleIndex : ruleIndexes) {
+			ruleVisitors.add(visitors.get(ruleIndex));
 		}
-		analyzeVisitor(v, clazz.getSuperclass());
-	}
 
-	private static boolean is(final String methodName, final Method m) {
-		return methodName.equals(m.getName()) && m.getParameterTypes().length == 1
-				&& ASTNode.class.equals(m.getParameterTypes()[0]);
+		return ruleVisitors;
 	}
 
-	private static boolean isVisit(final Method m) {
-		return "visit".equals(m.getName()) && m.getParameterTypes().length == 1 //$NON-NLS-1$
-				&& ASTNode.class.isAssignableFrom(m.getParameterTypes()[0])
-				&& !Modifier.isAbstract(m.getParameterTypes()[0].getModifiers());
+	private static ASTVisitor[] toArray(final Collection<ASTVisitor> visitors) {
+		return visitors.toArray(new ASTVisitor[visitors.size()]);
 	}
 
-	private static boolean isEndVisit(final Method m) {
-		return "endVisit".equals(m.getName()) && m.getParameterTypes().length == 1 //$NON-NLS-1$
-				&& ASTNode.class.isAssignableFrom(m.getParameterTypes()[0])
-				&& !Modifier.isAbstract(m.getParameterTypes()[0].getModifiers());
+	/**
+	 * Returns the visitors to dispatch to, replacing the rules by their profiling
+	 * visitors when profiling is on.
+	 *
+	 * @param visitors the rules
+	 * @return the visitors to dispatch to
+	 */
+	private ASTVisitor[] toDispatchArray(final Collection<ASTVisitor> visitors) {
+		ASTVisitor[] dispatchArray= toArray(visitors);
+		if (profilingVisitors != null) {
+			for (int i= 0; i < dispatchArray.length; i++) {
+				dispatchArray[i]= profilingVisitors.get(dispatchArray[i]);
+			}
+		}
+
+		return dispatchArray;
 	}
 
-	private void put(final Map<Class<?>, List<ASTVisitor>> map, final Class<?> key, final ASTVisitor value) {
-		List<ASTVisitor> visitors= map.get(key);
-		if (visitors == null) {
-			visitors= new ArrayList<>(1);
-			map.put(key, visitors);
+	/**
+	 * Returns the rule behind a dispatched visitor.
+	 *
+	 * @param v the dispatched visitor
+	 * @return the rule behind the dispatched visitor
+	 */
+	private static ASTVisitor getRule(final ASTVisitor v) {
+		if (v instanceof ProfilingASTVisitor) {
+			return ((ProfilingASTVisitor) v).getDelegate();
 		}
-		visitors.add(value);
+
+		return v;
 	}
 
-	private List<ASTVisitor> getVisitors(final Map<Class<?>, List<ASTVisitor>> map, final Class<? extends ASTNode> clazzKey) {
-		List<ASTVisitor> result= map.get(clazzKey);
-		if (result != null) {
-			return result;
+	/**
+	 * Builds a dispatch table only holding the visitors that support the
+	 * provided Java release.
+	 *
+	 * @param map           the visitors by node class
+	 * @param javaSERelease the Java release of the compilation unit, null to keep
+	 *                      all the visitors
+	 * @return the dispatch table, indexed by {@link ASTNode#getNodeType()}
+	 */
+	private ASTVisitor[][] newDispatchTable(final Map<Class<?>, List<ASTVisitor>> map, final Release javaSERelease) {
+		ASTVisitor[][] dispatchTable= new ASTVisitor[NODE_TYPES.size() + 1][];
+		Arrays.fill(dispatchTable, NO_VISITORS);
+
+		for (Entry<Class<?>, List<ASTVisitor>> entry : map.entrySet()) {
+			Integer nodeType= NODE_TYPES.get(entry.getKey());
+
+			if (nodeType != null) {
+				List<ASTVisitor> supportedVisitors= new ArrayList<>(entry.getValue().size());
+
+				for (ASTVisitor v : entry.getValue()) {
+					if (javaSERelease == null || isJavaVersionSupported(v, javaSERelease)) {
+						supportedVisitors.add(v);
+					}
+				}
+
+				dispatchTable[nodeType]= toDispatchArray(supportedVisitors);
+			}
 		}
 
-		return Collections.emptyList();
+		return dispatchTable;
 	}
 
 	@Override
@@ -256,29 +401,241 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 		return true;
 	}
 
-	private boolean isJavaVersionSupported(final ASTVisitor visitor) {
-		Release javaSERelease= cuRewrite.getJavaProjectOptions().getJavaSERelease();
+	private static boolean isJavaVersionSupported(final ASTVisitor visitor, final Release javaSERelease) {
 		return visitor instanceof JavaRefactoringRule
 				&& ((JavaRefactoringRule) visitor).isJavaVersionSupported(javaSERelease);
 	}
 
+	/**
+	 * Returns the context of the last pass.
+	 *
+	 * @return the context of the last pass
+	 */
+	public CompilationUnitRewrite getRefactoringContext() {
+		return cuRewrite;
+	}
+
 	@Override
 	public void setRefactoringContext(final CompilationUnitRewrite cuRewrite) {
 		this.cuRewrite= cuRewrite;
+		cuRewrite.getASTRewrite().setDisjointEditsOn(disjointEditsOn);
+
+		if (!dispatchFrames.isEmpty()) {
+			// The last run has been aborted
+			this.visitorsByNodeType= dispatchFrames.getLast().visitorsByNodeType;
+			this.endVisitorsByNodeType= dispatchFrames.getLast().endVisitorsByNodeType;
+			dispatchFrames.clear();
+		}
 
 		for (ASTVisitor v : visitors) {
 			((RefactoringRule) v).setRefactoringContext(cuRewrite);
 		}
 
+		Release javaSERelease= cuRewrite.getJavaProjectOptions().getJavaSERelease();
+		if (javaSERelease != dispatchRelease || visitorsByNodeType == null) {
+			this.visitorsByNodeType= newDispatchTable(visitorsMap, javaSERelease);
+			// Only visit() is filtered: endVisit() is called whatever the Java release
+			this.endVisitorsByNodeType= newDispatchTable(endVisitorsMap, null);
+			this.dispatchRelease= javaSERelease;
+		}
+
 		this.visitorsContributingRefactoring.clear();
+		this.interrupted= false;
+	}
+
+	/**
+	 * Enables again the visitors disabled because they failed on the previous
+	 * compilation unit. Call it before refactoring another compilation unit with
+	 * this visitor.
+	 */
+	public void reset() {
+		if (hasDisabledVisitors) {
+			this.preVisitorsArray= toDispatchArray(preVisitors);
+			this.preVisitors2Array= toDispatchArray(preVisitors2);
+			this.postVisitorsArray= toDispatchArray(postVisitors);
+			// Rebuilt from the visitors by node class by setRefactoringContext()
+			this.visitorsByNodeType= null;
+			this.endVisitorsByNodeType= null;
+			this.dispatchFrames.clear();
+			this.hasDisabledVisitors= false;
+		}
+	}
+
+	/**
+	 * Limits the time spent by the visitors: once the provided deadline is
+	 * passed, the remaining nodes are not visited.
+	 *
+	 * @param deadline the deadline, as a value of {@link System#nanoTime()}
+	 */
+	public void setDeadline(final long deadline) {
+		this.deadline= deadline;
+		this.hasDeadline= true;
+		this.outOfTime= false;
+	}
+
+	/**
+	 * Lets the visitors visit the parts of a refactored subtree that the pending
+	 * edits do not overlap, instead of skipping the whole subtree until the next
+	 * run. The visitor that refactored a node still does not visit its subtree.
+	 *
+	 * @param disjointEditsOn true to let the visitors edit disjoint parts of a
+	 *                        node in the same run
+	 */
+	public void setDisjointEditsOn(final boolean disjointEditsOn) {
+		this.disjointEditsOn= disjointEditsOn;
+	}
+
+	/**
+	 * Returns whether the deadline has been passed.
+	 *
+	 * @return true if the deadline has been passed, false if it has not or if
+	 *         there is no deadline
+	 */
+	public boolean isOutOfTime() {
+		if (hasDeadline && !outOfTime && System.nanoTime() - deadline >= 0) {
+			outOfTime= true;
+		}
+
+		return outOfTime;
+	}
+
+	/**
+	 * Returns whether the deadline stopped the last run before it visited all
+	 * the nodes.
+	 *
+	 * @return true if the deadline stopped the last run before it visited all
+	 *         the nodes, false otherwise
+	 */
+	public boolean isInterrupted() {
+		return interrupted;
+	}
+
+	/**
+	 * Returns the visitors whose work has been left undone when the deadline
+	 * has been passed: all the visitors if the last run has been interrupted,
+	 * otherwise the visitors that contributed to the last run, as their changes
+	 * need another run.
+	 *
+	 * @return the visitors whose work has been left undone
+	 */
+	public Collection<ASTVisitor> getPendingVisitors() {
+		return interrupted ? visitors : visitorsContributingRefactoring;
 	}
 
 	@Override
 	public ASTRewrite getRefactorings(final CompilationUnit astRoot) {
-		astRoot.accept(this);
+		if (!cuRewrite.isUseLombok()) {
+			TypeHierarchyCache previousTypeHierarchyCache= TypeHierarchyCache.open();
+
+			try {
+				astRoot.accept(this);
+			} finally {
+				TypeHierarchyCache.close(previousTypeHierarchyCache);
+			}
+		}
+
+		return cuRewrite.getASTRewrite();
+	}
+
+	/**
+	 * Returns the cleanups determined for the provided body only, by the rules
+	 * marked with {@link BodyScoped}. The rest of the compilation unit is not
+	 * visited, so it may have been parsed without the other bodies.
+	 *
+	 * @param body the method or initializer body to refactor
+	 * @return all the determined cleanups
+	 */
+	public ASTRewrite getRefactorings(final Block body) {
+		if (!cuRewrite.isUseLombok()) {
+			TypeHierarchyCache previousTypeHierarchyCache= TypeHierarchyCache.open();
+			dispatchFrames.push(new DispatchFrame(null, visitorsByNodeType, endVisitorsByNodeType));
+			this.visitorsByNodeType= restrict(visitorsByNodeType, bodyScopedVisitors);
+			this.endVisitorsByNodeType= restrict(endVisitorsByNodeType, bodyScopedVisitors);
+
+			try {
+				body.accept(this);
+			} finally {
+				DispatchFrame allRules= dispatchFrames.getLast();
+				dispatchFrames.clear();
+				this.visitorsByNodeType= allRules.visitorsByNodeType;
+				this.endVisitorsByNodeType= allRules.endVisitorsByNodeType;
+				TypeHierarchyCache.close(previousTypeHierarchyCache);
+			}
+		}
+
 		return cuRewrite.getASTRewrite();
 	}
 
+	/**
+	 * Returns the cleanups determined for the provided body declarations only.
+	 * The rules with a {@link CompilationUnitScoped} marker still visit the
+	 * whole compilation unit.
+	 *
+	 * @param astRoot          the compilation unit
+	 * @param bodyDeclarations the body declarations to visit with all the rules
+	 * @return all the determined cleanups
+	 */
+	public ASTRewrite getRefactorings(final CompilationUnit astRoot, final Collection<? extends ASTNode> bodyDeclarations) {
+		if (!cuRewrite.isUseLombok()) {
+			TypeHierarchyCache previousTypeHierarchyCache= TypeHierarchyCache.open();
+			dispatchFrames.push(new DispatchFrame(null, visitorsByNodeType, endVisitorsByNodeType));
+			this.visitorsByNodeType= restrict(visitorsByNodeType, compilationUnitScopedVisitors);
+			this.endVisitorsByNodeType= restrict(endVisitorsByNodeType, compilationUnitScopedVisitors);
+			this.dirtyBodyDeclarations= new HashSet<>(bodyDeclarations);
+
+			try {
+				astRoot.accept(this);
+			} finally {
+				this.dirtyBodyDeclarations= null;
+				DispatchFrame allRules= dispatchFrames.getLast();
+				dispatchFrames.clear();
+				this.visitorsByNodeType= allRules.visitorsByNodeType;
+				this.endVisitorsByNodeType= allRules.endVisitorsByNodeType;
+				TypeHierarchyCache.close(previousTypeHierarchyCache);
+			}
+		}
+
+		return cuRewrite.getASTRewrite();
+	}
+
+	/**
+	 * Builds a dispatch table only holding the visitors of the provided rules.
+	 *
+	 * @param dispatchTable the dispatch table
+	 * @param rules         the rules to keep
+	 * @return the restricted dispatch table
+	 */
+	private static ASTVisitor[][] restrict(final ASTVisitor[][] dispatchTable, final Set<ASTVisitor> rules) {
+		ASTVisitor[][] restrictedTable= new ASTVisitor[dispatchTable.length][];
+
+		for (int nodeType= 0; nodeType < dispatchTable.length; nodeType++) {
+			List<ASTVisitor> restrictedVisitors= new ArrayList<>(dispatchTable[nodeType].length);
+
+			for (ASTVisitor v : dispatchTable[nodeType]) {
+				if (rules.contains(getRule(v))) {
+					restrictedVisitors.add(v);
+				}
+			}
+
+			restrictedTable[nodeType]= toArray(restrictedVisitors);
+		}
+
+		return restrictedTable;
+	}
+
+	/**
+	 * Lets all the rules visit the subtree of a body declaration in a run
+	 * restricted to some body declarations.
+	 *
+	 * @param node the body declaration being currently visited
+	 */
+	private void dispatchToAllRules(final ASTNode node) {
+		DispatchFrame allRules= dispatchFrames.getLast();
+		dispatchFrames.push(new DispatchFrame(node, visitorsByNodeType, endVisitorsByNodeType));
+		this.visitorsByNodeType= allRules.visitorsByNodeType;
+		this.endVisitorsByNodeType= allRules.endVisitorsByNodeType;
+	}
+
 	/**
 	 * Get the cleanups.
 	 *
@@ -312,7 +669,7 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 			if (!cuRewrite.getASTRewrite().hasRefactorings()) {
 				logBadlyBehavedVisitor(v, node);
 			} else {
-				visitorsContributingRefactoring.add(v);
+				visitorsContributingRefactoring.add(getRule(v));
 			}
 			// Changes will be made to this node.
 			// no other visitors can make any more changes to it
@@ -323,8 +680,75 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 		return true;
 	}
 
+	/**
+	 * Returns whether the following visitors can visit the subtree of the current
+	 * node, once the provided visitor refactored it. They then only visit the
+	 * nodes that the pending edits do not overlap, while the provided visitor is
+	 * left out until the end of the subtree.
+	 *
+	 * @param v    the visitor that refactored the current node
+	 * @param node the node being currently visited
+	 * @return true if the following visitors can visit the subtree of the
+	 *         current node, false otherwise
+	 */
+	private boolean visitSubtreeWithout(final ASTVisitor v, final ASTNode node) {
+		if (!disjointEditsOn || !cuRewrite.getASTRewrite().hasRefactorings()) {
+			return false;
+		}
+
+		ASTVisitor[][] remainingVisitors= new ASTVisitor[visitorsByNodeType.length][];
+
+		for (int nodeType= 0; nodeType < visitorsByNodeType.length; nodeType++) {
+			remainingVisitors[nodeType]= without(visitorsByNodeType[nodeType], v);
+		}
+
+		dispatchFrames.push(new DispatchFrame(node, visitorsByNodeType, endVisitorsByNodeType));
+		visitorsByNodeType= remainingVisitors;
+		return true;
+	}
+
+	private static ASTVisitor[] without(final ASTVisitor[] visitors, final ASTVisitor v) {
+		for (int i= 0; i < visitors.length; i++) {
+			if (visitors[i] == v) {
+				ASTVisitor[] result= new ASTVisitor[visitors.length - 1];
+				System.arraycopy(visitors, 0, result, 0, i);
+				System.arraycopy(visitors, i + 1, result, i, visitors.length - i - 1);
+				return result;
+			}
+		}
+
+		return visitors;
+	}
+
+	/**
+	 * Disables a visitor for the provided node class until {@link #reset()}. The
+	 * visitors by node class are shared by all the compilation units, so only the
+	 * dispatch tables are changed.
+	 *
+	 * @param dispatchTable the dispatch table
+	 * @param node          the node being currently visited
+	 * @param v             the visitor to disable
+	 */
+	private void removeVisitor(final ASTVisitor[][] dispatchTable, final ASTNode node, final ASTVisitor v) {
+		this.hasDisabledVisitors= true;
+		List<ASTVisitor> remainingVisitors= new ArrayList<>(Arrays.asList(dispatchTable[node.getNodeType()]));
+		remainingVisitors.remove(v);
+		dispatchTable[node.getNodeType()]= toArray(remainingVisitors);
+
+		for (DispatchFrame dispatchFrame : dispatchFrames) {
+			ASTVisitor[][] savedTable= dispatchTable == visitorsByNodeType ? dispatchFrame.visitorsByNodeType
+					: dispatchFrame.endVisitorsByNodeType;
+			savedTable[node.getNodeType()]= without(savedTable[node.getNodeType()], v);
+		}
+	}
+
+	private ASTVisitor[] removeVisitor(final ASTVisitor[] dispatchArray, final ASTVisitor v) {
+		this.hasDisabledVisitors= true;
+		return without(dispatchArray, v);
+	}
+
 	private void logBadlyBehavedVisitor(final ASTVisitor v, final ASTNode node) {
-		String message= "Visitor " + v.getClass().getName() + " is badly behaved:" //$NON-NLS-1$ //$NON-NLS-2$
+		String message= "Visitor " + getRule(v).getClass().getName() + " is badly behaved:" //$NON-NLS-1$ //$NON-NLS-2$
 				+ " it reported doing a refactoring, but it did not actually contribute any refactoring."; //$NON-NLS-1$
 		cuRewrite.getLogger().error(message, new AutoRefactorException(node, message));
 	}
@@ -334,8 +758,8 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 			// Let the user cancel the current operation
 			throw (OperationCanceledException) e;
 		}
-		String message= "Visitor " + v.getClass().getName() + " is faulty," //$NON-NLS-1$ //$NON-NLS-2$
-				+ " it will be disabled for the rest of this run."; //$NON-NLS-1$
+		String message= "Visitor " + getRule(v).getClass().getName() + " is faulty," //$NON-NLS-1$ //$NON-NLS-2$
+				+ " it will be disabled for the rest of this file."; //$NON-NLS-1$
 		cuRewrite.getLogger().error(message, new UnhandledException(node, message, e));
 	}
 
@@ -366,44 +790,65 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 				System.out.print(paramType.getSimpleName() + " node"); //$NON-NLS-1$
 			}
 			System.out.println(") {"); //$NON-NLS-1$
-			boolean isVisit= isVisit(m);
-			boolean isEndVisit= isEndVisit(m);
-			boolean isPrevisit2= is("preVisit2", m); //$NON-NLS-1$
-			if (isVisit || isEndVisit) {
-				System.out.print("\tfinal List<ASTVisitor> visitorList = getVisitors("); //$NON-NLS-1$
-				System.out.print((isVisit ? "visitorsMap" : "endVisitorsMap") + ", "); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-				System.out.println(m.getParameterTypes()[0].getSimpleName() + ".class);"); //$NON-NLS-1$
-			}
-			System.out.print("\tfor (Iterator<ASTVisitor> iter = "); //$NON-NLS-1$
-			if (is("preVisit", m)) { //$NON-NLS-1$
-				System.out.print("preVisitors"); //$NON-NLS-1$
+			boolean isVisit= RulePlan.isVisit(m);
+			boolean isEndVisit= RulePlan.isEndVisit(m);
+			boolean isPrevisit2= RulePlan.is("preVisit2", m); //$NON-NLS-1$
+			if (isPrevisit2) {
+				System.out.println("\tif (hasDeadline && isOutOfTime()) {"); //$NON-NLS-1$
+				System.out.println("\t\tinterrupted= true;"); //$NON-NLS-1$
+				System.out.println("\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
+				System.out.println("\t}"); //$NON-NLS-1$
+				System.out.println();
+				System.out.println("\tif (disjointEditsOn && !dispatchFrames.isEmpty() && cuRewrite.getASTRewrite().hasBeenRefactored(node)) {"); //$NON-NLS-1$
+				System.out.println("\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
+				System.out.println("\t}"); //$NON-NLS-1$
+				System.out.println();
+				System.out.println("\tif (dirtyBodyDeclarations != null && dirtyBodyDeclarations.contains(node)) {"); //$NON-NLS-1$
+				System.out.println("\t\tdispatchToAllRules(node);"); //$NON-NLS-1$
+				System.out.println("\t}"); //$NON-NLS-1$
+				System.out.println();
+			} else if (RulePlan.is("postVisit", m)) { //$NON-NLS-1$
+				System.out.println("\t// A dirty body declaration refactored by a rule has pushed two frames"); //$NON-NLS-1$
+				System.out.println("\twhile (!dispatchFrames.isEmpty() && dispatchFrames.peek().node == node) {"); //$NON-NLS-1$
+				System.out.println("\t\tDispatchFrame dispatchFrame= dispatchFrames.pop();"); //$NON-NLS-1$
+				System.out.println("\t\tvisitorsByNodeType= dispatchFrame.visitorsByNodeType;"); //$NON-NLS-1$
+				System.out.println("\t\tendVisitorsByNodeType= dispatchFrame.endVisitorsByNodeType;"); //$NON-NLS-1$
+				System.out.println("\t}"); //$NON-NLS-1$
+				System.out.println();
+			}
+			System.out.print("\tfor (ASTVisitor v : "); //$NON-NLS-1$
+			if (RulePlan.is("preVisit", m)) { //$NON-NLS-1$
+				System.out.print("preVisitorsArray"); //$NON-NLS-1$
 			} else if (isPrevisit2) {
-				System.out.print("preVisitors2"); //$NON-NLS-1$
-			} else if (is("postVisit", m)) { //$NON-NLS-1$
-				System.out.print("postVisitors"); //$NON-NLS-1$
+				System.out.print("preVisitors2Array"); //$NON-NLS-1$
+			} else if (RulePlan.is("postVisit", m)) { //$NON-NLS-1$
+				System.out.print("postVisitorsArray"); //$NON-NLS-1$
 			} else if (isVisit || isEndVisit) {
-				System.out.print("visitorList"); //$NON-NLS-1$
+				System.out.print((isVisit ? "visitorsByNodeType" : "endVisitorsByNodeType") + "[node.getNodeType()]"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			} else {
 				throw new NotImplementedException(null, "for method " + m); //$NON-NLS-1$
 			}
-			System.out.println(".iterator(); iter.hasNext();) {"); //$NON-NLS-1$
-			System.out.println("\t\tfinal ASTVisitor v = iter.next();"); //$NON-NLS-1$
+			System.out.println(") {"); //$NON-NLS-1$
 			System.out.println("\t\ttry {"); //$NON-NLS-1$
 			if (isPrevisit2) {
 				System.out.println("\t\t\tif (!v." + m.getName() + "(node)) {"); //$NON-NLS-1$ //$NON-NLS-2$
 				System.out.println("\t\t\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
 				System.out.println("\t\t\t}"); //$NON-NLS-1$
 			} else if (Boolean.TYPE.equals(m.getReturnType())) {
-				System.out.println("\t\t\tif (isJavaVersionSupported(v)"); //$NON-NLS-1$
-				System.out.println("\t\t\t\t\t&& !continueVisiting(v." + m.getName() + "(node), v, node)) {"); //$NON-NLS-1$ //$NON-NLS-2$
-				System.out.println("\t\t\t\treturn DO_NOT_VISIT_SUBTREE;"); //$NON-NLS-1$
+				System.out.println("\t\t\tif (!continueVisiting(v." + m.getName() + "(node), v, node)) {"); //$NON-NLS-1$ //$NON-NLS-2$
+				System.out.println("\t\t\t\treturn visitSubtreeWithout(v, node);"); //$NON-NLS-1$
 				System.out.println("\t\t\t}"); //$NON-NLS-1$
 			} else {
 				System.out.println("\t\t\tv." + m.getName() + "(node);"); //$NON-NLS-1$ //$NON-NLS-2$
 			}
 			System.out.println("\t\t} catch (Exception e) {"); //$NON-NLS-1$
 			System.out.println("\t\t\tlogFaultyVisitor(v, node, e);"); //$NON-NLS-1$
-			System.out.println("\t\t\titer.remove();"); //$NON-NLS-1$
+			if (isVisit || isEndVisit) {
+				System.out.println("\t\t\tremoveVisitor(" + (isVisit ? "visitorsByNodeType" : "endVisitorsByNodeType") + ", node, v);"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			} else {
+				String setName= RulePlan.is("preVisit", m) ? "preVisitors" : isPrevisit2 ? "preVisitors2" : "postVisitors"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				System.out.println("\t\t\t" + setName + "Array= removeVisitor(" + setName + "Array, v);"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
 			System.out.println("\t\t}"); //$NON-NLS-1$
 			System.out.println("\t}"); //$NON-NLS-1$
 			if (Boolean.TYPE.equals(m.getReturnType())) {
@@ -416,1217 +861,1066 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public void endVisit(final AnnotationTypeDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnnotationTypeDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final AnnotationTypeMemberDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnnotationTypeMemberDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final AnonymousClassDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AnonymousClassDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ArrayAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ArrayCreation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayCreation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ArrayInitializer node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayInitializer.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ArrayType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ArrayType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final AssertStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, AssertStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final Assignment node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Assignment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final Block node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Block.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final BlockComment node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BlockComment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final BooleanLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BooleanLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final BreakStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, BreakStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final CastExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CastExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final CatchClause node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CatchClause.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final CharacterLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CharacterLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ClassInstanceCreation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ClassInstanceCreation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final CompilationUnit node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, CompilationUnit.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ConditionalExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ConditionalExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ConstructorInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ConstructorInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ContinueStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ContinueStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final DoStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, DoStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final EmptyStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EmptyStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final EnhancedForStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnhancedForStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final EnumConstantDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnumConstantDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final EnumDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, EnumDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ExpressionStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ExpressionStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final FieldAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, FieldAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final FieldDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, FieldDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ForStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ForStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final IfStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, IfStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ImportDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ImportDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final InfixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, InfixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final Initializer node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Initializer.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final InstanceofExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, InstanceofExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final Javadoc node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Javadoc.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final LabeledStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, LabeledStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final LineComment node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, LineComment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MarkerAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MarkerAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MemberRef node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MemberRef.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MemberValuePair node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MemberValuePair.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MethodDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MethodInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MethodRef node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodRef.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final MethodRefParameter node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, MethodRefParameter.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final Modifier node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, Modifier.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final NormalAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NormalAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final NullLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NullLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final NumberLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, NumberLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final PackageDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PackageDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ParameterizedType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ParameterizedType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ParenthesizedExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ParenthesizedExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final PostfixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PostfixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final PrefixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PrefixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final PrimitiveType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, PrimitiveType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final QualifiedName node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, QualifiedName.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final QualifiedType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, QualifiedType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ReturnStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ReturnStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SimpleName node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SimpleName.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SimpleType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SimpleType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SingleMemberAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SingleMemberAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SingleVariableDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SingleVariableDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final StringLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, StringLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SuperConstructorInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperConstructorInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SuperFieldAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperFieldAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SuperMethodInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SuperMethodInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SwitchCase node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SwitchCase.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SwitchStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SwitchStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final SynchronizedStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, SynchronizedStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TagElement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TagElement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TextElement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TextElement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ThisExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ThisExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final ThrowStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, ThrowStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TryStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TryStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TypeDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TypeDeclarationStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeDeclarationStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TypeLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final TypeParameter node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, TypeParameter.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final UnionType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, UnionType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final VariableDeclarationExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final VariableDeclarationFragment node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationFragment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final VariableDeclarationStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, VariableDeclarationStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final WhileStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, WhileStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void endVisit(final WildcardType node) {
-		List<ASTVisitor> visitorList= getVisitors(endVisitorsMap, WildcardType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : endVisitorsByNodeType[node.getNodeType()]) {
 			try {
 				v.endVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(endVisitorsByNodeType, node, v);
 			}
 		}
 	}
 
 	@Override
 	public void postVisit(final ASTNode node) {
-		for (Iterator<ASTVisitor> iter= postVisitors.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		// A dirty body declaration refactored by a rule has pushed two frames
+		while (!dispatchFrames.isEmpty() && dispatchFrames.peek().node == node) {
+			DispatchFrame dispatchFrame= dispatchFrames.pop();
+			visitorsByNodeType= dispatchFrame.visitorsByNodeType;
+			endVisitorsByNodeType= dispatchFrame.endVisitorsByNodeType;
+		}
+
+		for (ASTVisitor v : postVisitorsArray) {
 			try {
 				v.postVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				postVisitorsArray= removeVisitor(postVisitorsArray, v);
 			}
 		}
 	}
 
 	@Override
 	public void preVisit(final ASTNode node) {
-		for (Iterator<ASTVisitor> iter= preVisitors.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : preVisitorsArray) {
 			try {
 				v.preVisit(node);
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				preVisitorsArray= removeVisitor(preVisitorsArray, v);
 			}
 		}
 	}
 
 	@Override
 	public boolean preVisit2(final ASTNode node) {
-		for (Iterator<ASTVisitor> iter= preVisitors2.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		if (hasDeadline && isOutOfTime()) {
+			interrupted= true;
+			return false;
+		}
+
+		if (disjointEditsOn && !dispatchFrames.isEmpty() && cuRewrite.getASTRewrite().hasBeenRefactored(node)) {
+			return false;
+		}
+
+		if (dirtyBodyDeclarations != null && dirtyBodyDeclarations.contains(node)) {
+			dispatchToAllRules(node);
+		}
+
+		for (ASTVisitor v : preVisitors2Array) {
 			try {
 				if (!v.preVisit2(node)) {
 					return false;
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				preVisitors2Array= removeVisitor(preVisitors2Array, v);
 			}
 		}
 
@@ -1635,16 +1929,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final AnnotationTypeDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnnotationTypeDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1653,16 +1945,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final AnnotationTypeMemberDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnnotationTypeMemberDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1671,16 +1961,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final AnonymousClassDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, AnonymousClassDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1689,16 +1977,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ArrayAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1707,16 +1993,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ArrayCreation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayCreation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1725,16 +2009,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ArrayInitializer node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayInitializer.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1743,16 +2025,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ArrayType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ArrayType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1761,16 +2041,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final AssertStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, AssertStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1779,16 +2057,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final Assignment node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, Assignment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1797,16 +2073,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final Block node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, Block.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1815,16 +2089,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final BlockComment node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, BlockComment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1833,16 +2105,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final BooleanLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, BooleanLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1851,16 +2121,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final BreakStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, BreakStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1869,16 +2137,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final CastExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, CastExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1887,16 +2153,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final CatchClause node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, CatchClause.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1905,16 +2169,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final CharacterLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, CharacterLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1923,16 +2185,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ClassInstanceCreation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ClassInstanceCreation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1941,16 +2201,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final CompilationUnit node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, CompilationUnit.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1959,16 +2217,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ConditionalExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ConditionalExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1977,16 +2233,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ConstructorInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ConstructorInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -1995,16 +2249,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ContinueStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ContinueStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2013,16 +2265,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final CreationReference node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, CreationReference.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2031,16 +2281,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final DoStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, DoStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2049,16 +2297,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final EmptyStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, EmptyStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2067,16 +2313,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final EnhancedForStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnhancedForStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2085,16 +2329,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final EnumConstantDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnumConstantDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2103,16 +2345,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final EnumDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, EnumDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2121,16 +2361,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ExpressionMethodReference node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ExpressionMethodReference.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2139,16 +2377,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ExpressionStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ExpressionStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2157,16 +2393,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final FieldAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, FieldAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2175,16 +2409,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final FieldDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, FieldDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2193,16 +2425,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ForStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ForStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2211,16 +2441,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final IfStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, IfStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2229,16 +2457,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ImportDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ImportDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2247,16 +2473,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final InfixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, InfixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2265,16 +2489,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final Initializer node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, Initializer.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2283,16 +2505,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final InstanceofExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, InstanceofExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2301,16 +2521,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final Javadoc node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, Javadoc.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2319,16 +2537,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final LabeledStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, LabeledStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2337,16 +2553,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final LambdaExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, LambdaExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2355,16 +2569,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final LineComment node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, LineComment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2373,16 +2585,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MarkerAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MarkerAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2391,16 +2601,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MemberRef node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MemberRef.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2409,16 +2617,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MemberValuePair node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MemberValuePair.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2427,16 +2633,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MethodDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2445,16 +2649,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MethodInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2463,16 +2665,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MethodRef node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodRef.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2481,16 +2681,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final MethodRefParameter node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, MethodRefParameter.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2499,16 +2697,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final Modifier node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, Modifier.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2517,16 +2713,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final NormalAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, NormalAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2535,16 +2729,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final NullLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, NullLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2553,16 +2745,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final NumberLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, NumberLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2571,16 +2761,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final PackageDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, PackageDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2589,16 +2777,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ParameterizedType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ParameterizedType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2607,16 +2793,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ParenthesizedExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ParenthesizedExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2625,16 +2809,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final PostfixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, PostfixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2643,16 +2825,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final PrefixExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, PrefixExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2661,16 +2841,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final PrimitiveType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, PrimitiveType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2679,16 +2857,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final QualifiedName node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, QualifiedName.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2697,16 +2873,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final QualifiedType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, QualifiedType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2715,16 +2889,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ReturnStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ReturnStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2733,16 +2905,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SimpleName node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SimpleName.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2751,16 +2921,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SimpleType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SimpleType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2769,16 +2937,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SingleMemberAnnotation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SingleMemberAnnotation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2787,16 +2953,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SingleVariableDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SingleVariableDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2805,16 +2969,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final StringLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, StringLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2823,16 +2985,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SuperConstructorInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperConstructorInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2841,16 +3001,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SuperFieldAccess node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperFieldAccess.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2859,16 +3017,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SuperMethodInvocation node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperMethodInvocation.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2877,16 +3033,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SuperMethodReference node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SuperMethodReference.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2895,16 +3049,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SwitchCase node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SwitchCase.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2913,16 +3065,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SwitchStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SwitchStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2931,16 +3081,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final SynchronizedStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, SynchronizedStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2949,16 +3097,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TagElement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TagElement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2967,16 +3113,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TextElement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TextElement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -2985,16 +3129,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ThisExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ThisExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3003,16 +3145,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final ThrowStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, ThrowStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3021,16 +3161,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TryStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TryStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3039,16 +3177,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TypeDeclaration node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeDeclaration.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3057,16 +3193,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TypeDeclarationStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeDeclarationStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3075,16 +3209,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TypeLiteral node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeLiteral.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3093,16 +3225,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TypeMethodReference node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeMethodReference.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3111,16 +3241,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final TypeParameter node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, TypeParameter.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3129,16 +3257,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final UnionType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, UnionType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3147,16 +3273,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final VariableDeclarationExpression node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationExpression.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3165,16 +3289,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final VariableDeclarationFragment node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationFragment.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3183,16 +3305,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final VariableDeclarationStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, VariableDeclarationStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3201,16 +3321,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final WhileStatement node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, WhileStatement.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
@@ -3219,16 +3337,14 @@ public class AggregateASTVisitor extends ASTVisitor implements JavaRefactoringRu
 
 	@Override
 	public boolean visit(final WildcardType node) {
-		List<ASTVisitor> visitorList= getVisitors(visitorsMap, WildcardType.class);
-		for (Iterator<ASTVisitor> iter= visitorList.iterator(); iter.hasNext();) {
-			ASTVisitor v= iter.next();
+		for (ASTVisitor v : visitorsByNodeType[node.getNodeType()]) {
 			try {
-				if (isJavaVersionSupported(v) && !continueVisiting(v.visit(node), v, node)) {
-					return false;
+				if (!continueVisiting(v.visit(node), v, node)) {
+					return visitSubtreeWithout(v, node);
 				}
 			} catch (Exception e) {
 				logFaultyVisitor(v, node, e);
-				iter.remove();
+				removeVisitor(visitorsByNodeType, node, v);
 			}
 		}
 
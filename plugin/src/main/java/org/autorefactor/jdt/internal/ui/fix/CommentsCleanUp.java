@@ -26,8 +26,6 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -36,9 +34,8 @@ import java.util.regex.Pattern;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
-import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.util.NotImplementedException;
-import org.autorefactor.util.Pair;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.BlockComment;
 import org.eclipse.jdt.core.dom.BodyDeclaration;
@@ -66,6 +63,7 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
  * <li>TODO Fix typo in comments</li>
  * </ul>
  */
+@CompilationUnitScoped
 public class CommentsCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -119,7 +117,6 @@ public class CommentsCleanUp extends AbstractCleanUpRule {
 			.compile("(/\\*\\*\\s*(?:(?:\\rewrite|\\n|\\rewrite\\n|\\s)\\s*\\*)*\\s*)(\\w)(.*)", Pattern.DOTALL); //$NON-NLS-1$
 
 	private CompilationUnit astRoot;
-	private final List<Pair<SourceLocation, Comment>> comments= new ArrayList<>();
 
 	@Override
 	public boolean visit(final BlockComment node) {
@@ -518,32 +515,15 @@ public class CommentsCleanUp extends AbstractCleanUpRule {
 			return true;
 		}
 
-		SourceLocation nodeLoc= new SourceLocation(nodeWhereToAddJavadoc);
-		SourceLocation bestLoc= new SourceLocation(comment);
 		Comment bestComment= comment;
-		for (Iterator<Pair<SourceLocation, Comment>> iter= this.comments.iterator(); iter.hasNext();) {
-			Pair<SourceLocation, Comment> pair= iter.next();
-			SourceLocation newLoc= pair.getFirst();
-			Comment newComment= pair.getSecond();
-			if (newLoc.compareTo(bestLoc) < 0) {
-				// Since comments are visited in ascending order,
-				// we can forget this comment.
-				iter.remove();
-				continue;
-			}
-			if (nodeLoc.compareTo(newLoc) < 0) {
-				break;
-			}
-			if (bestLoc.compareTo(newLoc) < 0
-					&& (!(newComment instanceof LineComment) || !(bestComment instanceof LineComment))) {
+		for (Comment newComment : cuRewrite.getCommentIndex().commentsBetween(comment, nodeWhereToAddJavadoc)) {
+			if (!(newComment instanceof LineComment) || !(bestComment instanceof LineComment)) {
 				// New comment is a BlockComment or a Javadoc
-				bestLoc= newLoc;
 				bestComment= newComment;
-				continue;
 			}
 		}
 
-		return bestComment != null && bestComment != comment;
+		return bestComment != comment;
 	}
 
 	private boolean hasJavadoc(final ASTNode node) {
@@ -563,12 +543,7 @@ public class CommentsCleanUp extends AbstractCleanUpRule {
 
 	@Override
 	public boolean visit(final CompilationUnit node) {
-		comments.clear();
-
 		this.astRoot= node;
-		for (Comment comment : ASTNodes.getCommentList(astRoot)) {
-			comments.add(Pair.of(new SourceLocation(comment), comment));
-		}
 
 		for (Comment comment : ASTNodes.getCommentList(astRoot)) {
 			if (comment.isBlockComment()) {
@@ -31,16 +31,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTMatcherSameVariablesAndMethods;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.ASTSemanticHash;
 import org.autorefactor.jdt.internal.corext.dom.ASTSemanticMatcher;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.jdt.internal.corext.dom.VarOccurrenceVisitor;
 import org.autorefactor.util.IllegalStateException;
 import org.autorefactor.util.Pair;
@@ -51,6 +55,7 @@ import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.Statement;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class CommonCodeInIfElseStatementCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -117,12 +122,21 @@ public class CommonCodeInIfElseStatementCleanUp extends AbstractCleanUpRule {
 	private List<Integer> getMatchingCases(final List<List<Statement>> allCasesStatements,
 			final ASTSemanticMatcher matcher) {
 		List<Pair<Statement, List<Integer>>> matchingCases= new ArrayList<>();
+		// Only the cases with the same hash may match
+		Map<Long, List<Pair<Statement, List<Integer>>>> matchingCasesByHash= new HashMap<>();
 
 		for (int i= 0; i < allCasesStatements.size(); i++) {
 			boolean isMatching= false;
 			Statement currentStatement= Utils.getLast(allCasesStatements.get(i));
+			Long hash= ASTSemanticHash.of(currentStatement);
+			List<Pair<Statement, List<Integer>>> candidates= matchingCasesByHash.get(hash);
 
-			for (Pair<Statement, List<Integer>> pair : matchingCases) {
+			if (candidates == null) {
+				candidates= new ArrayList<>();
+				matchingCasesByHash.put(hash, candidates);
+			}
+
+			for (Pair<Statement, List<Integer>> pair : candidates) {
 				if (ASTNodes.match(matcher, pair.getFirst(), currentStatement)) {
 					pair.getSecond().add(i);
 					isMatching= true;
@@ -134,6 +148,7 @@ public class CommonCodeInIfElseStatementCleanUp extends AbstractCleanUpRule {
 				Pair<Statement, List<Integer>> newPair= Pair.<Statement, List<Integer>>of(currentStatement, new ArrayList<>());
 				newPair.getSecond().add(i);
 				matchingCases.add(newPair);
+				candidates.add(newPair);
 			}
 		}
 
@@ -29,6 +29,7 @@ package org.autorefactor.jdt.internal.ui.fix;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.IfStatement;
 
@@ -61,6 +62,7 @@ import org.eclipse.jdt.core.dom.IfStatement;
  *
  * @see #getDescription()
  */
+@BodyScoped
 public class CommonIfInIfElseCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
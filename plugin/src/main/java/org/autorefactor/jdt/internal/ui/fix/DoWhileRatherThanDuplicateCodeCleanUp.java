@@ -31,10 +31,12 @@ import java.util.List;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class DoWhileRatherThanDuplicateCodeCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
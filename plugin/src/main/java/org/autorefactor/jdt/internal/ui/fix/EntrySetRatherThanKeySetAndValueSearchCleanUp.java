@@ -324,7 +324,8 @@ public class EntrySetRatherThanKeySetAndValueSearchCleanUp extends AbstractClean
 
 	private List<MethodInvocation> collectMapGetValueCalls(final Expression mapExpression,
 			final SingleVariableDeclaration parameter, final Statement body) {
-		return new CollectMapGetCalls(mapExpression, parameter).collect(body);
+		return new CollectMapGetCalls(mapExpression, parameter).collect(body, MethodInvocation.class,
+				cuRewrite.getNodeTypeIndex());
 	}
 
 	/** Sanity check. */
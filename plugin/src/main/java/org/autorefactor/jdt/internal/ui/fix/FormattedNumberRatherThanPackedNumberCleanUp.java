@@ -39,6 +39,7 @@ import java.util.logging.LogRecord;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.NumberLiteral;
@@ -46,6 +47,7 @@ import org.eclipse.jdt.core.dom.NumberLiteral;
 /**
  * See {@link #getDescription()} method.
  */
+@BodyScoped
 public class FormattedNumberRatherThanPackedNumberCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.IfStatement;
 import org.eclipse.jdt.core.dom.Statement;
@@ -58,6 +59,7 @@ import org.eclipse.jdt.core.dom.Statement;
  *
  * @see #getDescription()
  */
+@BodyScoped
 public class IfElseIfCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -28,6 +28,7 @@ package org.autorefactor.jdt.internal.ui.fix;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.ThisExpression;
@@ -39,6 +40,7 @@ import org.eclipse.jdt.core.dom.ThisExpression;
  * expression nullness.
  * </p>
  */
+@BodyScoped
 public class InvertEqualsCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -33,6 +33,7 @@ import java.util.Map;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.jdt.internal.corext.dom.OrderedInfixExpression;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.InfixExpression;
@@ -40,6 +41,7 @@ import org.eclipse.jdt.core.dom.MethodInvocation;
 import org.eclipse.jdt.core.dom.ThisExpression;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class IsEmptyRatherThanSizeCleanUp extends AbstractCleanUpRule {
 	private static final String IS_EMPTY_METHOD= "isEmpty"; //$NON-NLS-1$
 	private static final String LENGTH_METHOD= "length"; //$NON-NLS-1$
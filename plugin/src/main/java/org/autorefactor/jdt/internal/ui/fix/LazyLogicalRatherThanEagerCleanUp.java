@@ -30,10 +30,12 @@ import java.util.List;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.InfixExpression;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class LazyLogicalRatherThanEagerCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
@@ -44,6 +45,7 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 /**
  * Handle the need to add an import for a class.
  */
+@CompilationUnitScoped
 public abstract class NewClassImportCleanUp extends AbstractCleanUpRule {
 	/**
 	 * The class that does the cleanup when an import needs to be added.
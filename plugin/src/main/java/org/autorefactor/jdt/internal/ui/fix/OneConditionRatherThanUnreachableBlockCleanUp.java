@@ -27,9 +27,11 @@ package org.autorefactor.jdt.internal.ui.fix;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.IfStatement;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class OneConditionRatherThanUnreachableBlockCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -0,0 +1,1897 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnnotationTypeMemberDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.ArrayAccess;
+import org.eclipse.jdt.core.dom.ArrayCreation;
+import org.eclipse.jdt.core.dom.ArrayInitializer;
+import org.eclipse.jdt.core.dom.ArrayType;
+import org.eclipse.jdt.core.dom.AssertStatement;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BlockComment;
+import org.eclipse.jdt.core.dom.BooleanLiteral;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.CastExpression;
+import org.eclipse.jdt.core.dom.CatchClause;
+import org.eclipse.jdt.core.dom.CharacterLiteral;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.CreationReference;
+import org.eclipse.jdt.core.dom.DoStatement;
+import org.eclipse.jdt.core.dom.EmptyStatement;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.ExpressionMethodReference;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.InstanceofExpression;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.LineComment;
+import org.eclipse.jdt.core.dom.MarkerAnnotation;
+import org.eclipse.jdt.core.dom.MemberRef;
+import org.eclipse.jdt.core.dom.MemberValuePair;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.MethodRef;
+import org.eclipse.jdt.core.dom.MethodRefParameter;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.NormalAnnotation;
+import org.eclipse.jdt.core.dom.NullLiteral;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.PackageDeclaration;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.ParenthesizedExpression;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrimitiveType;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.QualifiedType;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleMemberAnnotation;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperFieldAccess;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodReference;
+import org.eclipse.jdt.core.dom.SwitchCase;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+import org.eclipse.jdt.core.dom.SynchronizedStatement;
+import org.eclipse.jdt.core.dom.TagElement;
+import org.eclipse.jdt.core.dom.TextElement;
+import org.eclipse.jdt.core.dom.ThisExpression;
+import org.eclipse.jdt.core.dom.ThrowStatement;
+import org.eclipse.jdt.core.dom.TryStatement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.TypeLiteral;
+import org.eclipse.jdt.core.dom.TypeMethodReference;
+import org.eclipse.jdt.core.dom.TypeParameter;
+import org.eclipse.jdt.core.dom.UnionType;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.eclipse.jdt.core.dom.WhileStatement;
+import org.eclipse.jdt.core.dom.WildcardType;
+
+/**
+ * Delegates to a cleanup rule while recording the time it spends, in order to
+ * profile the rules. {@link AggregateASTVisitor} only dispatches to such
+ * visitors when profiling is on.
+ */
+final class ProfilingASTVisitor extends ASTVisitor {
+	private final ASTVisitor delegate;
+	private final RuleProfiler.RuleStatistics statistics;
+
+	ProfilingASTVisitor(final ASTVisitor delegate, final RuleProfiler.RuleStatistics statistics) {
+		this.delegate= delegate;
+		this.statistics= statistics;
+	}
+
+	ASTVisitor getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public void endVisit(final AnnotationTypeDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final AnnotationTypeMemberDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final AnonymousClassDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ArrayAccess node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ArrayCreation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ArrayInitializer node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ArrayType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final AssertStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final Assignment node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final Block node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final BlockComment node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final BooleanLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final BreakStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final CastExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final CatchClause node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final CharacterLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ClassInstanceCreation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final CompilationUnit node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ConditionalExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ConstructorInvocation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ContinueStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final DoStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final EmptyStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final EnhancedForStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final EnumConstantDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final EnumDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ExpressionStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final FieldAccess node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final FieldDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ForStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final IfStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ImportDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final InfixExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final Initializer node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final InstanceofExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final Javadoc node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final LabeledStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final LineComment node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MarkerAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MemberRef node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MemberValuePair node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MethodDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MethodInvocation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MethodRef node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final MethodRefParameter node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final Modifier node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final NormalAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final NullLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final NumberLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final PackageDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ParameterizedType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ParenthesizedExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final PostfixExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final PrefixExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final PrimitiveType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final QualifiedName node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final QualifiedType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ReturnStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SimpleName node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SimpleType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SingleMemberAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SingleVariableDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final StringLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SuperConstructorInvocation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SuperFieldAccess node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SuperMethodInvocation node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SwitchCase node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SwitchStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final SynchronizedStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TagElement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TextElement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ThisExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final ThrowStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TryStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TypeDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TypeDeclarationStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TypeLiteral node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final TypeParameter node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final UnionType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final VariableDeclarationExpression node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final VariableDeclarationFragment node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final VariableDeclarationStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final WhileStatement node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void endVisit(final WildcardType node) {
+		long start= System.nanoTime();
+		try {
+			delegate.endVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void postVisit(final ASTNode node) {
+		long start= System.nanoTime();
+		try {
+			delegate.postVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public void preVisit(final ASTNode node) {
+		long start= System.nanoTime();
+		try {
+			delegate.preVisit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public boolean preVisit2(final ASTNode node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.preVisit2(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, false);
+		}
+	}
+
+	@Override
+	public boolean visit(final AnnotationTypeDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final AnnotationTypeMemberDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final AnonymousClassDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ArrayAccess node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ArrayCreation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ArrayInitializer node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ArrayType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final AssertStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final Assignment node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final Block node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final BlockComment node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final BooleanLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final BreakStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final CastExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final CatchClause node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final CharacterLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ClassInstanceCreation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final CompilationUnit node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ConditionalExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ConstructorInvocation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ContinueStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final CreationReference node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final DoStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final EmptyStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final EnhancedForStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final EnumConstantDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final EnumDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ExpressionMethodReference node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ExpressionStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final FieldAccess node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final FieldDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ForStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final IfStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ImportDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final InfixExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final Initializer node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final InstanceofExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final Javadoc node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final LabeledStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final LambdaExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final LineComment node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MarkerAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MemberRef node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MemberValuePair node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MethodDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MethodInvocation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MethodRef node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final MethodRefParameter node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final Modifier node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final NormalAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final NullLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final NumberLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final PackageDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ParameterizedType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ParenthesizedExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final PostfixExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final PrefixExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final PrimitiveType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final QualifiedName node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final QualifiedType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ReturnStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SimpleName node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SimpleType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SingleMemberAnnotation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SingleVariableDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final StringLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SuperConstructorInvocation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SuperFieldAccess node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SuperMethodInvocation node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SuperMethodReference node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SwitchCase node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SwitchStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final SynchronizedStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TagElement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TextElement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ThisExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final ThrowStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TryStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TypeDeclaration node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TypeDeclarationStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TypeLiteral node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TypeMethodReference node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final TypeParameter node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final UnionType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final VariableDeclarationExpression node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final VariableDeclarationFragment node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final VariableDeclarationStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final WhileStatement node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+
+	@Override
+	public boolean visit(final WildcardType node) {
+		long start= System.nanoTime();
+		try {
+			return delegate.visit(node);
+		} finally {
+			statistics.record(System.nanoTime() - start, true);
+		}
+	}
+}
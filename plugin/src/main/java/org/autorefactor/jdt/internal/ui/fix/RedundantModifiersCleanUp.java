@@ -35,6 +35,7 @@ import java.util.List;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.util.NotImplementedException;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Annotation;
@@ -53,6 +54,7 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
 
 /** See {@link #getDescription()} method. */
+@CompilationUnitScoped
 public class RedundantModifiersCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -25,13 +25,13 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
+import org.autorefactor.jdt.internal.corext.dom.SourceText;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.AnnotationTypeDeclaration;
@@ -42,6 +42,7 @@ import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 /** See {@link #getDescription()} method. */
+@CompilationUnitScoped
 public class RemoveEmptyLinesCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -59,20 +60,18 @@ public class RemoveEmptyLinesCleanUp extends AbstractCleanUpRule {
 	}
 
 	private static final Pattern NEWLINE_PATTERN= Pattern.compile("\\r\\n|\\n|\\r"); //$NON-NLS-1$
-	private final TreeSet<Integer> lineEnds= new TreeSet<>();
+	private SourceText sourceText;
 
 	@Override
 	public boolean visit(final CompilationUnit node) {
-		lineEnds.clear();
+		sourceText= cuRewrite.getSourceText(node);
 
-		String source= cuRewrite.getSource(node);
+		String source= sourceText.getText();
 		if (source.isEmpty()) {
 			// Empty file, bail out
 			return true;
 		}
 
-		computeLineEnds(node);
-
 		ASTRewrite rewrite= cuRewrite.getASTRewrite();
 
 		int index= getIndexOfFirstNonWhitespaceChar(source, 0);
@@ -136,13 +135,6 @@ public class RemoveEmptyLinesCleanUp extends AbstractCleanUpRule {
 		return s.regionMatches(offset, toMatch, 0, s.length() - offset);
 	}
 
-	private void computeLineEnds(final CompilationUnit node) {
-		Matcher matcher= NEWLINE_PATTERN.matcher(cuRewrite.getSource(node));
-		while (matcher.find()) {
-			lineEnds.add(matcher.end());
-		}
-	}
-
 	private int getIndexOfFirstNonWhitespaceChar(final String s, final int offset) {
 		if (Character.isWhitespace(s.charAt(offset))) {
 			for (int i= offset; i < s.length(); i++) {
@@ -263,13 +255,12 @@ public class RemoveEmptyLinesCleanUp extends AbstractCleanUpRule {
 	}
 
 	private int nextLineEnd(final int fromIndex) {
-		SortedSet<Integer> higher= lineEnds.tailSet(fromIndex + 1);
-		return higher.isEmpty() ? -1 : higher.first();
+		return sourceText.getNextLineStart(fromIndex);
 	}
 
 	private int previousLineEnd(final int fromIndex) {
-		SortedSet<Integer> lower= lineEnds.headSet(fromIndex + 1);
-		return lower.isEmpty() ? -1 : lower.last();
+		int lineStart= sourceText.getLineStart(fromIndex);
+		return lineStart > 0 ? lineStart : -1;
 	}
 
 	private int beforeNewlineChars(final String source, final int fromIndex) {
@@ -29,6 +29,7 @@ import java.util.List;
 
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.util.Utils;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.DoStatement;
@@ -45,6 +46,7 @@ import org.eclipse.jdt.core.dom.WhileStatement;
  *
  * @see #getDescription()
  */
+@BodyScoped
 public class RemoveEmptyStatementCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -25,9 +25,11 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class RemoveEmptySuperConstrInvocationCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
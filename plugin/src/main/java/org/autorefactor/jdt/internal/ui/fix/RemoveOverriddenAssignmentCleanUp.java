@@ -25,10 +25,15 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
+import org.autorefactor.cfg.MethodDataFlow;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.VarDefinitionsUsesVisitor;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
 import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
@@ -57,28 +62,16 @@ public class RemoveOverriddenAssignmentCleanUp extends AbstractCleanUpRule {
 			VariableDeclarationFragment fragment= (VariableDeclarationFragment) node.fragments().get(0);
 
 			if (fragment.getInitializer() != null && ASTNodes.isPassiveWithoutFallingThrough(fragment.getInitializer())) {
-				SimpleName varName= fragment.getName();
-				IVariableBinding variable= fragment.resolveBinding();
-				Statement stmtToInspect= ASTNodes.getNextSibling(node);
-				boolean isOverridden= false;
-				boolean isRead= false;
-
-				while (stmtToInspect != null && !isOverridden && !isRead) {
-					Assignment assignment= ASTNodes.asExpression(stmtToInspect, Assignment.class);
-
-					if (assignment != null && ASTNodes.isSameVariable(varName, assignment.getLeftHandSide())) {
-						if (ASTNodes.hasOperator(assignment, Assignment.Operator.ASSIGN)) {
-							isOverridden= true;
-						} else {
-							isRead= true;
-						}
-					}
-
-					isRead|= !new VarDefinitionsUsesVisitor(variable, stmtToInspect, true).find().getReads().isEmpty();
-					stmtToInspect= ASTNodes.getNextSibling(stmtToInspect);
+				MethodDataFlow dataFlow= getMethodDataFlow(node);
+				boolean isOverriddenBeforeRead;
+
+				if (dataFlow != null) {
+					isOverriddenBeforeRead= dataFlow.isDeadWrite(fragment.getName()) && isOverridden(fragment, node);
+				} else {
+					isOverriddenBeforeRead= isOverriddenBeforeRead(fragment, node);
 				}
 
-				if (isOverridden && !isRead) {
+				if (isOverriddenBeforeRead) {
 					cuRewrite.getASTRewrite().remove(fragment.getInitializer(), null);
 					return false;
 				}
@@ -87,4 +80,61 @@ public class RemoveOverriddenAssignmentCleanUp extends AbstractCleanUpRule {
 
 		return true;
 	}
+
+	/**
+	 * Returns the data flow of the method directly declaring the variable, or
+	 * null if the variable is declared elsewhere or if the method cannot be
+	 * analyzed.
+	 */
+	private MethodDataFlow getMethodDataFlow(final VariableDeclarationStatement node) {
+		ASTNode declaringBody= ASTNodes.getFirstAncestorOrNull(node, BodyDeclaration.class, LambdaExpression.class);
+
+		if (declaringBody instanceof MethodDeclaration) {
+			return cuRewrite.getMethodDataFlow((MethodDeclaration) declaringBody);
+		}
+
+		return null;
+	}
+
+	private boolean isOverridden(final VariableDeclarationFragment fragment, final VariableDeclarationStatement node) {
+		Statement stmtToInspect= ASTNodes.getNextSibling(node);
+
+		while (stmtToInspect != null) {
+			Assignment assignment= ASTNodes.asExpression(stmtToInspect, Assignment.class);
+
+			if (assignment != null && ASTNodes.isSameVariable(fragment.getName(), assignment.getLeftHandSide())
+					&& ASTNodes.hasOperator(assignment, Assignment.Operator.ASSIGN)) {
+				return true;
+			}
+
+			stmtToInspect= ASTNodes.getNextSibling(stmtToInspect);
+		}
+
+		return false;
+	}
+
+	private boolean isOverriddenBeforeRead(final VariableDeclarationFragment fragment, final VariableDeclarationStatement node) {
+		SimpleName varName= fragment.getName();
+		IVariableBinding variable= fragment.resolveBinding();
+		Statement stmtToInspect= ASTNodes.getNextSibling(node);
+		boolean isOverridden= false;
+		boolean isRead= false;
+
+		while (stmtToInspect != null && !isOverridden && !isRead) {
+			Assignment assignment= ASTNodes.asExpression(stmtToInspect, Assignment.class);
+
+			if (assignment != null && ASTNodes.isSameVariable(varName, assignment.getLeftHandSide())) {
+				if (ASTNodes.hasOperator(assignment, Assignment.Operator.ASSIGN)) {
+					isOverridden= true;
+				} else {
+					isRead= true;
+				}
+			}
+
+			isRead|= !new VarDefinitionsUsesVisitor(variable, stmtToInspect, true).find().getReads().isEmpty();
+			stmtToInspect= ASTNodes.getNextSibling(stmtToInspect);
+		}
+
+		return isOverridden && !isRead;
+	}
 }
@@ -25,9 +25,6 @@
  */
 package org.autorefactor.jdt.internal.ui.fix;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,7 +33,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
-import org.autorefactor.jdt.internal.corext.dom.ASTNodes.NodeStartPositionComparator;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.jdt.internal.corext.dom.SourceLocation;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.Utils;
@@ -62,6 +59,7 @@ import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
  * <p>
  * TODO remove superfluous semi-colons in try-with-resources
  */
+@CompilationUnitScoped
 public class RemoveSemiColonCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -163,7 +161,7 @@ public class RemoveSemiColonCleanUp extends AbstractCleanUpRule {
 	}
 
 	private Map<String, SourceLocation> getNonCommentsStrings(final ASTNode node, final int start, final int end) {
-		List<Comment> comments= filterCommentsInRange(start, end, node.getRoot());
+		List<Comment> comments= cuRewrite.getCommentIndex().commentsInRange(start, end);
 
 		String source= cuRewrite.getSource(node);
 		LinkedHashMap<String, SourceLocation> results= new LinkedHashMap<>();
@@ -188,33 +186,6 @@ public class RemoveSemiColonCleanUp extends AbstractCleanUpRule {
 		results.put(s, sourceLoc);
 	}
 
-	private List<Comment> filterCommentsInRange(final int start, final int end, final ASTNode root) {
-		if (root instanceof CompilationUnit) {
-			CompilationUnit cu= (CompilationUnit) root;
-			return filterCommentsInRange(start, end, ASTNodes.getCommentList(cu));
-		}
-
-		return Collections.emptyList();
-	}
-
-	private List<Comment> filterCommentsInRange(final int start, final int end, final List<Comment> commentList) {
-		if (commentList.isEmpty()) {
-			return Collections.emptyList();
-		}
-		List<Comment> comments= new ArrayList<>(commentList);
-		Collections.sort(comments, new NodeStartPositionComparator());
-
-		Iterator<Comment> it= comments.iterator();
-		while (it.hasNext()) {
-			Comment comment= it.next();
-			if (comment.getStartPosition() < start || SourceLocation.getEndPosition(comment) > end) {
-				it.remove();
-			}
-		}
-
-		return comments;
-	}
-
 	@Override
 	public boolean visit(final TryStatement node) {
 		List<VariableDeclarationExpression> resources= ASTNodes.resources(node);
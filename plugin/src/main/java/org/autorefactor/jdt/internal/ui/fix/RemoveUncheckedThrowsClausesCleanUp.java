@@ -30,12 +30,14 @@ import java.util.Collection;
 import java.util.List;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Type;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public final class RemoveUncheckedThrowsClausesCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
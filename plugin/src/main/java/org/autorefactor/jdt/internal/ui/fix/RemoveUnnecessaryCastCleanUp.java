@@ -33,6 +33,7 @@ import java.util.List;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.util.NotImplementedException;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CastExpression;
@@ -44,6 +45,7 @@ import org.eclipse.jdt.core.dom.NumberLiteral;
 /**
  * See {@link #getDescription()} method.
  */
+@BodyScoped
 public class RemoveUnnecessaryCastCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
@@ -0,0 +1,307 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
+import org.autorefactor.jdt.internal.corext.dom.RefactoringRule;
+import org.autorefactor.util.IllegalArgumentException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Modifier;
+
+/**
+ * Immutable description of the visitor methods implemented by a list of
+ * cleanup rules, indexed by node class.
+ * <p>
+ * The rule classes are scanned by reflection only once for the whole
+ * application. A plan is built once per run, then each
+ * {@link AggregateASTVisitor} binds its own rule instances to it without any
+ * reflection.
+ */
+public final class RulePlan {
+	/** The visitor methods declared by one rule class and its superclasses. */
+	private static final class RuleMethods {
+		private final Set<Class<?>> visitedClasses= new LinkedHashSet<>();
+		private final Set<Class<?>> endVisitedClasses= new LinkedHashSet<>();
+		private boolean hasPreVisit;
+		private boolean hasPreVisit2;
+		private boolean hasPostVisit;
+		private boolean bodyScoped;
+		private boolean compilationUnitScoped;
+	}
+
+	/** The visitor methods of the rule classes scanned so far. */
+	private static final ConcurrentMap<Class<?>, RuleMethods> RULE_METHODS= new ConcurrentHashMap<>();
+
+	private final List<Class<? extends RefactoringRule>> ruleClasses= new ArrayList<>();
+	private final Map<Class<?>, int[]> visitRules;
+	private final Map<Class<?>, int[]> endVisitRules;
+	private final int[] preVisitRules;
+	private final int[] preVisit2Rules;
+	private final int[] postVisitRules;
+	private final int[] bodyScopedRules;
+	private final int[] compilationUnitScopedRules;
+
+	/**
+	 * Builds an instance of this class.
+	 *
+	 * @param rules the rules, in the order they will visit the nodes
+	 */
+	public RulePlan(final List<RefactoringRule> rules) {
+		Map<Class<?>, List<Integer>> visitRuleList= new HashMap<>();
+		Map<Class<?>, List<Integer>> endVisitRuleList= new HashMap<>();
+		List<Integer> preVisitRuleList= new ArrayList<>();
+		List<Integer> preVisit2RuleList= new ArrayList<>();
+		List<Integer> postVisitRuleList= new ArrayList<>();
+		List<Integer> bodyScopedRuleList= new ArrayList<>();
+		List<Integer> compilationUnitScopedRuleList= new ArrayList<>();
+
+		for (int i= 0; i < rules.size(); i++) {
+			ruleClasses.add(rules.get(i).getClass());
+			RuleMethods ruleMethods= getRuleMethods(rules.get(i).getClass());
+
+			for (Class<?> visitedClass : ruleMethods.visitedClasses) {
+				put(visitRuleList, visitedClass, i);
+			}
+
+			for (Class<?> endVisitedClass : ruleMethods.endVisitedClasses) {
+				put(endVisitRuleList, endVisitedClass, i);
+			}
+
+			if (ruleMethods.hasPreVisit) {
+				preVisitRuleList.add(i);
+			}
+
+			if (ruleMethods.hasPreVisit2) {
+				preVisit2RuleList.add(i);
+			}
+
+			if (ruleMethods.hasPostVisit) {
+				postVisitRuleList.add(i);
+			}
+
+			if (ruleMethods.bodyScoped) {
+				bodyScopedRuleList.add(i);
+			}
+
+			if (ruleMethods.compilationUnitScoped) {
+				compilationUnitScopedRuleList.add(i);
+			}
+		}
+
+		this.visitRules= toIndexes(visitRuleList);
+		this.endVisitRules= toIndexes(endVisitRuleList);
+		this.preVisitRules= toIndexes(preVisitRuleList);
+		this.preVisit2Rules= toIndexes(preVisit2RuleList);
+		this.postVisitRules= toIndexes(postVisitRuleList);
+		this.bodyScopedRules= toIndexes(bodyScopedRuleList);
+		this.compilationUnitScopedRules= toIndexes(compilationUnitScopedRuleList);
+	}
+
+	private static void put(final Map<Class<?>, List<Integer>> map, final Class<?> key, final int ruleIndex) {
+		List<Integer> ruleIndexes= map.get(key);
+
+		if (ruleIndexes == null) {
+			ruleIndexes= new ArrayList<>();
+			map.put(key, ruleIndexes);
+		}
+
+		ruleIndexes.add(ruleIndex);
+	}
+
+	private static Map<Class<?>, int[]> toIndexes(final Map<Class<?>, List<Integer>> map) {
+		Map<Class<?>, int[]> indexes= new HashMap<>();
+
+		for (Entry<Class<?>, List<Integer>> entry : map.entrySet()) {
+			indexes.put(entry.getKey(), toIndexes(entry.getValue()));
+		}
+
+		return Collections.unmodifiableMap(indexes);
+	}
+
+	private static int[] toIndexes(final List<Integer> list) {
+		int[] indexes= new int[list.size()];
+
+		for (int i= 0; i < indexes.length; i++) {
+			indexes[i]= list.get(i);
+		}
+
+		return indexes;
+	}
+
+	private static RuleMethods getRuleMethods(final Class<?> ruleClass) {
+		RuleMethods ruleMethods= RULE_METHODS.get(ruleClass);
+
+		if (ruleMethods == null) {
+			ruleMethods= new RuleMethods();
+			analyzeVisitor(ruleMethods, ruleClass);
+			ruleMethods.bodyScoped= ruleClass.isAnnotationPresent(BodyScoped.class);
+			ruleMethods.compilationUnitScoped= ruleClass.isAnnotationPresent(CompilationUnitScoped.class);
+			RuleMethods previous= RULE_METHODS.putIfAbsent(ruleClass, ruleMethods);
+
+			if (previous != null) {
+				return previous;
+			}
+		}
+
+		return ruleMethods;
+	}
+
+	private static void analyzeVisitor(final RuleMethods ruleMethods, final Class<?> clazz) {
+		if (ASTVisitor.class.equals(clazz)) {
+			return;
+		}
+		for (Method m : clazz.getDeclaredMethods()) {
+			if (is("preVisit", m)) { //$NON-NLS-1$
+				ruleMethods.hasPreVisit= true;
+			} else if (is("preVisit2", m)) { //$NON-NLS-1$
+				ruleMethods.hasPreVisit2= true;
+			} else if (is("postVisit", m)) { //$NON-NLS-1$
+				ruleMethods.hasPostVisit= true;
+			} else if (isVisit(m)) {
+				ruleMethods.visitedClasses.add(m.getParameterTypes()[0]);
+			} else if (isEndVisit(m)) {
+				ruleMethods.endVisitedClasses.add(m.getParameterTypes()[0]);
+			}
+		}
+		analyzeVisitor(ruleMethods, clazz.getSuperclass());
+	}
+
+	static boolean is(final String methodName, final Method m) {
+		return methodName.equals(m.getName()) && m.getParameterTypes().length == 1
+				&& ASTNode.class.equals(m.getParameterTypes()[0]);
+	}
+
+	static boolean isVisit(final Method m) {
+		return "visit".equals(m.getName()) && m.getParameterTypes().length == 1 //$NON-NLS-1$
+				&& ASTNode.class.isAssignableFrom(m.getParameterTypes()[0])
+				&& !Modifier.isAbstract(m.getParameterTypes()[0].getModifiers());
+	}
+
+	static boolean isEndVisit(final Method m) {
+		return "endVisit".equals(m.getName()) && m.getParameterTypes().length == 1 //$NON-NLS-1$
+				&& ASTNode.class.isAssignableFrom(m.getParameterTypes()[0])
+				&& !Modifier.isAbstract(m.getParameterTypes()[0].getModifiers());
+	}
+
+	/**
+	 * Returns new instances of the rules of this plan, for a worker that must not
+	 * share the state of the rules with the other workers.
+	 *
+	 * @return new instances of the rules of this plan
+	 * @throws Exception if a rule cannot be instantiated
+	 */
+	public List<RefactoringRule> newRules() throws Exception {
+		List<RefactoringRule> rules= new ArrayList<>(ruleClasses.size());
+
+		for (Class<? extends RefactoringRule> ruleClass : ruleClasses) {
+			rules.add(ruleClass.getDeclaredConstructor().newInstance());
+		}
+
+		return rules;
+	}
+
+	/**
+	 * Checks that the provided rules are instances of the rules of this plan, in
+	 * the same order.
+	 *
+	 * @param rules the rules to bind to this plan
+	 */
+	void checkRules(final List<? extends ASTVisitor> rules) {
+		if (rules.size() != ruleClasses.size()) {
+			throw new IllegalArgumentException(null, "Expected " + ruleClasses.size() + " rules, but got " + rules.size()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		for (int i= 0; i < rules.size(); i++) {
+			if (rules.get(i).getClass() != ruleClasses.get(i)) {
+				throw new IllegalArgumentException(null, "Expected an instance of " + ruleClasses.get(i).getName() //$NON-NLS-1$
+						+ " at index " + i + ", but got " + rules.get(i).getClass().getName()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+	}
+
+	/**
+	 * Returns the indexes of the rules implementing a visit method, by node class.
+	 *
+	 * @return the indexes of the rules implementing a visit method
+	 */
+	Map<Class<?>, int[]> getVisitRules() {
+		return visitRules;
+	}
+
+	/**
+	 * Returns the indexes of the rules implementing an end visit method, by node
+	 * class.
+	 *
+	 * @return the indexes of the rules implementing an end visit method
+	 */
+	Map<Class<?>, int[]> getEndVisitRules() {
+		return endVisitRules;
+	}
+
+	int[] getPreVisitRules() {
+		return preVisitRules;
+	}
+
+	int[] getPreVisit2Rules() {
+		return preVisit2Rules;
+	}
+
+	int[] getPostVisitRules() {
+		return postVisitRules;
+	}
+
+	/**
+	 * Returns the indexes of the rules marked with {@link BodyScoped}.
+	 *
+	 * @return the indexes of the rules marked with {@link BodyScoped}
+	 */
+	int[] getBodyScopedRules() {
+		return bodyScopedRules;
+	}
+
+	/**
+	 * Returns the indexes of the rules marked with {@link CompilationUnitScoped}.
+	 *
+	 * @return the indexes of the rules marked with {@link CompilationUnitScoped}
+	 */
+	int[] getCompilationUnitScopedRules() {
+		return compilationUnitScopedRules;
+	}
+}
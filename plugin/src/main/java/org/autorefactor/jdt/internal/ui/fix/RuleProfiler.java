@@ -0,0 +1,221 @@
+/*
+ * AutoRefactor - Eclipse plugin to automatically refactor Java code bases.
+ *
+ * Copyright (C) 2020 Fabrice Tiercelin - initial API and implementation
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program under LICENSE-GNUGPL.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution under LICENSE-ECLIPSE, and is
+ * available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.autorefactor.jdt.internal.ui.fix;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.autorefactor.environment.Logger;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+
+/**
+ * Collects the time spent by each cleanup rule across all the workers of a run
+ * and writes it as CSV and JSON reports.
+ * <p>
+ * The statistics only use lock-free counters so the workers never wait for each
+ * other. The rules are only profiled when an {@link AggregateASTVisitor} is
+ * built with a profiler: otherwise the visitors are dispatched without any
+ * profiling code.
+ */
+public final class RuleProfiler {
+	/** Statistics of one cleanup rule. */
+	static final class RuleStatistics {
+		private final LongAdder nanos= new LongAdder();
+		private final LongAdder invocations= new LongAdder();
+		private final LongAdder visitedNodes= new LongAdder();
+		private final LongAdder contributedFiles= new LongAdder();
+
+		/**
+		 * Records one call to the rule.
+		 *
+		 * @param duration the duration of the call in nanoseconds
+		 * @param isVisit  true if the call visited a node, false for the other
+		 *                 callbacks
+		 */
+		void record(final long duration, final boolean isVisit) {
+			nanos.add(duration);
+			invocations.increment();
+			if (isVisit) {
+				visitedNodes.increment();
+			}
+		}
+	}
+
+	/** Statistics of one refactored file. */
+	private static final class FileStatistics {
+		private final String path;
+		private final int nbIterations;
+		private final List<String> contributingRules;
+
+		private FileStatistics(final String path, final int nbIterations, final List<String> contributingRules) {
+			this.path= path;
+			this.nbIterations= nbIterations;
+			this.contributingRules= contributingRules;
+		}
+	}
+
+	private final ConcurrentMap<String, RuleStatistics> ruleStatistics= new ConcurrentHashMap<>();
+	private final Queue<FileStatistics> fileStatistics= new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Returns the statistics of the provided rule, shared by all its instances.
+	 *
+	 * @param rule the cleanup rule
+	 * @return the statistics of the provided rule
+	 */
+	RuleStatistics getStatistics(final ASTVisitor rule) {
+		String ruleName= rule.getClass().getName();
+		RuleStatistics statistics= ruleStatistics.get(ruleName);
+		if (statistics == null) {
+			RuleStatistics newStatistics= new RuleStatistics();
+			statistics= ruleStatistics.putIfAbsent(ruleName, newStatistics);
+			if (statistics == null) {
+				statistics= newStatistics;
+			}
+		}
+
+		return statistics;
+	}
+
+	/**
+	 * Records the fix-point iterations needed by a file.
+	 *
+	 * @param path              the path of the file
+	 * @param nbIterations      the number of iterations that modified the file
+	 * @param contributingRules the rules that modified the file
+	 */
+	public void recordFile(final String path, final int nbIterations, final Collection<ASTVisitor> contributingRules) {
+		List<String> ruleNames= new ArrayList<>(contributingRules.size());
+		for (ASTVisitor rule : contributingRules) {
+			getStatistics(rule).contributedFiles.increment();
+			ruleNames.add(rule.getClass().getName());
+		}
+
+		fileStatistics.add(new FileStatistics(path, nbIterations, ruleNames));
+	}
+
+	/**
+	 * Writes the reports in the provided directory.
+	 *
+	 * @param directory the directory receiving the reports
+	 * @param logger    the logger reporting where the reports are
+	 */
+	public void writeReport(final File directory, final Logger logger) {
+		String prefix= "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()); //$NON-NLS-1$ //$NON-NLS-2$
+		File rulesCsv= new File(directory, prefix + "-rules.csv"); //$NON-NLS-1$
+		File filesCsv= new File(directory, prefix + "-files.csv"); //$NON-NLS-1$
+		File json= new File(directory, prefix + ".json"); //$NON-NLS-1$
+		Map<String, RuleStatistics> sortedRules= new TreeMap<>(ruleStatistics);
+
+		try {
+			Files.createDirectories(directory.toPath());
+
+			try (Writer writer= Files.newBufferedWriter(rulesCsv.toPath(), StandardCharsets.UTF_8)) {
+				writer.append("rule,timeMs,invocations,visitedNodes,contributedFiles\n"); //$NON-NLS-1$
+				for (Map.Entry<String, RuleStatistics> entry : sortedRules.entrySet()) {
+					RuleStatistics statistics= entry.getValue();
+					writer.append(entry.getKey()).append(',').append(String.valueOf(toMillis(statistics.nanos)))
+							.append(',').append(String.valueOf(statistics.invocations.sum())).append(',')
+							.append(String.valueOf(statistics.visitedNodes.sum())).append(',')
+							.append(String.valueOf(statistics.contributedFiles.sum())).append('\n');
+				}
+			}
+
+			try (Writer writer= Files.newBufferedWriter(filesCsv.toPath(), StandardCharsets.UTF_8)) {
+				writer.append("file,iterations,contributingRules\n"); //$NON-NLS-1$
+				for (FileStatistics statistics : fileStatistics) {
+					writer.append('"').append(statistics.path.replace("\"", "\"\"")).append("\",") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							.append(String.valueOf(statistics.nbIterations)).append(',')
+							.append(String.join(";", statistics.contributingRules)).append('\n'); //$NON-NLS-1$
+				}
+			}
+
+			try (Writer writer= Files.newBufferedWriter(json.toPath(), StandardCharsets.UTF_8)) {
+				writeJson(writer, sortedRules);
+			}
+
+			logger.info("AutoRefactor profiling reports written to " + rulesCsv + ", " + filesCsv + " and " + json); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		} catch (IOException e) {
+			logger.error("Cannot write the profiling reports in " + directory, e); //$NON-NLS-1$
+		}
+	}
+
+	private void writeJson(final Writer writer, final Map<String, RuleStatistics> sortedRules) throws IOException {
+		writer.append("{\n  \"rules\": ["); //$NON-NLS-1$
+		String separator= "\n"; //$NON-NLS-1$
+		for (Map.Entry<String, RuleStatistics> entry : sortedRules.entrySet()) {
+			RuleStatistics statistics= entry.getValue();
+			writer.append(separator).append("    {\"rule\": ").append(quote(entry.getKey())) //$NON-NLS-1$
+					.append(", \"timeMs\": ").append(String.valueOf(toMillis(statistics.nanos))) //$NON-NLS-1$
+					.append(", \"invocations\": ").append(String.valueOf(statistics.invocations.sum())) //$NON-NLS-1$
+					.append(", \"visitedNodes\": ").append(String.valueOf(statistics.visitedNodes.sum())) //$NON-NLS-1$
+					.append(", \"contributedFiles\": ").append(String.valueOf(statistics.contributedFiles.sum())).append('}'); //$NON-NLS-1$
+			separator= ",\n"; //$NON-NLS-1$
+		}
+
+		writer.append("\n  ],\n  \"files\": ["); //$NON-NLS-1$
+		separator= "\n"; //$NON-NLS-1$
+		for (FileStatistics statistics : fileStatistics) {
+			writer.append(separator).append("    {\"file\": ").append(quote(statistics.path)) //$NON-NLS-1$
+					.append(", \"iterations\": ").append(String.valueOf(statistics.nbIterations)) //$NON-NLS-1$
+					.append(", \"contributingRules\": ["); //$NON-NLS-1$
+			for (int i= 0; i < statistics.contributingRules.size(); i++) {
+				if (i > 0) {
+					writer.append(", "); //$NON-NLS-1$
+				}
+				writer.append(quote(statistics.contributingRules.get(i)));
+			}
+			writer.append("]}"); //$NON-NLS-1$
+			separator= ",\n"; //$NON-NLS-1$
+		}
+
+		writer.append("\n  ]\n}\n"); //$NON-NLS-1$
+	}
+
+	private static long toMillis(final LongAdder nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+	}
+
+	private static String quote(final String value) {
+		return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+}
@@ -38,6 +38,7 @@ import java.util.TreeMap;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.CollectorVisitor;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.UnhandledException;
 import org.autorefactor.util.Utils;
@@ -73,6 +74,7 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 
 /** See {@link #getDescription()} method. */
+@CompilationUnitScoped
 public class SimpleNameRatherThanQualifiedNameCleanUp extends AbstractCleanUpRule {
 	private static final class QName {
 		private final QName qualifier;
@@ -682,7 +684,8 @@ public class SimpleNameRatherThanQualifiedNameCleanUp extends AbstractCleanUpRul
 
 	private boolean maybeReplaceFqnsWithSimpleNames(final ASTNode node, final Set<SimpleName> localIdentifiers) {
 		if (node != null) {
-			Iterable<QualifiedName> qualifiedNames= new QualifiedNamesCollector().collect(node);
+			Iterable<QualifiedName> qualifiedNames= new QualifiedNamesCollector().collect(node, QualifiedName.class,
+					cuRewrite.getNodeTypeIndex());
 			for (QualifiedName qualifiedName : qualifiedNames) {
 				if (!maybeReplaceFqnWithSimpleName(qualifiedName, localIdentifiers)) {
 					return false;
@@ -30,6 +30,7 @@ import java.util.List;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.CompilationUnitScoped;
 import org.autorefactor.jdt.internal.corext.dom.InterruptibleVisitor;
 import org.autorefactor.util.Utils;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -42,6 +43,7 @@ import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 /** See {@link #getDescription()} method. */
+@CompilationUnitScoped
 public class StaticInnerClassThanNonStaticCleanUp extends AbstractCleanUpRule {
 	private static class TopLevelClassMemberVisitor extends InterruptibleVisitor {
 		private final TypeDeclaration topLevelClass;
@@ -38,6 +38,7 @@ import org.autorefactor.jdt.internal.corext.dom.ASTMatcherSameVariablesAndMethod
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
 import org.autorefactor.jdt.internal.corext.dom.BlockSubVisitor;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.jdt.internal.corext.dom.FinderVisitor;
 import org.autorefactor.util.NotImplementedException;
 import org.autorefactor.util.Utils;
@@ -61,6 +62,7 @@ import org.eclipse.jdt.core.dom.SwitchStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class SwitchCleanUp extends AbstractCleanUpRule {
 	private static final class Variable {
 		private final Expression name;
@@ -26,6 +26,7 @@
 package org.autorefactor.jdt.internal.ui.fix;
 
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.eclipse.jdt.core.dom.NumberLiteral;
 
 /**
@@ -33,6 +34,7 @@ import org.eclipse.jdt.core.dom.NumberLiteral;
  *
  * This rule refactors the Sonar squid:LowerCaseLongSuffixCheck.
  */
+@BodyScoped
 public class UppercaseNumberSuffixRatherThanLowercaseCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
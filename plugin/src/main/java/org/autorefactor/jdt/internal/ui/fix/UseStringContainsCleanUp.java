@@ -29,6 +29,7 @@ package org.autorefactor.jdt.internal.ui.fix;
 import org.autorefactor.jdt.core.dom.ASTRewrite;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodeFactory;
 import org.autorefactor.jdt.internal.corext.dom.ASTNodes;
+import org.autorefactor.jdt.internal.corext.dom.BodyScoped;
 import org.autorefactor.jdt.internal.corext.dom.OrderedInfixExpression;
 import org.autorefactor.util.Utils;
 import org.eclipse.jdt.core.dom.Expression;
@@ -36,6 +37,7 @@ import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.MethodInvocation;
 
 /** See {@link #getDescription()} method. */
+@BodyScoped
 public class UseStringContainsCleanUp extends AbstractCleanUpRule {
 	@Override
 	public String getName() {
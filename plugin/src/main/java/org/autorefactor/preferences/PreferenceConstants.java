@@ -28,7 +28,62 @@ package org.autorefactor.preferences;
 /** Interface holding preference constants. */
 public enum PreferenceConstants {
 	/** Preference that turns debug mode on or off. */
-	DEBUG_MODE_ON("debug_mode_on", "Enable debug mode (for developers)", Boolean.FALSE); //$NON-NLS-1$ //$NON-NLS-2$
+	DEBUG_MODE_ON("debug_mode_on", "Enable debug mode (for developers)", Boolean.FALSE), //$NON-NLS-1$ //$NON-NLS-2$
+	/**
+	 * Preference that turns incremental parsing on or off: when a pass only
+	 * modified one method body, the next pass only parses and visits this body.
+	 */
+	INCREMENTAL_PARSING_ON("incremental_parsing_on", "Only re-parse the modified member between passes (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference that turns the clean unit cache on or off: a file found clean
+	 * by a previous run is skipped while neither its content, the cleanups, its
+	 * project configuration nor the source files it depends on change.
+	 */
+	CLEAN_UNIT_CACHE_ON("clean_unit_cache_on", "Skip the files found clean by a previous run with the same cleanups (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference that turns profiling on or off: the time spent by each cleanup
+	 * and the iterations needed by each file are written in reports at the end
+	 * of each run.
+	 */
+	PROFILING_ON("profiling_on", "Profile the cleanups and write reports in the workspace metadata (for developers)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference that turns the working copy mode on or off: the files that are
+	 * not opened in an editor are refactored in memory and written to disk once,
+	 * after the last pass, instead of being saved after every pass.
+	 */
+	WORKING_COPY_ON("working_copy_on", "Refactor the files not opened in an editor in memory and save them once (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference that turns batch parsing on or off: each worker parses up to
+	 * 32 files of a Java project together for their first pass, sharing the
+	 * resolution of the classpath and of the bindings.
+	 */
+	BATCH_PARSING_ON("batch_parsing_on", "Parse the files in batches sharing one lookup environment (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference giving the time budget of the save action in milliseconds: once
+	 * it is spent, the save action keeps the cleanups found so far and finishes
+	 * the file in a background job. Zero means no budget.
+	 */
+	SAVE_ACTION_BUDGET("save_action_budget", "Time budget of the save action in milliseconds (0 for no budget)", //$NON-NLS-1$ //$NON-NLS-2$
+			Integer.valueOf(0)),
+	/**
+	 * Preference that turns disjoint edits on or off: when a cleanup edits a node,
+	 * the other cleanups still visit the parts of this node that the edits do not
+	 * overlap.
+	 */
+	DISJOINT_EDITS_ON("disjoint_edits_on", "Let the cleanups edit disjoint parts of a node in the same pass (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE),
+	/**
+	 * Preference that restricts the passes after the first one to the members
+	 * modified by the previous pass, plus the cleanups working on the whole file.
+	 * A last complete pass checks that the file is clean.
+	 */
+	DIRTY_REGIONS_ON("dirty_regions_on", "Only revisit the members modified by the previous pass (experimental)", //$NON-NLS-1$ //$NON-NLS-2$
+			Boolean.FALSE);
 
 	/** TODO use this for preferences initialization. */
 	private static final String JDT_ALWAYS_USE_THIS_FOR_NON_STATIC_METHOD_ACCESS= "cleanup.always_use_this_for_non_static_method_access"; //$NON-NLS-1$
@@ -36,6 +36,63 @@ public interface Preferences {
 	 */
 	boolean debugModeOn();
 
+	/**
+	 * Returns whether incremental parsing is on.
+	 *
+	 * @return true if incremental parsing is on, false otherwise.
+	 */
+	boolean incrementalParsingOn();
+
+	/**
+	 * Returns whether the passes after the first one only visit the members modified by the previous pass.
+	 *
+	 * @return true if the passes after the first one only visit the members modified by the previous pass, false otherwise.
+	 */
+	boolean dirtyRegionsOn();
+
+	/**
+	 * Returns whether the cleanups can edit disjoint parts of a node in the same pass.
+	 *
+	 * @return true if the cleanups can edit disjoint parts of a node in the same pass, false otherwise.
+	 */
+	boolean disjointEditsOn();
+
+	/**
+	 * Returns the time budget of the save action in milliseconds.
+	 *
+	 * @return the time budget of the save action in milliseconds, zero for no
+	 *         budget.
+	 */
+	int saveActionBudget();
+
+	/**
+	 * Returns whether the files are parsed in batches sharing one lookup environment.
+	 *
+	 * @return true if the files are parsed in batches sharing one lookup environment, false otherwise.
+	 */
+	boolean batchParsingOn();
+
+	/**
+	 * Returns whether the files not opened in an editor are refactored in a working copy and saved once.
+	 *
+	 * @return true if the files not opened in an editor are refactored in a working copy and saved once, false otherwise.
+	 */
+	boolean workingCopyOn();
+
+	/**
+	 * Returns whether profiling is on.
+	 *
+	 * @return true if profiling is on, false otherwise.
+	 */
+	boolean profilingOn();
+
+	/**
+	 * Returns whether the clean unit cache is on.
+	 *
+	 * @return true if the clean unit cache is on, false otherwise.
+	 */
+	boolean cleanUnitCacheOn();
+
 	/**
 	 * Returns whether this cleanup rule is on.
 	 *
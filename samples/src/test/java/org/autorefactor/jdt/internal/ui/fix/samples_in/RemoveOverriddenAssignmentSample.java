@@ -27,6 +27,7 @@ package org.autorefactor.jdt.internal.ui.fix.samples_in;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public class RemoveOverriddenAssignmentSample {
     public boolean removeUselessInitialization() {
@@ -145,4 +146,25 @@ public class RemoveOverriddenAssignmentSample {
         reassignedPassiveVar = "\n".equals(System.lineSeparator());
         return reassignedPassiveVar;
     }
+
+    public String removeInitInMethodWithTry() {
+        // Keep this comment
+        String reassignedVar = "";
+        reassignedVar = System.lineSeparator();
+        try {
+            return reassignedVar.trim();
+        } finally {
+            System.out.println("Done");
+        }
+    }
+
+    public String removeInitInLambda() {
+        Callable<String> callable = () -> {
+            // Keep this comment
+            String reassignedVar = "";
+            reassignedVar = System.lineSeparator();
+            return reassignedVar;
+        };
+        return callable.toString();
+    }
 }